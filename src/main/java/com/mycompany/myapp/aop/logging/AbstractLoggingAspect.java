@@ -0,0 +1,210 @@
+package com.mycompany.myapp.aop.logging;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.CodeSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import tech.jhipster.config.JHipsterConstants;
+
+/**
+ * Advices logging the execution of the methods matched by {@link #loggedMethodPointcut()}.
+ * <p>
+ * They cost a debug level check when debug is off. Otherwise, only 1 in {@code sample-rate} calls are logged, and their
+ * arguments and results are cut to {@code max-value-length}: collections, maps, arrays and pages only show their size,
+ * so that their elements are never converted to strings.
+ * <p>
+ * The arguments named like a password, a key, a secret or a token are masked, as are all of them when the parameter
+ * names are unknown. The arguments of a call throwing an {@link IllegalArgumentException} are only logged with the
+ * {@code dev} profile.
+ */
+@Aspect
+public abstract class AbstractLoggingAspect {
+
+    private static final ClassValue<Logger> LOGGERS = new ClassValue<>() {
+        @Override
+        protected Logger computeValue(Class<?> type) {
+            return LoggerFactory.getLogger(type);
+        }
+    };
+
+    private static final Pattern SECRET_NAME = Pattern.compile("(?i).*(password|key|secret|token).*");
+
+    private static final String MASK = "******";
+
+    private final Environment env;
+
+    private final int sampleRate;
+
+    private final int maxValueLength;
+
+    protected AbstractLoggingAspect(Environment env, ApplicationProperties.MethodLogging methodLogging) {
+        this.env = env;
+        this.sampleRate = Math.max(1, methodLogging.getSampleRate());
+        this.maxValueLength = methodLogging.getMaxValueLength();
+    }
+
+    /**
+     * Pointcut that matches the logged methods.
+     */
+    @Pointcut
+    public abstract void loggedMethodPointcut();
+
+    /**
+     * Retrieves the {@link Logger} associated to the given {@link JoinPoint}.
+     *
+     * @param joinPoint join point we want the logger for.
+     * @return {@link Logger} associated to the given {@link JoinPoint}.
+     */
+    private Logger logger(JoinPoint joinPoint) {
+        return LOGGERS.get(joinPoint.getSignature().getDeclaringType());
+    }
+
+    /**
+     * Advice that logs methods throwing exceptions.
+     *
+     * @param joinPoint join point for advice.
+     * @param e exception.
+     */
+    @AfterThrowing(pointcut = "loggedMethodPointcut()", throwing = "e")
+    public void logAfterThrowing(JoinPoint joinPoint, Throwable e) {
+        if (env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT))) {
+            logger(joinPoint)
+                .error(
+                    "Exception in {}() with cause = '{}' and exception = '{}'",
+                    joinPoint.getSignature().getName(),
+                    e.getCause() != null ? e.getCause() : "NULL",
+                    e.getMessage(),
+                    e
+                );
+        } else {
+            logger(joinPoint)
+                .error(
+                    "Exception in {}() with cause = {}",
+                    joinPoint.getSignature().getName(),
+                    e.getCause() != null ? e.getCause() : "NULL"
+                );
+        }
+    }
+
+    /**
+     * Advice that logs when a sampled method call is entered and exited.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable throws {@link IllegalArgumentException}.
+     */
+    @Around("loggedMethodPointcut()")
+    public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        Logger log = logger(joinPoint);
+        boolean logged = log.isDebugEnabled() && (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+        if (logged) {
+            log.debug("Enter: {}() with argument[s] = {}", joinPoint.getSignature().getName(), describeArguments(joinPoint));
+        }
+        try {
+            Object result = joinPoint.proceed();
+            if (logged) {
+                log.debug("Exit: {}() with result = {}", joinPoint.getSignature().getName(), describe(result, maxValueLength));
+            }
+            return result;
+        } catch (IllegalArgumentException e) {
+            if (env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT))) {
+                log.error("Illegal argument: {} in {}()", describeArguments(joinPoint), joinPoint.getSignature().getName());
+            } else {
+                log.error("Illegal argument in {}()", joinPoint.getSignature().getName());
+            }
+            throw e;
+        }
+    }
+
+    private String describeArguments(JoinPoint joinPoint) {
+        Object[] args = joinPoint.getArgs();
+        String[] names = joinPoint.getSignature() instanceof CodeSignature
+            ? ((CodeSignature) joinPoint.getSignature()).getParameterNames()
+            : null;
+        StringBuilder description = new StringBuilder("[");
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                description.append(", ");
+            }
+            if (names == null || names[i] == null || isSecret(names[i])) {
+                description.append(MASK);
+            } else {
+                description.append(describe(args[i], maxValueLength));
+            }
+        }
+        return description.append(']').toString();
+    }
+
+    /**
+     * @param parameterName the name of a parameter.
+     * @return whether the arguments of the parameter are masked.
+     */
+    static boolean isSecret(String parameterName) {
+        return SECRET_NAME.matcher(parameterName).matches();
+    }
+
+    /**
+     * Describe an argument or a result, without converting the elements of a container to strings.
+     *
+     * @param value the value.
+     * @param maxLength the length beyond which the string of a value is cut.
+     * @return the description of the value.
+     */
+    static String describe(Object value, int maxLength) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof Page) {
+            Page<?> page = (Page<?>) value;
+            return (
+                "Page[number=" + page.getNumber() + ", elements=" + page.getNumberOfElements() + ", total=" + page.getTotalElements() + "]"
+            );
+        }
+        if (value instanceof Slice) {
+            Slice<?> slice = (Slice<?>) value;
+            return "Slice[number=" + slice.getNumber() + ", elements=" + slice.getNumberOfElements() + "]";
+        }
+        if (value instanceof Collection) {
+            return value.getClass().getSimpleName() + "[size=" + ((Collection<?>) value).size() + "]";
+        }
+        if (value instanceof Map) {
+            return value.getClass().getSimpleName() + "[size=" + ((Map<?, ?>) value).size() + "]";
+        }
+        if (value.getClass().isArray()) {
+            return value.getClass().getComponentType().getSimpleName() + "[length=" + Array.getLength(value) + "]";
+        }
+        if (value instanceof Optional) {
+            return ((Optional<?>) value).map(present -> "Optional[" + describe(present, maxLength) + "]").orElse("Optional.empty");
+        }
+        if (value instanceof ResponseEntity) {
+            ResponseEntity<?> entity = (ResponseEntity<?>) value;
+            return "ResponseEntity[status=" + entity.getStatusCodeValue() + ", body=" + describe(entity.getBody(), maxLength) + "]";
+        }
+        if (value instanceof HttpEntity) {
+            return "HttpEntity[body=" + describe(((HttpEntity<?>) value).getBody(), maxLength) + "]";
+        }
+        String description = value.toString();
+        if (description.length() <= maxLength) {
+            return description;
+        }
+        return description.substring(0, maxLength) + "...(" + description.length() + " chars)";
+    }
+}
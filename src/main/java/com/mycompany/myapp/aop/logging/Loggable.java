@@ -0,0 +1,19 @@
+package com.mycompany.myapp.aop.logging;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Log the calls of the methods of a class, or of a single method, at debug level.
+ * <p>
+ * It is how the methods opt in to {@link LoggableAspect}, so that only them are proxied for logging: see
+ * {@code application.method-logging.mode}.
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Loggable {
+}
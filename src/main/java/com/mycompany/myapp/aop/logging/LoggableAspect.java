@@ -0,0 +1,25 @@
+package com.mycompany.myapp.aop.logging;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.core.env.Environment;
+
+/**
+ * Aspect for logging execution of the classes and methods annotated with {@link Loggable}.
+ * <p>
+ * Unlike {@link LoggingAspect}, it leaves the other beans unproxied, so that it can run in production.
+ */
+@Aspect
+public class LoggableAspect extends AbstractLoggingAspect {
+
+    public LoggableAspect(Environment env, ApplicationProperties.MethodLogging methodLogging) {
+        super(env, methodLogging);
+    }
+
+    @Override
+    @Pointcut("@within(com.mycompany.myapp.aop.logging.Loggable) || @annotation(com.mycompany.myapp.aop.logging.Loggable)")
+    public void loggedMethodPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+}
@@ -0,0 +1,35 @@
+package com.mycompany.myapp.aop.scheduling;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Run a method, typically a {@code @Scheduled} one, on a single node of the cluster at a time.
+ * <p>
+ * Each run takes a lease on the {@code scheduler_lock} table, see {@link SchedulerLockProvider}: when another node
+ * holds it, the run is skipped, so the method should return {@code void}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SchedulerLock {
+    /**
+     * The name of the lock, unique among the locked methods.
+     */
+    String name();
+
+    /**
+     * How long the lease lasts if the node dies while holding it, as an ISO-8601 duration: it must be longer than
+     * the longest run.
+     */
+    String lockAtMostFor();
+
+    /**
+     * How long the lease is kept at least, as an ISO-8601 duration, so that nodes whose clock is late do not run the
+     * method again right after a short run.
+     */
+    String lockAtLeastFor() default "PT0S";
+}
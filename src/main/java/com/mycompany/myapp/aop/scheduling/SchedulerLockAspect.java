@@ -0,0 +1,81 @@
+package com.mycompany.myapp.aop.scheduling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Optional;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Aspect running the methods annotated with {@link SchedulerLock} under a lease of the {@link SchedulerLockProvider}.
+ * <p>
+ * It runs before any transaction of the method is started, so that skipped runs cost a single statement.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SchedulerLockAspect {
+
+    public static final String ACQUIRE_METER_NAME = "scheduler.lock.acquire";
+    public static final String ACQUIRE_METER_DESCRIPTION = "Indicates the time spent trying to acquire a scheduler lock.";
+    public static final String ACQUIRE_METER_RESULT_DIMENSION = "result";
+
+    public static final String HELD_METER_NAME = "scheduler.lock.held";
+    public static final String HELD_METER_DESCRIPTION = "Indicates the time a scheduler lock was held to run its method.";
+
+    public static final String NAME_DIMENSION = "name";
+
+    private final Logger log = LoggerFactory.getLogger(SchedulerLockAspect.class);
+
+    private final SchedulerLockProvider lockProvider;
+
+    private final MeterRegistry registry;
+
+    public SchedulerLockAspect(SchedulerLockProvider lockProvider, MeterRegistry registry) {
+        this.lockProvider = lockProvider;
+        this.registry = registry;
+    }
+
+    /**
+     * Advice running the method only if the lease of its lock is acquired.
+     *
+     * @param joinPoint join point for advice.
+     * @return result of the method, or {@code null} if it was skipped.
+     * @throws Throwable throws the exception of the method.
+     */
+    @Around("@annotation(com.mycompany.myapp.aop.scheduling.SchedulerLock)")
+    public Object lockAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        SchedulerLock schedulerLock = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(SchedulerLock.class);
+        String name = schedulerLock.name();
+        Timer.Sample acquireSample = Timer.start(registry);
+        Optional<SchedulerLockProvider.Lease> lease = lockProvider.acquire(name, Duration.parse(schedulerLock.lockAtMostFor()));
+        acquireSample.stop(acquireTimerForResultBuilder(name, lease.isPresent() ? "acquired" : "skipped").register(registry));
+        if (lease.isEmpty()) {
+            log.debug("Skipping {}: lock {} is held by another node", joinPoint.getSignature().toShortString(), name);
+            return null;
+        }
+        Timer.Sample heldSample = Timer.start(registry);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            heldSample.stop(
+                Timer.builder(HELD_METER_NAME).description(HELD_METER_DESCRIPTION).tag(NAME_DIMENSION, name).register(registry)
+            );
+            lockProvider.release(lease.get(), Duration.parse(schedulerLock.lockAtLeastFor()));
+        }
+    }
+
+    private Timer.Builder acquireTimerForResultBuilder(String name, String result) {
+        return Timer
+            .builder(ACQUIRE_METER_NAME)
+            .description(ACQUIRE_METER_DESCRIPTION)
+            .tag(NAME_DIMENSION, name)
+            .tag(ACQUIRE_METER_RESULT_DIMENSION, result);
+    }
+}
@@ -0,0 +1,140 @@
+package com.mycompany.myapp.aop.scheduling;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Leases on the {@code scheduler_lock} table, shared by all the nodes of the cluster.
+ * <p>
+ * A lease is a row per lock name, held by a node until its {@code lock_until} date: it is acquired with a conditional
+ * update, so the database guarantees a single holder. Each statement commits on its own, outside of any current
+ * transaction. Dates come from the clock of the nodes, which must be kept in sync.
+ */
+public class SchedulerLockProvider {
+
+    private static final String INSERT_LOCK = "insert into scheduler_lock (name, lock_until, locked_at, locked_by) values (?, ?, ?, ?)";
+
+    private static final String UPDATE_EXPIRED_LOCK =
+        "update scheduler_lock set lock_until = ?, locked_at = ?, locked_by = ? where name = ? and lock_until <= ?";
+
+    private static final String RELEASE_LOCK = "update scheduler_lock set lock_until = ? where name = ? and locked_by = ?";
+
+    private final Logger log = LoggerFactory.getLogger(SchedulerLockProvider.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Clock clock;
+
+    private final String lockedBy;
+
+    private final Set<String> existingLocks = ConcurrentHashMap.newKeySet();
+
+    public SchedulerLockProvider(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this(jdbcTemplate, transactionManager, Clock.systemUTC(), ManagementFactory.getRuntimeMXBean().getName());
+    }
+
+    SchedulerLockProvider(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, Clock clock, String node) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.clock = clock;
+        // several application contexts may run in the same JVM
+        this.lockedBy = node + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * Try to acquire a lease.
+     *
+     * @param name the name of the lock.
+     * @param lockAtMostFor how long the lease lasts if it is not released.
+     * @return the lease, or empty if another node holds it.
+     */
+    public Optional<Lease> acquire(String name, Duration lockAtMostFor) {
+        Instant now = clock.instant();
+        Instant lockUntil = now.plus(lockAtMostFor);
+        if (!existingLocks.contains(name)) {
+            if (insert(name, now, lockUntil)) {
+                existingLocks.add(name);
+                return Optional.of(new Lease(name, now));
+            }
+            existingLocks.add(name);
+        }
+        if (execute(UPDATE_EXPIRED_LOCK, timestamp(lockUntil), timestamp(now), lockedBy, name, timestamp(now)) == 0) {
+            log.debug("Lock {} is held by another node", name);
+            return Optional.empty();
+        }
+        return Optional.of(new Lease(name, now));
+    }
+
+    /**
+     * Release a lease, keeping it until its minimum duration.
+     *
+     * @param lease the lease to release.
+     * @param lockAtLeastFor how long the lease is kept at least, from its acquisition.
+     */
+    public void release(Lease lease, Duration lockAtLeastFor) {
+        Instant now = clock.instant();
+        Instant minimumUntil = lease.getLockedAt().plus(lockAtLeastFor);
+        Instant lockUntil = minimumUntil.isAfter(now) ? minimumUntil : now;
+        execute(RELEASE_LOCK, timestamp(lockUntil), lease.getName(), lockedBy);
+    }
+
+    private boolean insert(String name, Instant now, Instant lockUntil) {
+        try {
+            return execute(INSERT_LOCK, name, timestamp(lockUntil), timestamp(now), lockedBy) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private int execute(String sql, Object... args) {
+        return Objects.requireNonNull(transactionTemplate.execute(status -> jdbcTemplate.update(sql, args)));
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        // stored as UTC, whatever the time zone of the node
+        return Timestamp.valueOf(LocalDateTime.ofInstant(instant, ZoneOffset.UTC));
+    }
+
+    /**
+     * A lease held by this node.
+     */
+    public static final class Lease {
+
+        private final String name;
+
+        private final Instant lockedAt;
+
+        Lease(String name, Instant lockedAt) {
+            this.name = name;
+            this.lockedAt = lockedAt;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Instant getLockedAt() {
+            return lockedAt;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.mycompany.myapp.aop.sql;
+
+import com.mycompany.myapp.management.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Aspect counting the SQL statements of each call of a {@code @Transactional} service, see {@link SqlStatementCounter}.
+ * <p>
+ * It runs around the transaction, so that the statements flushed on commit are counted too.
+ */
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class SqlStatementCountingAspect {
+
+    public static final String STATEMENTS_METER_NAME = "service.sql.statements";
+    public static final String STATEMENTS_METER_DESCRIPTION = "Indicates the number of SQL statements executed by service calls.";
+
+    public static final String ROWS_METER_NAME = "service.sql.rows";
+    public static final String ROWS_METER_DESCRIPTION = "Indicates the number of rows read by the SQL statements of service calls.";
+
+    public static final String CLASS_DIMENSION = "class";
+    public static final String METHOD_DIMENSION = "method";
+
+    private final Logger log = LoggerFactory.getLogger(SqlStatementCountingAspect.class);
+
+    private final MeterRegistry registry;
+
+    private final int repeatedThreshold;
+
+    public SqlStatementCountingAspect(MeterRegistry registry, int repeatedThreshold) {
+        this.registry = registry;
+        this.repeatedThreshold = repeatedThreshold;
+    }
+
+    /**
+     * Advice counting the statements of a service call.
+     *
+     * @param joinPoint join point for advice.
+     * @return result of the method.
+     * @throws Throwable throws the exception of the method.
+     */
+    @Around(
+        "within(com.mycompany.myapp.service..*)" +
+        " && (@within(org.springframework.transaction.annotation.Transactional)" +
+        " || @annotation(org.springframework.transaction.annotation.Transactional))"
+    )
+    public Object countAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            scope.close();
+            String className = joinPoint.getSignature().getDeclaringType().getSimpleName();
+            String method = joinPoint.getSignature().getName();
+            summaryBuilder(STATEMENTS_METER_NAME, STATEMENTS_METER_DESCRIPTION, className, method)
+                .register(registry)
+                .record(scope.getStatements());
+            summaryBuilder(ROWS_METER_NAME, ROWS_METER_DESCRIPTION, className, method).register(registry).record(scope.getRows());
+            if (repeatedThreshold > 0) {
+                Map<String, Integer> repeated = scope.getRepeatedStatements(repeatedThreshold);
+                repeated.forEach((sql, count) -> log.warn("Possible N+1 in {}.{}(): {} times {}", className, method, count, sql));
+            }
+        }
+    }
+
+    private DistributionSummary.Builder summaryBuilder(String name, String description, String className, String method) {
+        return DistributionSummary.builder(name).description(description).tag(CLASS_DIMENSION, className).tag(METHOD_DIMENSION, method);
+    }
+}
@@ -1,5 +1,9 @@
 package com.mycompany.myapp.config;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -10,7 +14,508 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final Security security = new Security();
+
+    private final Cache cache = new Cache();
+
+    private final Mail mail = new Mail();
+
+    private final UserPurge userPurge = new UserPurge();
+
+    private final UserAvailability userAvailability = new UserAvailability();
+
+    private final MethodLogging methodLogging = new MethodLogging();
+
+    private final LogShipping logShipping = new LogShipping();
+
+    private final SqlStatements sqlStatements = new SqlStatements();
+
+    private final ReadReplicas readReplicas = new ReadReplicas();
+
     // jhipster-needle-application-properties-property
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Mail getMail() {
+        return mail;
+    }
+
+    public UserPurge getUserPurge() {
+        return userPurge;
+    }
+
+    public UserAvailability getUserAvailability() {
+        return userAvailability;
+    }
+
+    public MethodLogging getMethodLogging() {
+        return methodLogging;
+    }
+
+    public LogShipping getLogShipping() {
+        return logShipping;
+    }
+
+    public SqlStatements getSqlStatements() {
+        return sqlStatements;
+    }
+
+    public ReadReplicas getReadReplicas() {
+        return readReplicas;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class Security {
+
+        private final TokenCache tokenCache = new TokenCache();
+
+        private final PasswordHashing passwordHashing = new PasswordHashing();
+
+        public TokenCache getTokenCache() {
+            return tokenCache;
+        }
+
+        public PasswordHashing getPasswordHashing() {
+            return passwordHashing;
+        }
+
+        /**
+         * Cache of already verified JWTs, see {@link com.mycompany.myapp.security.jwt.TokenProvider}.
+         */
+        public static class TokenCache {
+
+            private boolean enabled = true;
+
+            private long maxEntries = 10_000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+
+        /**
+         * BCrypt cost and dedicated hashing pool, see {@link com.mycompany.myapp.security.PooledPasswordEncoder}.
+         */
+        public static class PasswordHashing {
+
+            private int strength = 10;
+
+            private int poolSize = Runtime.getRuntime().availableProcessors();
+
+            private int queueCapacity = 100;
+
+            private int retryAfterSeconds = 1;
+
+            public int getStrength() {
+                return strength;
+            }
+
+            public void setStrength(int strength) {
+                this.strength = strength;
+            }
+
+            public int getPoolSize() {
+                return poolSize;
+            }
+
+            public void setPoolSize(int poolSize) {
+                this.poolSize = poolSize;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public int getRetryAfterSeconds() {
+                return retryAfterSeconds;
+            }
+
+            public void setRetryAfterSeconds(int retryAfterSeconds) {
+                this.retryAfterSeconds = retryAfterSeconds;
+            }
+        }
+    }
+
+    /**
+     * Per-region overrides of the {@code jhipster.cache.caffeine} defaults, keyed by cache name, see {@link CacheConfiguration}.
+     */
+    public static class Cache {
+
+        private final Map<String, Region> regions = new HashMap<>();
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public static class Region {
+
+            private Integer timeToLiveSeconds;
+
+            private Long maxEntries;
+
+            public Integer getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(Long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+    }
+
+    /**
+     * Outbox of emails sent in throttled batches, see {@link com.mycompany.myapp.service.MailOutbox}.
+     */
+    public static class Mail {
+
+        private int queueCapacity = 1000;
+
+        private int batchSize = 20;
+
+        private double messagesPerSecond = 10;
+
+        private int maxAttempts = 3;
+
+        private long retryDelayMillis = 1000;
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public double getMessagesPerSecond() {
+            return messagesPerSecond;
+        }
+
+        public void setMessagesPerSecond(double messagesPerSecond) {
+            this.messagesPerSecond = messagesPerSecond;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getRetryDelayMillis() {
+            return retryDelayMillis;
+        }
+
+        public void setRetryDelayMillis(long retryDelayMillis) {
+            this.retryDelayMillis = retryDelayMillis;
+        }
+    }
+
+    /**
+     * Purge of the not activated users, see {@link com.mycompany.myapp.service.NotActivatedUserPurger}.
+     */
+    public static class UserPurge {
+
+        private int chunkSize = 500;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    /**
+     * Node-local filter of the used logins and emails, see {@link com.mycompany.myapp.service.UserAvailabilityFilter}.
+     */
+    public static class UserAvailability {
+
+        private double falsePositiveProbability = 0.01;
+
+        private long minExpectedInsertions = 100_000;
+
+        private String rebuildCron = "0 30 * * * ?";
+
+        public double getFalsePositiveProbability() {
+            return falsePositiveProbability;
+        }
+
+        public void setFalsePositiveProbability(double falsePositiveProbability) {
+            this.falsePositiveProbability = falsePositiveProbability;
+        }
+
+        public long getMinExpectedInsertions() {
+            return minExpectedInsertions;
+        }
+
+        public void setMinExpectedInsertions(long minExpectedInsertions) {
+            this.minExpectedInsertions = minExpectedInsertions;
+        }
+
+        public String getRebuildCron() {
+            return rebuildCron;
+        }
+
+        public void setRebuildCron(String rebuildCron) {
+            this.rebuildCron = rebuildCron;
+        }
+    }
+
+    /**
+     * Debug logs of the method calls, see {@link com.mycompany.myapp.aop.logging.AbstractLoggingAspect}.
+     */
+    public static class MethodLogging {
+
+        private Mode mode = Mode.OPT_IN;
+
+        private int sampleRate = 1;
+
+        private int maxValueLength = 256;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(int sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public int getMaxValueLength() {
+            return maxValueLength;
+        }
+
+        public void setMaxValueLength(int maxValueLength) {
+            this.maxValueLength = maxValueLength;
+        }
+
+        public enum Mode {
+            /**
+             * Every repository, service and REST controller is proxied.
+             */
+            ALL,
+
+            /**
+             * Only the classes and methods annotated with {@link com.mycompany.myapp.aop.logging.Loggable} are proxied.
+             */
+            OPT_IN,
+        }
+    }
+
+    /**
+     * Buffering of the events shipped to Logstash, see {@link RingBufferLogstashAppender}.
+     */
+    public static class LogShipping {
+
+        private int capacity = 8192;
+
+        private int reservedCapacity = 1024;
+
+        private int batchSize = 256;
+
+        private long reconnectDelayMillis = 1000;
+
+        private long overflowWaitMillis = 100;
+
+        private long writeTimeoutMillis = 10_000;
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getReservedCapacity() {
+            return reservedCapacity;
+        }
+
+        public void setReservedCapacity(int reservedCapacity) {
+            this.reservedCapacity = reservedCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getReconnectDelayMillis() {
+            return reconnectDelayMillis;
+        }
+
+        public void setReconnectDelayMillis(long reconnectDelayMillis) {
+            this.reconnectDelayMillis = reconnectDelayMillis;
+        }
+
+        public long getOverflowWaitMillis() {
+            return overflowWaitMillis;
+        }
+
+        public void setOverflowWaitMillis(long overflowWaitMillis) {
+            this.overflowWaitMillis = overflowWaitMillis;
+        }
+
+        public long getWriteTimeoutMillis() {
+            return writeTimeoutMillis;
+        }
+
+        public void setWriteTimeoutMillis(long writeTimeoutMillis) {
+            this.writeTimeoutMillis = writeTimeoutMillis;
+        }
+    }
+
+    /**
+     * Counting of the SQL statements, see {@link SqlStatementCountingConfiguration}.
+     */
+    public static class SqlStatements {
+
+        private boolean enabled = false;
+
+        private int repeatedThreshold = 10;
+
+        private boolean serverTiming = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getRepeatedThreshold() {
+            return repeatedThreshold;
+        }
+
+        public void setRepeatedThreshold(int repeatedThreshold) {
+            this.repeatedThreshold = repeatedThreshold;
+        }
+
+        public boolean isServerTiming() {
+            return serverTiming;
+        }
+
+        public void setServerTiming(boolean serverTiming) {
+            this.serverTiming = serverTiming;
+        }
+    }
+
+    /**
+     * Routing of the read-only transactions to replicas of {@code spring.datasource}, see {@link ReplicaRoutingDataSource}.
+     */
+    public static class ReadReplicas {
+
+        private final List<Replica> replicas = new ArrayList<>();
+
+        private long ejectionMillis = 30_000;
+
+        private long readYourWritesMillis = 5_000;
+
+        public List<Replica> getReplicas() {
+            return replicas;
+        }
+
+        public long getEjectionMillis() {
+            return ejectionMillis;
+        }
+
+        public void setEjectionMillis(long ejectionMillis) {
+            this.ejectionMillis = ejectionMillis;
+        }
+
+        public long getReadYourWritesMillis() {
+            return readYourWritesMillis;
+        }
+
+        public void setReadYourWritesMillis(long readYourWritesMillis) {
+            this.readYourWritesMillis = readYourWritesMillis;
+        }
+
+        public static class Replica {
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+        }
+    }
     // jhipster-needle-application-properties-property-class
 }
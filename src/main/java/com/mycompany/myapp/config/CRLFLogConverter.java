@@ -12,6 +12,11 @@ import org.springframework.boot.ansi.AnsiElement;
 import org.springframework.boot.ansi.AnsiOutput;
 import org.springframework.boot.ansi.AnsiStyle;
 
+/**
+ * Replaces the line feeds, carriage returns and tabs of a log message with {@code _}, in the color of its option.
+ * <p>
+ * Messages without any of them, the vast majority, are returned as they are, without allocating.
+ */
 public class CRLFLogConverter extends CompositeConverter<ILoggingEvent> {
 
     public static final Marker CRLF_SAFE_MARKER = MarkerFactory.getMarker("CRLF_SAFE");
@@ -19,6 +24,13 @@ public class CRLFLogConverter extends CompositeConverter<ILoggingEvent> {
     private static final String[] SAFE_LOGGERS = { "org.hibernate" };
     private static final Map<String, AnsiElement> ELEMENTS;
 
+    /**
+     * Buffers beyond this capacity are not kept for the next messages of the thread.
+     */
+    private static final int MAX_BUFFER_CAPACITY = 8192;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
     static {
         Map<String, AnsiElement> ansiElements = new HashMap<>();
         ansiElements.put("faint", AnsiStyle.FAINT);
@@ -31,14 +43,49 @@ public class CRLFLogConverter extends CompositeConverter<ILoggingEvent> {
         ELEMENTS = Collections.unmodifiableMap(ansiElements);
     }
 
+    private String replacement = "_";
+
     @Override
-    protected String transform(ILoggingEvent event, String in) {
+    public void start() {
+        // Spring Boot configures AnsiOutput before logback, so the replacement of the element can be computed once
         AnsiElement element = ELEMENTS.get(getFirstOption());
+        replacement = element == null ? "_" : toAnsiString("_", element);
+        super.start();
+    }
+
+    @Override
+    protected String transform(ILoggingEvent event, String in) {
         if ((event.getMarker() != null && event.getMarker().contains(CRLF_SAFE_MARKER)) || isLoggerSafe(event)) {
             return in;
         }
-        String replacement = element == null ? "_" : toAnsiString("_", element);
-        return in.replaceAll("[\n\r\t]", replacement);
+        int length = in.length();
+        int first = 0;
+        while (first < length && !isReplaced(in.charAt(first))) {
+            first++;
+        }
+        if (first == length) {
+            return in;
+        }
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        buffer.append(in, 0, first);
+        for (int i = first; i < length; i++) {
+            char c = in.charAt(i);
+            if (isReplaced(c)) {
+                buffer.append(replacement);
+            } else {
+                buffer.append(c);
+            }
+        }
+        String out = buffer.toString();
+        if (buffer.capacity() > MAX_BUFFER_CAPACITY) {
+            BUFFER.remove();
+        }
+        return out;
+    }
+
+    private static boolean isReplaced(char c) {
+        return c == '\n' || c == '\r' || c == '\t';
     }
 
     protected boolean isLoggerSafe(ILoggingEvent event) {
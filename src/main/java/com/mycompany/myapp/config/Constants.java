@@ -1,5 +1,7 @@
 package com.mycompany.myapp.config;
 
+import java.util.List;
+
 /**
  * Application constants.
  */
@@ -10,6 +12,10 @@ public final class Constants {
 
     public static final String SYSTEM = "system";
     public static final String DEFAULT_LANGUAGE = "en";
+    public static final List<String> LANGUAGES = List.of(
+        "en"
+        // jhipster-needle-i18n-language-constant - JHipster will add/remove languages in this array
+    );
 
     private Constants() {}
 }
@@ -1,16 +1,83 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.management.ReadYourWritesWindow;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.util.StringUtils;
 import tech.jhipster.config.JHipsterConstants;
 
 @Configuration
 @EnableJpaRepositories({ "com.mycompany.myapp.repository" })
 @EnableJpaAuditing(auditorAwareRef = "springSecurityAuditorAware")
 @EnableTransactionManagement
-public class DatabaseConfiguration {}
+public class DatabaseConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(DatabaseConfiguration.class);
+
+    /**
+     * Replaces the data source of {@code spring.datasource} when {@code application.read-replicas} are configured, by a
+     * {@link ReplicaRoutingDataSource} over the same primary pool and one pool per replica, configured like the primary.
+     */
+    @Bean
+    @ConditionalOnProperty("application.read-replicas.replicas[0].url")
+    public ReplicaRoutingDataSource dataSource(
+        DataSourceProperties properties,
+        Environment environment,
+        ApplicationProperties applicationProperties,
+        ReadYourWritesWindow readYourWritesWindow,
+        MeterRegistry registry
+    ) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (StringUtils.hasText(properties.getName())) {
+            primary.setPoolName(properties.getName());
+        }
+        String poolName = Objects.requireNonNullElse(primary.getPoolName(), "Hikari");
+        ApplicationProperties.ReadReplicas readReplicas = applicationProperties.getReadReplicas();
+        List<ApplicationProperties.ReadReplicas.Replica> replicaProperties = readReplicas.getReplicas();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            ApplicationProperties.ReadReplicas.Replica replica = replicaProperties.get(i);
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setPoolName(poolName + "-replica-" + i);
+            config.setJdbcUrl(replica.getUrl());
+            if (replica.getUsername() != null) {
+                config.setUsername(replica.getUsername());
+                config.setPassword(replica.getPassword());
+            }
+            // A replica down at startup is ejected by the routing, instead of failing the application
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        log.info("Routing the read-only transactions to the replicas {}", replicas.keySet());
+        return new ReplicaRoutingDataSource(
+            primary,
+            replicas,
+            readYourWritesWindow,
+            Duration.ofMillis(readReplicas.getEjectionMillis()),
+            registry
+        );
+    }
+}
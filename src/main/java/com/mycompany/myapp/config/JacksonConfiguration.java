@@ -1,8 +1,15 @@
 package com.mycompany.myapp.config;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mycompany.myapp.service.dto.AdminUserDTO;
+import com.mycompany.myapp.service.dto.UserDTO;
+import com.mycompany.myapp.web.util.SparseFieldsetUtil;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.zalando.problem.jackson.ProblemModule;
@@ -48,4 +55,21 @@ public class JacksonConfiguration {
     public ConstraintViolationProblemModule constraintViolationProblemModule() {
         return new ConstraintViolationProblemModule();
     }
+
+    /**
+     * Support for sparse fieldsets of the user DTOs, see {@link SparseFieldsetUtil}: all their fields are written unless
+     * a response sets its own filter.
+     * @return the corresponding customizer.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsetCustomizer() {
+        return builder ->
+            builder
+                .mixIn(AdminUserDTO.class, SparseFieldsetMixIn.class)
+                .mixIn(UserDTO.class, SparseFieldsetMixIn.class)
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @JsonFilter(SparseFieldsetUtil.FILTER_ID)
+    private interface SparseFieldsetMixIn {}
 }
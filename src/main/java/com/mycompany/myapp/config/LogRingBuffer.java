@@ -0,0 +1,93 @@
+package com.mycompany.myapp.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue of many producers and a single consumer, see {@link RingBufferLogstashAppender}.
+ * <p>
+ * Each slot has a sequence telling whether it is free for the producer of a position or filled for the consumer, so
+ * that producers only contend on a compare-and-set of the tail, and {@link #offer(Object)} fails instead of waiting
+ * when the buffer is full.
+ */
+final class LogRingBuffer<E> {
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> elements;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private volatile long head;
+
+    LogRingBuffer(int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.mask = this.capacity - 1;
+        this.elements = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return the capacity, the power of two at least as large as the requested one.
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of elements, which may already be stale.
+     */
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(capacity, size));
+    }
+
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    // Publishes the element to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The slot still holds the element of the previous lap
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Remove the oldest element, only from the consumer thread.
+     *
+     * @return the element, or {@code null} if the buffer is empty.
+     */
+    E poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        // Frees the slot for the producer of the next lap
+        sequences.set(index, position + capacity);
+        head = position + 1;
+        return element;
+    }
+}
@@ -1,17 +1,24 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.aop.logging.LoggableAspect;
 import com.mycompany.myapp.aop.logging.LoggingAspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
-import tech.jhipster.config.JHipsterConstants;
 
 @Configuration
 @EnableAspectJAutoProxy
 public class LoggingAspectConfiguration {
 
     @Bean
-    @Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
-    public LoggingAspect loggingAspect(Environment env) {
-        return new LoggingAspect(env);
+    @ConditionalOnProperty(name = "application.method-logging.mode", havingValue = "all")
+    public LoggingAspect loggingAspect(Environment env, ApplicationProperties applicationProperties) {
+        return new LoggingAspect(env, applicationProperties.getMethodLogging());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "application.method-logging.mode", havingValue = "opt-in", matchIfMissing = true)
+    public LoggableAspect loggableAspect(Environment env, ApplicationProperties applicationProperties) {
+        return new LoggableAspect(env, applicationProperties.getMethodLogging());
     }
 }
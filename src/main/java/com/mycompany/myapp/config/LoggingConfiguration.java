@@ -2,11 +2,19 @@ package com.mycompany.myapp.config;
 
 import static tech.jhipster.config.logging.LoggingUtils.*;
 
+import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggerContextListener;
+import ch.qos.logback.core.spi.ContextAwareBase;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.InetSocketAddress;
 import java.util.HashMap;
 import java.util.Map;
+import net.logstash.logback.encoder.LogstashEncoder;
+import net.logstash.logback.stacktrace.ShortenedThrowableConverter;
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
@@ -18,10 +26,16 @@ import tech.jhipster.config.JHipsterProperties;
 @Configuration
 public class LoggingConfiguration {
 
+    private static final String LOGSTASH_APPENDER_NAME = "RING_BUFFER_LOGSTASH";
+
+    private final Logger log = LoggerFactory.getLogger(LoggingConfiguration.class);
+
     public LoggingConfiguration(
         @Value("${spring.application.name}") String appName,
         @Value("${server.port}") String serverPort,
         JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry,
         ObjectMapper mapper
     ) throws JsonProcessingException {
         LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
@@ -33,15 +47,112 @@ public class LoggingConfiguration {
 
         JHipsterProperties.Logging loggingProperties = jHipsterProperties.getLogging();
         JHipsterProperties.Logging.Logstash logstashProperties = loggingProperties.getLogstash();
+        ApplicationProperties.LogShipping logShipping = applicationProperties.getLogShipping();
 
         if (loggingProperties.isUseJsonFormat()) {
             addJsonConsoleAppender(context, customFields);
         }
         if (logstashProperties.isEnabled()) {
-            addLogstashTcpSocketAppender(context, customFields, logstashProperties);
+            addRingBufferLogstashAppender(context, customFields, logstashProperties, logShipping, registry);
         }
         if (loggingProperties.isUseJsonFormat() || logstashProperties.isEnabled()) {
-            addContextListener(context, customFields, loggingProperties);
+            LogbackLoggerContextListener listener = new LogbackLoggerContextListener(
+                customFields,
+                loggingProperties,
+                logShipping,
+                registry
+            );
+            listener.setContext(context);
+            context.addListener(listener);
+        }
+    }
+
+    /**
+     * Replaces the {@code LogstashTcpSocketAppender} of {@link tech.jhipster.config.logging.LoggingUtils}, see
+     * {@link RingBufferLogstashAppender}.
+     */
+    private void addRingBufferLogstashAppender(
+        LoggerContext context,
+        String customFields,
+        JHipsterProperties.Logging.Logstash logstashProperties,
+        ApplicationProperties.LogShipping logShipping,
+        MeterRegistry registry
+    ) {
+        log.info("Initializing Logstash loggingProperties");
+        ShortenedThrowableConverter throwableConverter = new ShortenedThrowableConverter();
+        throwableConverter.setRootCauseFirst(true);
+        LogstashEncoder encoder = new LogstashEncoder();
+        encoder.setThrowableConverter(throwableConverter);
+        encoder.setCustomFields(customFields);
+        encoder.setContext(context);
+        encoder.start();
+
+        RingBufferLogstashAppender appender = new RingBufferLogstashAppender(
+            new InetSocketAddress(logstashProperties.getHost(), logstashProperties.getPort()),
+            encoder,
+            logShipping,
+            registry
+        );
+        appender.setContext(context);
+        appender.setName(LOGSTASH_APPENDER_NAME);
+        appender.start();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(appender);
+    }
+
+    /**
+     * Adds the appenders back when the logger context is reset, like the listener of
+     * {@link tech.jhipster.config.logging.LoggingUtils#addContextListener}.
+     */
+    private class LogbackLoggerContextListener extends ContextAwareBase implements LoggerContextListener {
+
+        private final String customFields;
+
+        private final JHipsterProperties.Logging loggingProperties;
+
+        private final ApplicationProperties.LogShipping logShipping;
+
+        private final MeterRegistry registry;
+
+        LogbackLoggerContextListener(
+            String customFields,
+            JHipsterProperties.Logging loggingProperties,
+            ApplicationProperties.LogShipping logShipping,
+            MeterRegistry registry
+        ) {
+            this.customFields = customFields;
+            this.loggingProperties = loggingProperties;
+            this.logShipping = logShipping;
+            this.registry = registry;
+        }
+
+        @Override
+        public boolean isResetResistant() {
+            return true;
+        }
+
+        @Override
+        public void onStart(LoggerContext context) {
+            if (loggingProperties.isUseJsonFormat()) {
+                addJsonConsoleAppender(context, customFields);
+            }
+            if (loggingProperties.getLogstash().isEnabled()) {
+                addRingBufferLogstashAppender(context, customFields, loggingProperties.getLogstash(), logShipping, registry);
+            }
+        }
+
+        @Override
+        public void onReset(LoggerContext context) {
+            onStart(context);
+        }
+
+        @Override
+        public void onStop(LoggerContext context) {
+            // Nothing to do.
+        }
+
+        @Override
+        public void onLevelChange(ch.qos.logback.classic.Logger logger, Level level) {
+            // Nothing to do.
         }
     }
 }
@@ -0,0 +1,256 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.management.ReadYourWritesWindow;
+import com.mycompany.myapp.security.SecurityUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source sending the read-only transactions to replicas of the primary database, and everything else to the
+ * primary.
+ * <p>
+ * Replicas are taken in turn. One failing to give a connection is ejected for a while, its reads going to the next
+ * replica, or to the primary when none is left. The reads of a user whose {@link ReadYourWritesWindow} is open also go
+ * to the primary, as replicas may not have caught up with their change yet: read-write transactions open the window of
+ * the authenticated user when they commit.
+ * <p>
+ * Connections are only fetched at the first statement of a transaction, once its read-only flag is known: until then,
+ * their auto-commit and isolation are the ones of the primary, which the replicas are expected to share.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements InitializingBean, Closeable {
+
+    public static final String CONNECTIONS_METER_NAME = "datasource.routing.connections";
+    public static final String CONNECTIONS_METER_DESCRIPTION = "Indicates the number of connections routed to each database.";
+    public static final String CONNECTIONS_METER_REASON_DIMENSION = "reason";
+
+    public static final String EJECTIONS_METER_NAME = "datasource.routing.ejections";
+    public static final String EJECTIONS_METER_DESCRIPTION = "Indicates the number of times a replica was ejected.";
+
+    public static final String AVAILABLE_METER_NAME = "datasource.routing.replicas.available";
+    public static final String AVAILABLE_METER_DESCRIPTION = "Indicates the number of replicas not ejected.";
+
+    public static final String TARGET_DIMENSION = "target";
+
+    public static final String PRIMARY = "primary";
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final ReadYourWritesWindow readYourWritesWindow;
+
+    private final long ejectionNanos;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final LazyConnectionDataSourceProxy lazyDataSource = new LazyConnectionDataSourceProxy();
+
+    private final Counter readWriteCounter;
+
+    private final Counter readYourWritesCounter;
+
+    private final Counter noReplicaCounter;
+
+    /**
+     * @param primary the primary database.
+     * @param replicas the replicas, by name.
+     * @param readYourWritesWindow the users whose reads go to the primary.
+     * @param ejectionDelay how long a failing replica is skipped.
+     * @param registry the meter registry.
+     */
+    public ReplicaRoutingDataSource(
+        DataSource primary,
+        Map<String, DataSource> replicas,
+        ReadYourWritesWindow readYourWritesWindow,
+        Duration ejectionDelay,
+        MeterRegistry registry
+    ) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource, registry)));
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.ejectionNanos = ejectionDelay.toNanos();
+        this.lazyDataSource.setTargetDataSource(
+            new AbstractDataSource() {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return route();
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    throw new SQLFeatureNotSupportedException();
+                }
+            }
+        );
+        this.readWriteCounter = connectionsCounterBuilder(PRIMARY, "read_write").register(registry);
+        this.readYourWritesCounter = connectionsCounterBuilder(PRIMARY, "read_your_writes").register(registry);
+        this.noReplicaCounter = connectionsCounterBuilder(PRIMARY, "no_replica").register(registry);
+        Gauge
+            .builder(AVAILABLE_METER_NAME, this, ReplicaRoutingDataSource::availableReplicas)
+            .description(AVAILABLE_METER_DESCRIPTION)
+            .register(registry);
+    }
+
+    private static Counter.Builder connectionsCounterBuilder(String target, String reason) {
+        return Counter
+            .builder(CONNECTIONS_METER_NAME)
+            .description(CONNECTIONS_METER_DESCRIPTION)
+            .tag(TARGET_DIMENSION, target)
+            .tag(CONNECTIONS_METER_REASON_DIMENSION, reason);
+    }
+
+    private double availableReplicas() {
+        long now = System.nanoTime();
+        return replicas.stream().filter(replica -> !replica.isEjected(now)).count();
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        try (Connection connection = primary.getConnection()) {
+            lazyDataSource.setDefaultAutoCommit(connection.getAutoCommit());
+            lazyDataSource.setDefaultTransactionIsolation(connection.getTransactionIsolation());
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return lazyDataSource.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    private Connection route() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                SecurityUtils.getCurrentUserLogin().ifPresent(readYourWritesWindow::recordWrite);
+            }
+            readWriteCounter.increment();
+            return primary.getConnection();
+        }
+        Optional<String> subject = readYourWritesWindow.getSubject().or(SecurityUtils::getCurrentUserLogin);
+        if (subject.isPresent() && readYourWritesWindow.isOpen(subject.get())) {
+            readYourWritesCounter.increment();
+            return primary.getConnection();
+        }
+        int start = next.getAndIncrement();
+        long now = System.nanoTime();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.isEjected(now)) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.readmit();
+                replica.counter.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.eject(System.nanoTime() + ejectionNanos, e);
+            }
+        }
+        noReplicaCounter.increment();
+        return primary.getConnection();
+    }
+
+    /**
+     * Unwraps to the primary data source, for the pool metrics and health.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            close(replica.dataSource);
+        }
+        close(primary);
+    }
+
+    private void close(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dataSource).close();
+            } catch (Exception e) {
+                log.warn("Could not close data source {}", dataSource, e);
+            }
+        }
+    }
+
+    private final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private final Counter counter;
+
+        private final Counter ejectionsCounter;
+
+        private volatile boolean ejected;
+
+        private volatile long ejectedUntil;
+
+        Replica(String name, DataSource dataSource, MeterRegistry registry) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.counter = connectionsCounterBuilder(name, "read_only").register(registry);
+            this.ejectionsCounter = Counter
+                .builder(EJECTIONS_METER_NAME)
+                .description(EJECTIONS_METER_DESCRIPTION)
+                .tag(TARGET_DIMENSION, name)
+                .register(registry);
+        }
+
+        boolean isEjected(long now) {
+            return ejected && ejectedUntil - now > 0;
+        }
+
+        void eject(long until, SQLException cause) {
+            ejectedUntil = until;
+            ejected = true;
+            ejectionsCounter.increment();
+            log.warn("Ejecting replica {} for {} ms: {}", name, Duration.ofNanos(ejectionNanos).toMillis(), cause.toString());
+        }
+
+        void readmit() {
+            if (ejected) {
+                ejected = false;
+                log.info("Replica {} is back", name);
+            }
+        }
+    }
+}
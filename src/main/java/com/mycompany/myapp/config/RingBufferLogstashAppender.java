@@ -0,0 +1,305 @@
+package com.mycompany.myapp.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appender shipping the JSON events of its encoder to Logstash over TCP, from a {@link LogRingBuffer}.
+ * <p>
+ * Logging threads offer the event to the ring buffer and return. Events below WARN are dropped once the buffer is
+ * filled beyond its capacity minus the reserved capacity. WARN and ERROR events may use the whole buffer, and when it
+ * is entirely full they wait a bounded time for the shipper to make room, so that they are only dropped when Logstash
+ * is down or stalled for longer. A single shipper thread sends the buffered events in batches, with a write per batch
+ * bounded by the write timeout, and retries a batch until Logstash accepts it.
+ */
+public class RingBufferLogstashAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+
+    public static final String ENQUEUED_METER_NAME = "logging.shipping.enqueued";
+    public static final String ENQUEUED_METER_DESCRIPTION = "Indicates the number of log events buffered to be shipped.";
+
+    public static final String DROPPED_METER_NAME = "logging.shipping.dropped";
+    public static final String DROPPED_METER_DESCRIPTION = "Indicates the number of log events dropped as the buffer was full.";
+    public static final String DROPPED_METER_LEVEL_DIMENSION = "level";
+
+    public static final String FLUSHED_METER_NAME = "logging.shipping.flushed";
+    public static final String FLUSHED_METER_DESCRIPTION = "Indicates the number of log events written to Logstash.";
+
+    public static final String BUFFERED_METER_NAME = "logging.shipping.buffered";
+    public static final String BUFFERED_METER_DESCRIPTION = "Indicates the number of log events waiting to be shipped.";
+
+    private static final Level[] LEVELS = { Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR };
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long OVERFLOW_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final InetSocketAddress destination;
+
+    private final Encoder<ILoggingEvent> encoder;
+
+    private final LogRingBuffer<ILoggingEvent> ringBuffer;
+
+    private final int discardingThreshold;
+
+    private final int batchSize;
+
+    private final long reconnectDelayMillis;
+
+    private final long overflowWaitNanos;
+
+    private final long writeTimeoutMillis;
+
+    private final Counter enqueuedCounter;
+
+    private final Counter[] droppedCounters = new Counter[LEVELS.length];
+
+    private final Counter flushedCounter;
+
+    private final MeterRegistry registry;
+
+    private final Gauge bufferedGauge;
+
+    private final BatchBuffer batchBuffer = new BatchBuffer();
+
+    private volatile Thread shipper;
+
+    private volatile boolean running;
+
+    /**
+     * Whether the shipper is parked, waiting for events.
+     */
+    private volatile boolean waiting;
+
+    private SocketChannel channel;
+
+    private Selector selector;
+
+    public RingBufferLogstashAppender(
+        InetSocketAddress destination,
+        Encoder<ILoggingEvent> encoder,
+        ApplicationProperties.LogShipping logShipping,
+        MeterRegistry registry
+    ) {
+        this.destination = destination;
+        this.encoder = encoder;
+        this.ringBuffer = new LogRingBuffer<>(logShipping.getCapacity());
+        this.discardingThreshold = Math.max(0, ringBuffer.capacity() - logShipping.getReservedCapacity());
+        this.batchSize = Math.max(1, logShipping.getBatchSize());
+        this.reconnectDelayMillis = logShipping.getReconnectDelayMillis();
+        this.overflowWaitNanos = TimeUnit.MILLISECONDS.toNanos(logShipping.getOverflowWaitMillis());
+        this.writeTimeoutMillis = logShipping.getWriteTimeoutMillis();
+        this.enqueuedCounter = Counter.builder(ENQUEUED_METER_NAME).description(ENQUEUED_METER_DESCRIPTION).register(registry);
+        for (int i = 0; i < LEVELS.length; i++) {
+            droppedCounters[i] =
+                Counter
+                    .builder(DROPPED_METER_NAME)
+                    .description(DROPPED_METER_DESCRIPTION)
+                    .tag(DROPPED_METER_LEVEL_DIMENSION, LEVELS[i].toString())
+                    .register(registry);
+        }
+        this.flushedCounter = Counter.builder(FLUSHED_METER_NAME).description(FLUSHED_METER_DESCRIPTION).register(registry);
+        this.registry = registry;
+        this.bufferedGauge =
+            Gauge.builder(BUFFERED_METER_NAME, ringBuffer, LogRingBuffer::size).description(BUFFERED_METER_DESCRIPTION).register(registry);
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::ship, "logstash-shipper");
+        thread.setDaemon(true);
+        shipper = thread;
+        super.start();
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        Thread thread = shipper;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(reconnectDelayMillis + CONNECT_TIMEOUT_MILLIS + writeTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        encoder.stop();
+        // The appender is replaced on each reset of the logger context, the gauge must then measure the new buffer
+        registry.remove(bufferedGauge);
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
+        boolean kept = event.getLevel().isGreaterOrEqual(Level.WARN)
+            ? ringBuffer.offer(event) || offerUntilOverflowDeadline(event)
+            : ringBuffer.size() < discardingThreshold && ringBuffer.offer(event);
+        if (!kept) {
+            droppedCounters[levelIndex(event.getLevel())].increment();
+            return;
+        }
+        enqueuedCounter.increment();
+        if (waiting) {
+            LockSupport.unpark(shipper);
+        }
+    }
+
+    private boolean offerUntilOverflowDeadline(ILoggingEvent event) {
+        long deadline = System.nanoTime() + overflowWaitNanos;
+        while (running && System.nanoTime() - deadline < 0) {
+            LockSupport.unpark(shipper);
+            LockSupport.parkNanos(this, OVERFLOW_PARK_NANOS);
+            if (ringBuffer.offer(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int levelIndex(Level level) {
+        for (int i = LEVELS.length - 1; i > 0; i--) {
+            if (level.isGreaterOrEqual(LEVELS[i])) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private void ship() {
+        List<ILoggingEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            ILoggingEvent event;
+            while (batch.size() < batchSize && (event = ringBuffer.poll()) != null) {
+                batch.add(event);
+            }
+            if (!batch.isEmpty()) {
+                send(batch);
+                batch.clear();
+            } else if (running) {
+                waiting = true;
+                if (ringBuffer.size() == 0) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                waiting = false;
+            } else {
+                break;
+            }
+        }
+        closeSocket();
+    }
+
+    private void send(List<ILoggingEvent> batch) {
+        batchBuffer.reset();
+        for (ILoggingEvent event : batch) {
+            byte[] bytes = encoder.encode(event);
+            batchBuffer.write(bytes, 0, bytes.length);
+        }
+        while (true) {
+            try {
+                connect();
+                write(batchBuffer.toByteBuffer());
+                flushedCounter.increment(batch.size());
+                return;
+            } catch (IOException e) {
+                closeSocket();
+                if (!running) {
+                    // Stopping: the batch is given up instead of waiting for Logstash to come back
+                    for (ILoggingEvent event : batch) {
+                        droppedCounters[levelIndex(event.getLevel())].increment();
+                    }
+                    return;
+                }
+                addWarn("Could not ship " + batch.size() + " log events to " + destination + ", retrying", e);
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(reconnectDelayMillis));
+            }
+        }
+    }
+
+    private void connect() throws IOException {
+        if (channel == null) {
+            SocketChannel connecting = SocketChannel.open();
+            try {
+                connecting.socket().connect(destination, CONNECT_TIMEOUT_MILLIS);
+                // Non-blocking, so that a write waits for room in the socket buffer no longer than the write timeout
+                connecting.configureBlocking(false);
+                selector = Selector.open();
+                connecting.register(selector, SelectionKey.OP_WRITE);
+            } catch (IOException e) {
+                connecting.close();
+                if (selector != null) {
+                    selector.close();
+                    selector = null;
+                }
+                throw e;
+            }
+            channel = connecting;
+        }
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        channel.write(bytes);
+        while (bytes.hasRemaining()) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                throw new SocketTimeoutException("Logstash accepted no more bytes for " + writeTimeoutMillis + " ms");
+            }
+            selector.select(remainingMillis);
+            selector.selectedKeys().clear();
+            channel.write(bytes);
+        }
+    }
+
+    private void closeSocket() {
+        if (channel != null) {
+            try {
+                selector.close();
+                channel.close();
+            } catch (IOException e) {
+                addWarn("Could not close the connection to " + destination, e);
+            }
+            channel = null;
+            selector = null;
+        }
+    }
+
+    /**
+     * Exposes the bytes of the batch for the channel, without copying them.
+     */
+    private static final class BatchBuffer extends ByteArrayOutputStream {
+
+        BatchBuffer() {
+            super(8192);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.aop.scheduling.SchedulerLockAspect;
+import com.mycompany.myapp.aop.scheduling.SchedulerLockProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableAspectJAutoProxy
+public class SchedulerLockConfiguration {
+
+    @Bean
+    public SchedulerLockProvider schedulerLockProvider(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        return new SchedulerLockProvider(jdbcTemplate, transactionManager);
+    }
+
+    @Bean
+    public SchedulerLockAspect schedulerLockAspect(SchedulerLockProvider schedulerLockProvider, MeterRegistry meterRegistry) {
+        return new SchedulerLockAspect(schedulerLockProvider, meterRegistry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.aop.sql.SqlStatementCountingAspect;
+import com.mycompany.myapp.management.StatementCountingDataSource;
+import com.mycompany.myapp.web.filter.SqlStatementCountingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Counts the SQL statements of the HTTP requests and of the transactional service calls, when
+ * {@code application.sql-statements.enabled}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.sql-statements.enabled", havingValue = "true")
+public class SqlStatementCountingConfiguration {
+
+    /**
+     * Wraps the data source, keeping it unwrappable to the Hikari pool for its metrics and health.
+     */
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SqlStatementCountingFilter sqlStatementCountingFilter(MeterRegistry registry, ApplicationProperties applicationProperties) {
+        ApplicationProperties.SqlStatements sqlStatements = applicationProperties.getSqlStatements();
+        return new SqlStatementCountingFilter(registry, sqlStatements.getRepeatedThreshold(), sqlStatements.isServerTiming());
+    }
+
+    @Bean
+    public SqlStatementCountingAspect sqlStatementCountingAspect(MeterRegistry registry, ApplicationProperties applicationProperties) {
+        return new SqlStatementCountingAspect(registry, applicationProperties.getSqlStatements().getRepeatedThreshold());
+    }
+}
@@ -3,6 +3,9 @@ package com.mycompany.myapp.domain;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.mycompany.myapp.config.Constants;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.HashSet;
 import java.util.Locale;
@@ -14,12 +17,15 @@ import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A user.
  */
 @Entity
 @Table(name = "jhi_user")
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 public class User extends AbstractAuditingEntity<Long> implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -66,19 +72,44 @@ public class User extends AbstractAuditingEntity<Long> implements Serializable {
     @Column(name = "image_url", length = 256)
     private String imageUrl;
 
+    /**
+     * The clear activation key, only known to the instance it was set on, to be sent to the user: the database only
+     * stores its hash.
+     */
     @Size(max = 20)
-    @Column(name = "activation_key", length = 20)
+    @Transient
     @JsonIgnore
     private String activationKey;
 
+    @Size(max = 64)
+    @Column(name = "activation_key_hash", length = 64, unique = true)
+    @JsonIgnore
+    private String activationKeyHash;
+
+    /**
+     * The clear reset key, only known to the instance it was set on, to be sent to the user: the database only stores
+     * its hash.
+     */
     @Size(max = 20)
-    @Column(name = "reset_key", length = 20)
+    @Transient
     @JsonIgnore
     private String resetKey;
 
+    @Size(max = 64)
+    @Column(name = "reset_key_hash", length = 64, unique = true)
+    @JsonIgnore
+    private String resetKeyHash;
+
     @Column(name = "reset_date")
     private Instant resetDate = null;
 
+    /**
+     * Incremented by each update, including of the authorities, so that concurrent updates are rejected.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @JsonIgnore
     @ManyToMany
     @JoinTable(
@@ -86,6 +117,7 @@ public class User extends AbstractAuditingEntity<Long> implements Serializable {
         joinColumns = { @JoinColumn(name = "user_id", referencedColumnName = "id") },
         inverseJoinColumns = { @JoinColumn(name = "authority_name", referencedColumnName = "name") }
     )
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
     @BatchSize(size = 20)
     private Set<Authority> authorities = new HashSet<>();
 
@@ -134,8 +166,9 @@ public class User extends AbstractAuditingEntity<Long> implements Serializable {
         return email;
     }
 
+    // Lowercase the email before saving it in database, so that it is looked up through its index
     public void setEmail(String email) {
-        this.email = email;
+        this.email = normalizeEmail(email);
     }
 
     public String getImageUrl() {
@@ -160,6 +193,11 @@ public class User extends AbstractAuditingEntity<Long> implements Serializable {
 
     public void setActivationKey(String activationKey) {
         this.activationKey = activationKey;
+        this.activationKeyHash = hashKey(activationKey);
+    }
+
+    public String getActivationKeyHash() {
+        return activationKeyHash;
     }
 
     public String getResetKey() {
@@ -168,6 +206,11 @@ public class User extends AbstractAuditingEntity<Long> implements Serializable {
 
     public void setResetKey(String resetKey) {
         this.resetKey = resetKey;
+        this.resetKeyHash = hashKey(resetKey);
+    }
+
+    public String getResetKeyHash() {
+        return resetKeyHash;
     }
 
     public Instant getResetDate() {
@@ -178,6 +221,10 @@ public class User extends AbstractAuditingEntity<Long> implements Serializable {
         this.resetDate = resetDate;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public String getLangKey() {
         return langKey;
     }
@@ -222,7 +269,42 @@ public class User extends AbstractAuditingEntity<Long> implements Serializable {
             ", imageUrl='" + imageUrl + '\'' +
             ", activated='" + activated + '\'' +
             ", langKey='" + langKey + '\'' +
-            ", activationKey='" + activationKey + '\'' +
             "}";
     }
+
+    /**
+     * Normalize an email, the way it is stored.
+     *
+     * @param email the email.
+     * @return the lowercase email, or {@code null} for a {@code null} email.
+     */
+    public static String normalizeEmail(String email) {
+        return StringUtils.lowerCase(email, Locale.ENGLISH);
+    }
+
+    /**
+     * Hash an activation or reset key, the way it is stored.
+     * <p>
+     * Keys are random, so a plain SHA-256 is enough to make a database leak useless, while keeping the lookup an
+     * equality on an index.
+     *
+     * @param key the clear key.
+     * @return the lowercase hex SHA-256 of the key, or {@code null} for a {@code null} key.
+     */
+    public static String hashKey(String key) {
+        if (key == null) {
+            return null;
+        }
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        StringBuilder hash = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hash.toString();
+    }
 }
@@ -0,0 +1,137 @@
+package com.mycompany.myapp.management;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Logins and emails of the users whose account changed recently, whose read-only transactions must see the change and
+ * therefore go to the primary database instead of a replica, which may lag behind.
+ * <p>
+ * The reads are attributed to the authenticated user, or to the subject given to {@link #readAs(String, Supplier)} when
+ * the user is not authenticated yet, such as on login.
+ * <p>
+ * The windows are local to this node: a change made through another node does not open them here. Behind a load
+ * balancer without sticky sessions, a user may therefore still read from a lagging replica right after their change,
+ * for at most the replication lag.
+ */
+@Component
+public class ReadYourWritesWindow {
+
+    private static final int PURGE_THRESHOLD = 4096;
+
+    private static final ThreadLocal<String> SUBJECT = new ThreadLocal<>();
+
+    private final boolean enabled;
+
+    private final long windowNanos;
+
+    /**
+     * The end of the window of each login or email, in {@link System#nanoTime()}.
+     */
+    private final Map<String, Long> deadlines = new ConcurrentHashMap<>();
+
+    public ReadYourWritesWindow(ApplicationProperties applicationProperties) {
+        ApplicationProperties.ReadReplicas readReplicas = applicationProperties.getReadReplicas();
+        this.enabled = !readReplicas.getReplicas().isEmpty() && readReplicas.getReadYourWritesMillis() > 0;
+        this.windowNanos = Duration.ofMillis(readReplicas.getReadYourWritesMillis()).toNanos();
+    }
+
+    /**
+     * Open the window of the login and email of a user, whose account is changed by the current transaction: it opens
+     * when the transaction commits, or right away without transaction.
+     *
+     * @param subjects the logins or emails, {@code null} ones are ignored.
+     */
+    public void recordWrite(String... subjects) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        open(subjects);
+                    }
+                }
+            );
+        } else {
+            open(subjects);
+        }
+    }
+
+    private void open(String... subjects) {
+        long now = System.nanoTime();
+        if (deadlines.size() >= PURGE_THRESHOLD) {
+            deadlines.values().removeIf(deadline -> deadline - now <= 0);
+        }
+        for (String subject : subjects) {
+            if (subject != null) {
+                deadlines.put(normalize(subject), now + windowNanos);
+            }
+        }
+    }
+
+    /**
+     * Check whether the window of a login or email is open.
+     *
+     * @param subject the login or email.
+     * @return whether the reads of the subject must go to the primary.
+     */
+    public boolean isOpen(String subject) {
+        if (!enabled || subject == null) {
+            return false;
+        }
+        String key = normalize(subject);
+        Long deadline = deadlines.get(key);
+        if (deadline == null) {
+            return false;
+        }
+        if (deadline - System.nanoTime() > 0) {
+            return true;
+        }
+        deadlines.remove(key, deadline);
+        return false;
+    }
+
+    /**
+     * Attribute the reads of a call to a login or email, for the calls made before the user is authenticated.
+     *
+     * @param subject the login or email.
+     * @param call the call.
+     * @param <T> the type of the result.
+     * @return the result of the call.
+     */
+    public <T> T readAs(String subject, Supplier<T> call) {
+        String previous = SUBJECT.get();
+        SUBJECT.set(subject);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                SUBJECT.remove();
+            } else {
+                SUBJECT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * @return the subject given to the enclosing {@link #readAs(String, Supplier)}, if any.
+     */
+    public Optional<String> getSubject() {
+        return Optional.ofNullable(SUBJECT.get());
+    }
+
+    private static String normalize(String subject) {
+        return subject.toLowerCase(Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,109 @@
+package com.mycompany.myapp.management;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements executed by the current thread through a {@link StatementCountingDataSource}, in nested
+ * scopes such as an HTTP request and the transactional service calls it makes.
+ * <p>
+ * Statements are counted in every scope opened on the thread, and nothing is counted when there is none.
+ */
+public final class SqlStatementCounter {
+
+    private static final Scope[] NO_SCOPES = new Scope[0];
+
+    private static final ThreadLocal<Deque<Scope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private SqlStatementCounter() {}
+
+    /**
+     * Open a scope on the current thread, to be closed by the same thread.
+     *
+     * @return the scope.
+     */
+    public static Scope open() {
+        Deque<Scope> scopes = SCOPES.get();
+        Scope scope = new Scope(scopes);
+        scopes.push(scope);
+        return scope;
+    }
+
+    /**
+     * @return the scopes open on the current thread, which the statement being executed is counted in.
+     */
+    static Scope[] current() {
+        Deque<Scope> scopes = SCOPES.get();
+        return scopes.isEmpty() ? NO_SCOPES : scopes.toArray(NO_SCOPES);
+    }
+
+    /**
+     * Statements, rows and time of the statements executed by a thread while it is open.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Deque<Scope> scopes;
+
+        private final Map<String, Integer> executions = new HashMap<>();
+
+        private int statements;
+
+        private long rows;
+
+        private long nanos;
+
+        private Scope(Deque<Scope> scopes) {
+            this.scopes = scopes;
+        }
+
+        void statementExecuted(String sql, long elapsedNanos) {
+            statements++;
+            nanos += elapsedNanos;
+            if (sql != null) {
+                executions.merge(sql, 1, Integer::sum);
+            }
+        }
+
+        void rowRead() {
+            rows++;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Get the statements executed more than a number of times, typically the loading of the association of each
+         * entity of a list, one by one, in a N+1 pattern.
+         *
+         * @param threshold the number of executions above which a statement is repeated.
+         * @return the number of executions of the repeated statements, by SQL.
+         */
+        public Map<String, Integer> getRepeatedStatements(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            executions.forEach((sql, count) -> {
+                if (count > threshold) {
+                    repeated.put(sql, count);
+                }
+            });
+            return Collections.unmodifiableMap(repeated);
+        }
+
+        @Override
+        public void close() {
+            scopes.remove(this);
+        }
+    }
+}
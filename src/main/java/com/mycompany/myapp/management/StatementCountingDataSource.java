@@ -0,0 +1,175 @@
+package com.mycompany.myapp.management;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Data source counting the statements executed through its connections, and the rows they read, in the scopes of the
+ * {@link SqlStatementCounter}.
+ * <p>
+ * Connections, statements and result sets are wrapped in JDK proxies, which only measure the {@code execute*} methods
+ * of the statements and the {@code next()} method of the result sets when a scope is open.
+ * <p>
+ * Closing it closes the target data source when that one is closeable, such as a connection pool, as the wrapper takes
+ * its place as the bean whose destroy method is inferred.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    @Override
+    public void close() throws Exception {
+        DataSource target = getTargetDataSource();
+        if (target instanceof AutoCloseable) {
+            ((AutoCloseable) target).close();
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private abstract static class Handler implements InvocationHandler {
+
+        protected final Object target;
+
+        Handler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return getClass().getSimpleName() + "[" + target + "]";
+                default:
+                    return handle(method, args);
+            }
+        }
+
+        abstract Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    private static class ConnectionHandler extends Handler {
+
+        ConnectionHandler(Connection target) {
+            super(target);
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result = StatementCountingDataSource.invoke(target, method, args);
+            if (result instanceof Statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                if (result instanceof CallableStatement) {
+                    return proxy(CallableStatement.class, new StatementHandler(result, sql));
+                }
+                if (result instanceof PreparedStatement) {
+                    return proxy(PreparedStatement.class, new StatementHandler(result, sql));
+                }
+                return proxy(Statement.class, new StatementHandler(result, sql));
+            }
+            return result;
+        }
+    }
+
+    private static class StatementHandler extends Handler {
+
+        /**
+         * The SQL the statement was prepared with, {@code null} for a plain statement.
+         */
+        private final String preparedSql;
+
+        StatementHandler(Object target, String preparedSql) {
+            super(target);
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                SqlStatementCounter.Scope[] scopes = SqlStatementCounter.current();
+                if (scopes.length == 0) {
+                    return StatementCountingDataSource.invoke(target, method, args);
+                }
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+                long start = System.nanoTime();
+                try {
+                    return wrap(StatementCountingDataSource.invoke(target, method, args), scopes);
+                } finally {
+                    long elapsedNanos = System.nanoTime() - start;
+                    for (SqlStatementCounter.Scope scope : scopes) {
+                        scope.statementExecuted(sql, elapsedNanos);
+                    }
+                }
+            }
+            if ("getResultSet".equals(name)) {
+                return wrap(StatementCountingDataSource.invoke(target, method, args), SqlStatementCounter.current());
+            }
+            return StatementCountingDataSource.invoke(target, method, args);
+        }
+
+        private static Object wrap(Object result, SqlStatementCounter.Scope[] scopes) {
+            if (result instanceof ResultSet && scopes.length > 0) {
+                return proxy(ResultSet.class, new ResultSetHandler(result, scopes));
+            }
+            return result;
+        }
+    }
+
+    private static class ResultSetHandler extends Handler {
+
+        private final SqlStatementCounter.Scope[] scopes;
+
+        ResultSetHandler(Object target, SqlStatementCounter.Scope[] scopes) {
+            super(target);
+            this.scopes = scopes;
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result = StatementCountingDataSource.invoke(target, method, args);
+            if (Boolean.TRUE.equals(result) && "next".equals(method.getName())) {
+                for (SqlStatementCounter.Scope scope : scopes) {
+                    scope.rowRead();
+                }
+            }
+            return result;
+        }
+    }
+}
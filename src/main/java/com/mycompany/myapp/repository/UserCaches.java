@@ -0,0 +1,62 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.User;
+import java.util.Objects;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Eviction of the login path lookups of {@link UserRepository}, to call whenever a user is changed or deleted.
+ */
+@Component
+public class UserCaches {
+
+    private final CacheManager cacheManager;
+
+    public UserCaches(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Evict a user from the caches of {@link UserRepository}, under its lowercase login and email.
+     * <p>
+     * Within a transaction, the user is evicted right away and again once it completes: a lookup made before the commit
+     * would otherwise put the former state of the user back in the caches, such as its former password, or the state
+     * of a rolled back change.
+     *
+     * @param user the user.
+     */
+    public void evict(User user) {
+        evict(user.getLogin(), user.getEmail());
+    }
+
+    /**
+     * Evict a user from the caches of {@link UserRepository}, as {@link #evict(User)}.
+     *
+     * @param login the lowercase login of the user.
+     * @param email the email of the user, if any.
+     */
+    public void evict(String login, String email) {
+        String normalizedEmail = email != null ? User.normalizeEmail(email) : null;
+        evictNow(login, normalizedEmail);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        evictNow(login, normalizedEmail);
+                    }
+                }
+            );
+        }
+    }
+
+    private void evictNow(String login, String email) {
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(login);
+        if (email != null) {
+            Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(email);
+        }
+    }
+}
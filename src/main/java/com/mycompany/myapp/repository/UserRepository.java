@@ -1,30 +1,180 @@
 package com.mycompany.myapp.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import com.mycompany.myapp.domain.User;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Spring Data JPA repository for the {@link User} entity.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findOneByActivationKey(String activationKey);
-    List<User> findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant dateTime);
-    Optional<User> findOneByResetKey(String resetKey);
-    Optional<User> findOneByEmailIgnoreCase(String email);
+public interface UserRepository
+    extends JpaRepository<User, Long>, UserRepositoryWithKeyset, UserRepositoryWithPurge, UserRepositoryWithProjection {
+    String USERS_BY_LOGIN_CACHE = "usersByLogin";
+
+    String USERS_BY_EMAIL_CACHE = "usersByEmail";
+
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Get the user of an activation key, through the unique index on its hash.
+     *
+     * @param activationKey the clear activation key.
+     * @return the user.
+     */
+    default Optional<User> findOneByActivationKey(String activationKey) {
+        return findOneByActivationKeyHash(User.hashKey(activationKey));
+    }
+
+    Optional<User> findOneByActivationKeyHash(String activationKeyHash);
+
+    String NOT_ACTIVATED_CREATED_BEFORE_QUERY =
+        "select user.id as id, user.createdDate as createdDate, user.login as login, user.email as email" +
+        " from User user where user.activated = false and user.activationKeyHash is not null" +
+        " and user.createdDate < :createdBefore";
+
+    /**
+     * Get the first chunk of the not activated users created before a date, in {@code (created_date, id)} order,
+     * through the {@code (activated, created_date)} index, which ends with the primary key.
+     *
+     * @param createdBefore the creation date the users must be older than.
+     * @param pageable the size of the chunk.
+     * @return the chunk of users.
+     */
+    @Query(NOT_ACTIVATED_CREATED_BEFORE_QUERY + " order by user.createdDate, user.id")
+    List<NotActivatedUser> findAllNotActivatedCreatedBefore(@Param("createdBefore") Instant createdBefore, Pageable pageable);
+
+    /**
+     * Get the next chunk of the not activated users created before a date, seeking past the last user of the previous
+     * chunk in {@code (created_date, id)} order, through the {@code (activated, created_date)} index, which ends with
+     * the primary key.
+     *
+     * @param createdBefore the creation date the users must be older than.
+     * @param afterCreatedDate the creation date of the last user of the previous chunk.
+     * @param afterId the id of the last user of the previous chunk.
+     * @param pageable the size of the chunk.
+     * @return the chunk of users.
+     */
+    @Query(
+        NOT_ACTIVATED_CREATED_BEFORE_QUERY +
+        " and (user.createdDate > :afterCreatedDate or (user.createdDate = :afterCreatedDate and user.id > :afterId))" +
+        " order by user.createdDate, user.id"
+    )
+    List<NotActivatedUser> findAllNotActivatedCreatedBefore(
+        @Param("createdBefore") Instant createdBefore,
+        @Param("afterCreatedDate") Instant afterCreatedDate,
+        @Param("afterId") long afterId,
+        Pageable pageable
+    );
+
+    /**
+     * Get the user of a reset key, through the unique index on its hash.
+     *
+     * @param resetKey the clear reset key.
+     * @return the user.
+     */
+    default Optional<User> findOneByResetKey(String resetKey) {
+        return findOneByResetKeyHash(User.hashKey(resetKey));
+    }
+
+    Optional<User> findOneByResetKeyHash(String resetKeyHash);
+
+    /**
+     * Get the user of an email, whatever its case, through the unique index on the lowercase emails.
+     *
+     * @param email the email.
+     * @return the user.
+     */
+    default Optional<User> findOneByEmailIgnoreCase(String email) {
+        return findOneByEmail(User.normalizeEmail(email));
+    }
+
+    /**
+     * Get the user of a lowercase email, as stored by {@link User#setEmail(String)}.
+     *
+     * @param email the lowercase email.
+     * @return the user.
+     */
+    Optional<User> findOneByEmail(String email);
+
     Optional<User> findOneByLogin(String login);
 
+    boolean existsByLoginAndActivatedIsTrue(String login);
+
+    boolean existsByEmailAndActivatedIsTrue(String email);
+
     @EntityGraph(attributePaths = "authorities")
+    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE)
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
+    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE)
+    Optional<User> findOneWithAuthoritiesByEmail(String email);
+
+    /**
+     * Get the authority names of users, in a single query for a whole page of users.
+     *
+     * @param ids the ids of the users.
+     * @return the {@code [userId, authorityName]} rows, none for the users without authorities.
+     */
+    @Query("select user.id, authority.name from User user join user.authorities authority where user.id in :ids")
+    List<Object[]> findAuthorityNamesByUserIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Stream all users through a forward-only cursor, one row per user and authority (a single row with a {@code null}
+     * authority for users without any), ordered by user id.
+     * <p>
+     * The authorities are joined rather than lazily loaded, as any other query on the connection would make the driver
+     * buffer the rest of the cursor. Must be consumed within a transaction, and closed.
+     *
+     * @return the stream of {@code [User, String]} rows.
+     */
+    @Query("select user, authority.name from User user left join user.authorities authority order by user.id")
+    @QueryHints(
+        {
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"),
+        }
+    )
+    Stream<Object[]> streamAllWithAuthorityNames();
+
+    /**
+     * Stream the login and email of the activated users through a forward-only cursor. Must be consumed within a
+     * transaction, and closed.
+     *
+     * @return the stream of {@code [login, email]} rows.
+     */
+    @Query("select user.login, user.email from User user where user.activated = true")
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE), @QueryHint(name = HINT_READONLY, value = "true") })
+    Stream<Object[]> streamActivatedLoginsAndEmails();
+
+    /**
+     * Projection of a not activated user, with what its purge needs: the seek position and the cache keys.
+     */
+    interface NotActivatedUser {
+        Long getId();
+
+        Instant getCreatedDate();
+
+        String getLogin();
 
-    Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
+        String getEmail();
+    }
 }
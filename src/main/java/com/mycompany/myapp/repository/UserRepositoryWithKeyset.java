@@ -0,0 +1,34 @@
+package com.mycompany.myapp.repository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import javax.persistence.Tuple;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Keyset (seek) pagination of users: a page starts after the sort value of the last user of the previous page, so
+ * deep pages cost the same as the first one, and no count query is needed.
+ */
+public interface UserRepositoryWithKeyset {
+    /**
+     * Properties usable as keyset, with the conversion of their value from its string form: they must be unique, non
+     * null and indexed.
+     */
+    Map<String, Function<String, Object>> KEYSET_PROPERTIES = Map.of("id", Long::valueOf, "login", String::valueOf);
+
+    /**
+     * Get a slice of users, as tuples of some of their properties, as
+     * {@link UserRepositoryWithProjection#findAllAsTuples}.
+     *
+     * @param properties the properties to select, others than {@link UserRepositoryWithProjection#PROJECTABLE_PROPERTIES}
+     * are ignored: the id is always selected, and so is the keyset property.
+     * @param activatedOnly whether to only get the activated users.
+     * @param order the keyset property and its direction.
+     * @param after the value of the keyset property of the last user of the previous slice, {@code null} for the first slice.
+     * @param size the size of the slice.
+     * @return the slice of tuples, their elements aliased by property name.
+     */
+    Slice<Tuple> findAllAsTuplesAfter(Collection<String> properties, boolean activatedOnly, Sort.Order order, Object after, int size);
+}
@@ -0,0 +1,65 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.User;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Criteria based implementation of {@link UserRepositoryWithKeyset}.
+ */
+public class UserRepositoryWithKeysetImpl implements UserRepositoryWithKeyset {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public Slice<Tuple> findAllAsTuplesAfter(
+        Collection<String> properties,
+        boolean activatedOnly,
+        Sort.Order order,
+        Object after,
+        int size
+    ) {
+        if (!KEYSET_PROPERTIES.containsKey(order.getProperty())) {
+            throw new IllegalArgumentException("Not a keyset property: " + order.getProperty());
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> root = query.from(User.class);
+        Path<Comparable> keyset = root.get(order.getProperty());
+        Set<String> selected = new HashSet<>(properties);
+        // the cursor of the next slice is the keyset value of its last user
+        selected.add(order.getProperty());
+        query.multiselect(UserRepositoryWithProjectionImpl.selections(root, selected));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (activatedOnly) {
+            predicates.add(cb.isTrue(root.get("activated")));
+        }
+        if (after != null) {
+            predicates.add(order.isAscending() ? cb.greaterThan(keyset, (Comparable) after) : cb.lessThan(keyset, (Comparable) after));
+        }
+        query.where(predicates.toArray(new Predicate[0])).orderBy(order.isAscending() ? cb.asc(keyset) : cb.desc(keyset));
+
+        // one more row tells whether there is a next slice
+        List<Tuple> users = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        boolean hasNext = users.size() > size;
+        return new SliceImpl<>(hasNext ? users.subList(0, size) : users, PageRequest.of(0, size, Sort.by(order)), hasNext);
+    }
+}
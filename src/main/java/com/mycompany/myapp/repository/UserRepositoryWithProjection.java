@@ -0,0 +1,42 @@
+package com.mycompany.myapp.repository;
+
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.Tuple;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Listing of users as some of their columns rather than entities: nothing is loaded in the persistence context, nor
+ * dirty checked.
+ */
+public interface UserRepositoryWithProjection {
+    /**
+     * Properties of users that can be selected, named as the fields of the user DTOs.
+     */
+    List<String> PROJECTABLE_PROPERTIES = List.of(
+        "id",
+        "login",
+        "firstName",
+        "lastName",
+        "email",
+        "imageUrl",
+        "activated",
+        "langKey",
+        "createdBy",
+        "createdDate",
+        "lastModifiedBy",
+        "lastModifiedDate"
+    );
+
+    /**
+     * Get a page of users, as tuples of some of their properties.
+     *
+     * @param properties the properties to select, others than {@link #PROJECTABLE_PROPERTIES} are ignored: the id is
+     * always selected.
+     * @param activatedOnly whether to only get the activated users.
+     * @param pageable the page, sorted on properties of users.
+     * @return the page of tuples, their elements aliased by property name.
+     */
+    Page<Tuple> findAllAsTuples(Collection<String> properties, boolean activatedOnly, Pageable pageable);
+}
@@ -0,0 +1,71 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.User;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+/**
+ * Criteria based implementation of {@link UserRepositoryWithProjection}.
+ */
+public class UserRepositoryWithProjectionImpl implements UserRepositoryWithProjection {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Tuple> findAllAsTuples(Collection<String> properties, boolean activatedOnly, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> root = query.from(User.class);
+        query.multiselect(selections(root, properties)).orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        if (activatedOnly) {
+            query.where(cb.isTrue(root.get("activated")));
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        // the count is only run when the page does not tell the total
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable, () -> count(activatedOnly));
+    }
+
+    /**
+     * @param root the user root.
+     * @param properties the properties to select, others than {@link #PROJECTABLE_PROPERTIES} are ignored.
+     * @return the selections of the id and of the properties, aliased by property name.
+     */
+    static List<Selection<?>> selections(Root<User> root, Collection<String> properties) {
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String property : PROJECTABLE_PROPERTIES) {
+            if ("id".equals(property) || properties.contains(property)) {
+                selections.add(root.get(property).alias(property));
+            }
+        }
+        return selections;
+    }
+
+    private long count(boolean activatedOnly) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<User> root = query.from(User.class);
+        query.select(cb.count(root));
+        if (activatedOnly) {
+            query.where(cb.isTrue(root.get("activated")));
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,19 @@
+package com.mycompany.myapp.repository;
+
+import java.util.Collection;
+
+/**
+ * Bulk deletion of not activated users, see {@link UserRepository#findAllNotActivatedCreatedBefore}.
+ */
+public interface UserRepositoryWithPurge {
+    /**
+     * Delete users, and their authorities, with one statement per table, provided they are still not activated.
+     * <p>
+     * Only the second-level cache regions of these tables are evicted: the caches of {@link UserRepository} must be
+     * cleared by the caller.
+     *
+     * @param ids the ids of the users to delete.
+     * @return the number of deleted users.
+     */
+    int deleteNotActivatedByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,36 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.User;
+import java.util.Collection;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * JPQL and native implementation of {@link UserRepositoryWithPurge}.
+ */
+public class UserRepositoryWithPurgeImpl implements UserRepositoryWithPurge {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int deleteNotActivatedByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // the join table has no entity: without a query space, Hibernate would evict the whole second-level cache
+        entityManager
+            .createNativeQuery(
+                "delete ua from jhi_user_authority ua join jhi_user u on u.id = ua.user_id where u.id in (:ids) and u.activated = false"
+            )
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace("jhi_user_authority")
+            .setParameterList("ids", ids)
+            .executeUpdate();
+        return entityManager
+            .createQuery("delete from User user where user.id in (:ids) and user.activated = false")
+            .setParameter("ids", ids)
+            .executeUpdate();
+    }
+}
@@ -2,32 +2,41 @@ package com.mycompany.myapp.security;
 
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.management.ReadYourWritesWindow;
+import com.mycompany.myapp.repository.UserCaches;
 import com.mycompany.myapp.repository.UserRepository;
 import java.util.*;
-import java.util.stream.Collectors;
 import org.hibernate.validator.internal.constraintvalidators.hv.EmailValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
- * Authenticate a user from the database.
+ * Authenticate a user from the database, and store the password re-hashed on login when its BCrypt cost changed.
  */
 @Component("userDetailsService")
-public class DomainUserDetailsService implements UserDetailsService {
+public class DomainUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final Logger log = LoggerFactory.getLogger(DomainUserDetailsService.class);
 
+    private static final EmailValidator EMAIL_VALIDATOR = new EmailValidator();
+
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    private final UserCaches userCaches;
+
+    private final ReadYourWritesWindow readYourWritesWindow;
+
+    public DomainUserDetailsService(UserRepository userRepository, UserCaches userCaches, ReadYourWritesWindow readYourWritesWindow) {
         this.userRepository = userRepository;
+        this.userCaches = userCaches;
+        this.readYourWritesWindow = readYourWritesWindow;
     }
 
     @Override
@@ -35,30 +44,51 @@ public class DomainUserDetailsService implements UserDetailsService {
     public UserDetails loadUserByUsername(final String login) {
         log.debug("Authenticating {}", login);
 
-        if (new EmailValidator().isValid(login, null)) {
+        // lookups are cached by lowercase login and lowercase email, see UserRepository
+        String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
+        // not authenticated yet, the reads are attributed to the login, so that a recent activation or password change is seen
+        return readYourWritesWindow.readAs(lowercaseLogin, () -> loadUser(login, lowercaseLogin));
+    }
+
+    private UserDetails loadUser(String login, String lowercaseLogin) {
+        if (EMAIL_VALIDATOR.isValid(lowercaseLogin, null)) {
             return userRepository
-                .findOneWithAuthoritiesByEmailIgnoreCase(login)
+                .findOneWithAuthoritiesByEmail(lowercaseLogin)
                 .map(user -> createSpringSecurityUser(login, user))
                 .orElseThrow(() -> new UsernameNotFoundException("User with email " + login + " was not found in the database"));
         }
 
-        String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
         return userRepository
             .findOneWithAuthoritiesByLogin(lowercaseLogin)
             .map(user -> createSpringSecurityUser(lowercaseLogin, user))
             .orElseThrow(() -> new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database"));
     }
 
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        log.debug("Re-hashing password of {}", userDetails.getUsername());
+        userRepository
+            .findOneByLogin(userDetails.getUsername())
+            .ifPresent(user -> {
+                user.setPassword(newPassword);
+                clearUserCaches(user);
+            });
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails).password(newPassword).build();
+    }
+
     private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
         if (!user.isActivated()) {
             throw new UserNotActivatedException("User " + lowercaseLogin + " was not activated");
         }
-        List<GrantedAuthority> grantedAuthorities = user
-            .getAuthorities()
-            .stream()
-            .map(Authority::getName)
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
+        List<GrantedAuthority> grantedAuthorities = GrantedAuthorityRegistry.fromNames(
+            user.getAuthorities().stream().map(Authority::getName)
+        );
         return new org.springframework.security.core.userdetails.User(user.getLogin(), user.getPassword(), grantedAuthorities);
     }
+
+    private void clearUserCaches(User user) {
+        userCaches.evict(user);
+        readYourWritesWindow.recordWrite(user.getLogin(), user.getEmail());
+    }
 }
@@ -0,0 +1,91 @@
+package com.mycompany.myapp.security;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Canonical, immutable authority collections shared by all principals.
+ * <p>
+ * There are only a handful of distinct authority combinations, so each one is built once and then looked up by its
+ * comma separated form (the format of the JWT {@code auth} claim).
+ */
+public final class GrantedAuthorityRegistry {
+
+    /**
+     * Upper bound of interned combinations (and of interned authorities), anything beyond is built on each call
+     * instead of being registered.
+     */
+    static final int MAX_AUTHORITY_SETS = 256;
+
+    private static final String SEPARATOR = ",";
+
+    private static final ConcurrentMap<String, List<GrantedAuthority>> AUTHORITY_SETS = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<String, GrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+
+    private GrantedAuthorityRegistry() {}
+
+    /**
+     * Get the authorities of a comma separated list of authority names.
+     *
+     * @param authorities the comma separated authority names, as stored in the JWT {@code auth} claim.
+     * @return the shared, unmodifiable authorities.
+     */
+    public static List<GrantedAuthority> fromCommaSeparated(String authorities) {
+        List<GrantedAuthority> authoritySet = AUTHORITY_SETS.get(authorities);
+        if (authoritySet != null) {
+            return authoritySet;
+        }
+        authoritySet = parse(authorities);
+        if (AUTHORITY_SETS.size() >= MAX_AUTHORITY_SETS) {
+            return authoritySet;
+        }
+        List<GrantedAuthority> existing = AUTHORITY_SETS.putIfAbsent(authorities, authoritySet);
+        return existing != null ? existing : authoritySet;
+    }
+
+    /**
+     * Get the authorities of the given authority names, whatever their order.
+     *
+     * @param names the authority names.
+     * @return the shared, unmodifiable authorities.
+     */
+    public static List<GrantedAuthority> fromNames(Stream<String> names) {
+        return fromCommaSeparated(names.sorted().collect(Collectors.joining(SEPARATOR)));
+    }
+
+    static void clear() {
+        AUTHORITY_SETS.clear();
+        AUTHORITIES.clear();
+    }
+
+    private static List<GrantedAuthority> parse(String authorities) {
+        List<GrantedAuthority> authoritySet = new ArrayList<>();
+        for (String name : authorities.split(SEPARATOR)) {
+            if (!name.trim().isEmpty()) {
+                authoritySet.add(authority(name));
+            }
+        }
+        return Collections.unmodifiableList(authoritySet);
+    }
+
+    private static GrantedAuthority authority(String name) {
+        GrantedAuthority authority = AUTHORITIES.get(name);
+        if (authority != null) {
+            return authority;
+        }
+        authority = new SimpleGrantedAuthority(name);
+        if (AUTHORITIES.size() >= MAX_AUTHORITY_SETS) {
+            return authority;
+        }
+        GrantedAuthority existing = AUTHORITIES.putIfAbsent(name, authority);
+        return existing != null ? existing : authority;
+    }
+}
@@ -0,0 +1,20 @@
+package com.mycompany.myapp.security;
+
+/**
+ * This exception is thrown when the password hashing pool is saturated and cannot accept more work.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int retryAfterSeconds;
+
+    public PasswordHashingRejectedException(int retryAfterSeconds, Throwable t) {
+        super("Password hashing pool is saturated", t);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
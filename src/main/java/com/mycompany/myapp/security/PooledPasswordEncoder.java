@@ -0,0 +1,141 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt {@link PasswordEncoder} running on a dedicated, bounded pool.
+ * <p>
+ * Hashing is CPU bound, so at most {@code poolSize} hashes run at the same time and at most {@code queueCapacity}
+ * wait for a thread: beyond that a {@link PasswordHashingRejectedException} is thrown instead of piling up request
+ * threads. Hashes of another cost than the configured one are flagged by {@link #upgradeEncoding(String)}, so they are
+ * re-hashed on the next successful login.
+ */
+public class PooledPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    public static final String HASHING_METER_NAME = "security.password.hashing";
+    public static final String HASHING_METER_DESCRIPTION = "Indicates the time spent hashing and checking passwords.";
+    public static final String HASHING_METER_OPERATION_DIMENSION = "operation";
+
+    public static final String QUEUE_METER_NAME = "security.password.hashing.queue";
+    public static final String QUEUE_METER_DESCRIPTION = "Indicates the number of password hashes waiting for a thread.";
+
+    public static final String REJECTED_METER_NAME = "security.password.hashing.rejected";
+    public static final String REJECTED_METER_DESCRIPTION = "Indicates the number of password hashes rejected by a saturated pool.";
+
+    private static final Pattern BCRYPT_COST_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final PasswordEncoder delegate;
+
+    private final int strength;
+
+    private final int retryAfterSeconds;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Counter rejectedCounter;
+
+    public PooledPasswordEncoder(ApplicationProperties.Security.PasswordHashing properties, MeterRegistry registry) {
+        this(properties, new BCryptPasswordEncoder(properties.getStrength()), registry);
+    }
+
+    PooledPasswordEncoder(ApplicationProperties.Security.PasswordHashing properties, PasswordEncoder delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.strength = properties.getStrength();
+        this.retryAfterSeconds = properties.getRetryAfterSeconds();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor =
+            new ThreadPoolExecutor(
+                properties.getPoolSize(),
+                properties.getPoolSize(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            );
+        this.encodeTimer = hashingTimerForOperationBuilder("encode").register(registry);
+        this.matchesTimer = hashingTimerForOperationBuilder("matches").register(registry);
+        this.rejectedCounter = Counter.builder(REJECTED_METER_NAME).description(REJECTED_METER_DESCRIPTION).register(registry);
+        Gauge.builder(QUEUE_METER_NAME, executor, pool -> pool.getQueue().size()).description(QUEUE_METER_DESCRIPTION).register(registry);
+    }
+
+    private Timer.Builder hashingTimerForOperationBuilder(String operation) {
+        return Timer.builder(HASHING_METER_NAME).description(HASHING_METER_DESCRIPTION).tag(HASHING_METER_OPERATION_DIMENSION, operation);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Flag hashes of another cost than the configured one, lower or higher, so the configured cost always wins.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST_PATTERN.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T execute(Timer timer, Callable<T> hashing) {
+        Future<T> result;
+        try {
+            result = executor.submit(timer.wrap(hashing));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingRejectedException(retryAfterSeconds, e);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.mycompany.myapp.security.jwt;
+
+import java.util.Collection;
+import java.util.List;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Authentication of a verified JWT, whose principal is the login of its subject.
+ * <p>
+ * Unlike a {@link org.springframework.security.authentication.UsernamePasswordAuthenticationToken} over a
+ * {@link org.springframework.security.core.userdetails.User}, which both copy the authorities, it keeps the shared list
+ * of the {@link com.mycompany.myapp.security.GrantedAuthorityRegistry}.
+ */
+public class JWTAuthenticationToken extends AbstractAuthenticationToken {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String login;
+
+    private final String token;
+
+    private final List<GrantedAuthority> authorities;
+
+    public JWTAuthenticationToken(String login, String token, List<GrantedAuthority> authorities) {
+        super(null);
+        this.login = login;
+        this.token = token;
+        this.authorities = authorities;
+        setAuthenticated(true);
+    }
+
+    @Override
+    public String getPrincipal() {
+        return login;
+    }
+
+    @Override
+    public String getCredentials() {
+        return token;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
@@ -1,23 +1,30 @@
 package com.mycompany.myapp.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.management.SecurityMetersService;
+import com.mycompany.myapp.security.GrantedAuthorityRegistry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
 import tech.jhipster.config.JHipsterProperties;
 
 @Component
@@ -39,7 +46,18 @@ public class TokenProvider {
 
     private final SecurityMetersService securityMetersService;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService) {
+    /**
+     * Already verified tokens, keyed by the SHA-256 digest of the compact token, so that repeated calls with
+     * the same token skip the signature check. Entries are evicted when the token itself expires.
+     * {@code null} when the cache is disabled.
+     */
+    private final Cache<ByteBuffer, CachedAuthentication> authenticationCache;
+
+    public TokenProvider(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        SecurityMetersService securityMetersService
+    ) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -60,6 +78,14 @@ public class TokenProvider {
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
 
         this.securityMetersService = securityMetersService;
+
+        ApplicationProperties.Security.TokenCache tokenCacheProperties = applicationProperties.getSecurity().getTokenCache();
+        if (tokenCacheProperties.isEnabled()) {
+            this.authenticationCache =
+                Caffeine.newBuilder().maximumSize(tokenCacheProperties.getMaxEntries()).expireAfter(new TokenExpiry()).build();
+        } else {
+            this.authenticationCache = null;
+        }
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
@@ -83,44 +109,126 @@ public class TokenProvider {
     }
 
     public Authentication getAuthentication(String token) {
+        Authentication cachedAuthentication = getCachedAuthentication(token);
+        if (cachedAuthentication != null) {
+            return cachedAuthentication;
+        }
         Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        return cacheAuthentication(token, claims);
+    }
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
-
-        User principal = new User(claims.getSubject(), "", authorities);
+    private Authentication createAuthentication(String token, Claims claims) {
+        List<GrantedAuthority> authorities = GrantedAuthorityRegistry.fromCommaSeparated(claims.get(AUTHORITIES_KEY).toString());
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        return new JWTAuthenticationToken(claims.getSubject(), token, authorities);
     }
 
     public boolean validateToken(String authToken) {
+        return validateAndGetAuthentication(authToken).isValid();
+    }
+
+    /**
+     * Validates the token and builds its {@link Authentication} from a single parse.
+     *
+     * @param authToken the compact JWT.
+     * @return the authentication carried by the token, or the reason the token was rejected.
+     */
+    public TokenValidationResult validateAndGetAuthentication(String authToken) {
+        Authentication cachedAuthentication = getCachedAuthentication(authToken);
+        if (cachedAuthentication != null) {
+            return TokenValidationResult.valid(cachedAuthentication);
+        }
         try {
-            jwtParser.parseClaimsJws(authToken);
+            Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
 
-            return true;
+            return TokenValidationResult.valid(cacheAuthentication(authToken, claims));
         } catch (ExpiredJwtException e) {
             this.securityMetersService.trackTokenExpired();
 
             log.trace(INVALID_JWT_TOKEN, e);
+            return TokenValidationResult.invalid(TokenValidationResult.Failure.EXPIRED);
         } catch (UnsupportedJwtException e) {
             this.securityMetersService.trackTokenUnsupported();
 
             log.trace(INVALID_JWT_TOKEN, e);
+            return TokenValidationResult.invalid(TokenValidationResult.Failure.UNSUPPORTED);
         } catch (MalformedJwtException e) {
             this.securityMetersService.trackTokenMalformed();
 
             log.trace(INVALID_JWT_TOKEN, e);
+            return TokenValidationResult.invalid(TokenValidationResult.Failure.MALFORMED);
         } catch (SignatureException e) {
             this.securityMetersService.trackTokenInvalidSignature();
 
             log.trace(INVALID_JWT_TOKEN, e);
+            return TokenValidationResult.invalid(TokenValidationResult.Failure.INVALID_SIGNATURE);
         } catch (IllegalArgumentException e) { // TODO: should we let it bubble (no catch), to avoid defensive programming and follow the fail-fast principle?
             log.error("Token validation error {}", e.getMessage());
+            return TokenValidationResult.invalid(TokenValidationResult.Failure.INVALID);
         }
+    }
+
+    private Authentication getCachedAuthentication(String token) {
+        if (authenticationCache == null || !StringUtils.hasText(token)) {
+            return null;
+        }
+        CachedAuthentication cached = authenticationCache.getIfPresent(digest(token));
+        // the token itself is kept as credentials, comparing it rules out digest collisions
+        if (cached != null && token.equals(cached.authentication.getCredentials())) {
+            this.securityMetersService.trackTokenCacheHit();
+            return cached.authentication;
+        }
+        this.securityMetersService.trackTokenCacheMiss();
+        return null;
+    }
+
+    private Authentication cacheAuthentication(String token, Claims claims) {
+        Authentication authentication = createAuthentication(token, claims);
+        if (authenticationCache != null && claims.getExpiration() != null) {
+            authenticationCache.put(digest(token), new CachedAuthentication(authentication, claims.getExpiration().getTime()));
+        }
+        return authentication;
+    }
 
-        return false;
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CachedAuthentication {
+
+        private final Authentication authentication;
+
+        private final long expiresAtMillis;
+
+        private CachedAuthentication(Authentication authentication, long expiresAtMillis) {
+            this.authentication = authentication;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    /**
+     * Expires each cached authentication together with the {@code exp} claim of its token.
+     */
+    private static final class TokenExpiry implements Expiry<ByteBuffer, CachedAuthentication> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, CachedAuthentication value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAtMillis - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
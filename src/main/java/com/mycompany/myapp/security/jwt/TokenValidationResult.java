@@ -0,0 +1,59 @@
+package com.mycompany.myapp.security.jwt;
+
+import java.util.Optional;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Outcome of a single parse of a JWT: either the {@link Authentication} it carries, or the reason it was rejected.
+ */
+public final class TokenValidationResult {
+
+    /**
+     * Reasons for which a token can be rejected.
+     */
+    public enum Failure {
+        EXPIRED,
+        UNSUPPORTED,
+        MALFORMED,
+        INVALID_SIGNATURE,
+        INVALID,
+    }
+
+    private final Authentication authentication;
+
+    private final Failure failure;
+
+    private TokenValidationResult(Authentication authentication, Failure failure) {
+        this.authentication = authentication;
+        this.failure = failure;
+    }
+
+    public static TokenValidationResult valid(Authentication authentication) {
+        return new TokenValidationResult(authentication, null);
+    }
+
+    public static TokenValidationResult invalid(Failure failure) {
+        return new TokenValidationResult(null, failure);
+    }
+
+    public boolean isValid() {
+        return authentication != null;
+    }
+
+    public Optional<Authentication> getAuthentication() {
+        return Optional.ofNullable(authentication);
+    }
+
+    public Optional<Failure> getFailure() {
+        return Optional.ofNullable(failure);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TokenValidationResult{" +
+            "valid=" + isValid() +
+            ", failure=" + failure +
+            "}";
+    }
+}
@@ -0,0 +1,83 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.repository.AuthorityRepository;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory registry of the authorities, so that resolving their names does not query {@code jhi_authority}.
+ * <p>
+ * Authorities are only changed by Liquibase: they are loaded at startup, and {@link #refresh()} must be called after
+ * any change. The registered instances are detached, and shared: they must not be modified.
+ */
+@Component
+public class AuthorityRegistry {
+
+    private final Logger log = LoggerFactory.getLogger(AuthorityRegistry.class);
+
+    private final AuthorityRepository authorityRepository;
+
+    /**
+     * The authorities by name, in name order, {@code null} until they are first loaded.
+     */
+    private volatile Map<String, Authority> authorities;
+
+    public AuthorityRegistry(AuthorityRepository authorityRepository) {
+        this.authorityRepository = authorityRepository;
+    }
+
+    /**
+     * Reload the authorities from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        Map<String, Authority> loaded = authorityRepository
+            .findAll()
+            .stream()
+            .sorted(Comparator.comparing(Authority::getName))
+            .collect(Collectors.toMap(Authority::getName, authority -> authority, (a, b) -> a, LinkedHashMap::new));
+        authorities = Collections.unmodifiableMap(loaded);
+        log.debug("Loaded authorities: {}", authorities.keySet());
+    }
+
+    /**
+     * Get an authority by name.
+     *
+     * @param name the name of the authority.
+     * @return the authority, or empty if there is none with this name.
+     */
+    public Optional<Authority> find(String name) {
+        return Optional.ofNullable(getAuthorities().get(name));
+    }
+
+    /**
+     * @return the names of all the authorities, in order.
+     */
+    public List<String> getNames() {
+        return List.copyOf(getAuthorities().keySet());
+    }
+
+    private Map<String, Authority> getAuthorities() {
+        Map<String, Authority> current = authorities;
+        if (current == null) {
+            synchronized (this) {
+                if (authorities == null) {
+                    refresh();
+                }
+                current = authorities;
+            }
+        }
+        return current;
+    }
+}
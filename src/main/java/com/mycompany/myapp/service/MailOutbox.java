@@ -0,0 +1,208 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded outbox of the emails prepared by {@link MailService}.
+ * <p>
+ * A single sender thread drains the outbox in batches: each batch goes through one
+ * {@link JavaMailSender#send(MimeMessage...)} call, so it reuses one SMTP connection. Sending is throttled to the
+ * configured messages per second, and the messages of a failed batch are retried with an exponential backoff.
+ */
+@Component
+public class MailOutbox {
+
+    public static final String MESSAGES_METER_NAME = "mail.outbox.messages";
+    public static final String MESSAGES_METER_DESCRIPTION = "Indicates the number of emails sent, failed or rejected by the outbox.";
+    public static final String MESSAGES_METER_RESULT_DIMENSION = "result";
+
+    public static final String QUEUE_METER_NAME = "mail.outbox.queue";
+    public static final String QUEUE_METER_DESCRIPTION = "Indicates the number of emails waiting in the outbox.";
+
+    public static final String SEND_METER_NAME = "mail.outbox.send";
+    public static final String SEND_METER_DESCRIPTION = "Indicates the time spent sending a batch of emails.";
+
+    private static final long POLL_TIMEOUT_MILLIS = 500;
+
+    private static final long STOP_TIMEOUT_MILLIS = 10_000;
+
+    private final Logger log = LoggerFactory.getLogger(MailOutbox.class);
+
+    private final JavaMailSender javaMailSender;
+
+    private final BlockingQueue<MimeMessage> queue;
+
+    private final int batchSize;
+
+    private final long nanosPerMessage;
+
+    private final int maxAttempts;
+
+    private final long retryDelayMillis;
+
+    private final Timer sendTimer;
+
+    private final Counter sentCounter;
+
+    private final Counter failedCounter;
+
+    private final Counter rejectedCounter;
+
+    private final Thread sender;
+
+    private volatile boolean stopping;
+
+    private long nextSendNanos;
+
+    public MailOutbox(JavaMailSender javaMailSender, ApplicationProperties applicationProperties, MeterRegistry registry) {
+        ApplicationProperties.Mail properties = applicationProperties.getMail();
+        this.javaMailSender = javaMailSender;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.batchSize = properties.getBatchSize();
+        this.nanosPerMessage =
+            properties.getMessagesPerSecond() > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / properties.getMessagesPerSecond()) : 0;
+        this.maxAttempts = properties.getMaxAttempts();
+        this.retryDelayMillis = properties.getRetryDelayMillis();
+        this.sendTimer = Timer.builder(SEND_METER_NAME).description(SEND_METER_DESCRIPTION).register(registry);
+        this.sentCounter = messagesCounterForResultBuilder("sent").register(registry);
+        this.failedCounter = messagesCounterForResultBuilder("failed").register(registry);
+        this.rejectedCounter = messagesCounterForResultBuilder("rejected").register(registry);
+        Gauge.builder(QUEUE_METER_NAME, queue, BlockingQueue::size).description(QUEUE_METER_DESCRIPTION).register(registry);
+        this.sender = new Thread(this::drain, "mail-outbox");
+        this.sender.setDaemon(true);
+    }
+
+    private Counter.Builder messagesCounterForResultBuilder(String result) {
+        return Counter
+            .builder(MESSAGES_METER_NAME)
+            .description(MESSAGES_METER_DESCRIPTION)
+            .tag(MESSAGES_METER_RESULT_DIMENSION, result);
+    }
+
+    @PostConstruct
+    public void start() {
+        sender.start();
+    }
+
+    /**
+     * Stop accepting emails, and give the ones still in the outbox a last attempt.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopping = true;
+        sender.join(STOP_TIMEOUT_MILLIS);
+        sender.interrupt();
+    }
+
+    /**
+     * Add an email to the outbox, without blocking.
+     *
+     * @param message the email to send.
+     * @return {@code false} if the email was dropped because the outbox is full or stopped.
+     */
+    public boolean offer(MimeMessage message) {
+        if (!stopping && queue.offer(message)) {
+            return true;
+        }
+        rejectedCounter.increment();
+        return false;
+    }
+
+    private void drain() {
+        List<MimeMessage> batch = new ArrayList<>(batchSize);
+        try {
+            while (!stopping || !queue.isEmpty()) {
+                MimeMessage first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                throttle(batch.size());
+                send(batch.toArray(new MimeMessage[0]));
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            log.warn("Mail outbox interrupted, {} emails were not sent", queue.size() + batch.size());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void throttle(int messages) throws InterruptedException {
+        if (nanosPerMessage == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (nextSendNanos > now) {
+            TimeUnit.NANOSECONDS.sleep(nextSendNanos - now);
+        }
+        nextSendNanos = Math.max(now, nextSendNanos) + nanosPerMessage * messages;
+    }
+
+    private void send(MimeMessage[] batch) throws InterruptedException {
+        MimeMessage[] pending = batch;
+        long delay = retryDelayMillis;
+        for (int attempt = 1;; attempt++) {
+            Timer.Sample sample = Timer.start();
+            MailException failure = trySend(pending);
+            sample.stop(sendTimer);
+            if (failure == null) {
+                sentCounter.increment(pending.length);
+                log.debug("Sent {} emails", pending.length);
+                return;
+            }
+            MimeMessage[] failed = failedMessages(failure, pending);
+            sentCounter.increment(pending.length - failed.length);
+            pending = failed;
+            if (attempt >= maxAttempts || stopping) {
+                failedCounter.increment(pending.length);
+                log.warn("{} emails could not be sent after {} attempts", pending.length, attempt, failure);
+                return;
+            }
+            log.debug("{} emails could not be sent, retrying in {} ms", pending.length, delay, failure);
+            Thread.sleep(delay);
+            delay *= 2;
+        }
+    }
+
+    private MailException trySend(MimeMessage[] messages) {
+        try {
+            javaMailSender.send(messages);
+            return null;
+        } catch (MailException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Keep the messages reported as failed, or all of them if the failure is not per message.
+     */
+    private MimeMessage[] failedMessages(MailException e, MimeMessage[] pending) {
+        if (!(e instanceof MailSendException) || ((MailSendException) e).getFailedMessages().isEmpty()) {
+            return pending;
+        }
+        Set<Object> failed = ((MailSendException) e).getFailedMessages().keySet();
+        MimeMessage[] failedMessages = Arrays.stream(pending).filter(failed::contains).toArray(MimeMessage[]::new);
+        return failedMessages.length > 0 ? failedMessages : pending;
+    }
+}
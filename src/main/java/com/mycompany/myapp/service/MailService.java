@@ -1,14 +1,20 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.User;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.MessageSource;
-import org.springframework.mail.MailException;
+import org.springframework.context.event.EventListener;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
@@ -20,7 +26,11 @@ import tech.jhipster.config.JHipsterProperties;
 /**
  * Service for sending emails.
  * <p>
- * We use the {@link Async} annotation to send emails asynchronously.
+ * Emails are rendered asynchronously thanks to the {@link Async} annotation, and then handed to the {@link MailOutbox}
+ * which sends them in throttled batches.
+ * <p>
+ * When the Thymeleaf cache is enabled, the mail templates are parsed at startup and the localized subjects are only
+ * resolved once per language.
  */
 @Service
 public class MailService {
@@ -31,6 +41,18 @@ public class MailService {
 
     private static final String BASE_URL = "baseUrl";
 
+    private static final String ACTIVATION_TEMPLATE = "mail/activationEmail";
+
+    private static final String CREATION_TEMPLATE = "mail/creationEmail";
+
+    private static final String PASSWORD_RESET_TEMPLATE = "mail/passwordResetEmail";
+
+    private static final String ACTIVATION_TITLE = "email.activation.title";
+
+    private static final String PASSWORD_RESET_TITLE = "email.reset.title";
+
+    private static final int RENDER_BUFFER_SIZE = 4096;
+
     private final JHipsterProperties jHipsterProperties;
 
     private final JavaMailSender javaMailSender;
@@ -39,19 +61,50 @@ public class MailService {
 
     private final SpringTemplateEngine templateEngine;
 
+    private final MailOutbox mailOutbox;
+
+    private final boolean cacheEnabled;
+
+    private final ConcurrentMap<String, Locale> locales = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Locale, ConcurrentMap<String, String>> subjects = new ConcurrentHashMap<>();
+
     public MailService(
         JHipsterProperties jHipsterProperties,
         JavaMailSender javaMailSender,
         MessageSource messageSource,
-        SpringTemplateEngine templateEngine
+        SpringTemplateEngine templateEngine,
+        MailOutbox mailOutbox,
+        ThymeleafProperties thymeleafProperties
     ) {
         this.jHipsterProperties = jHipsterProperties;
         this.javaMailSender = javaMailSender;
         this.messageSource = messageSource;
         this.templateEngine = templateEngine;
+        this.mailOutbox = mailOutbox;
+        this.cacheEnabled = thymeleafProperties.isCache();
+    }
+
+    /**
+     * Parse the mail templates and resolve their subjects in each supported language, so the first emails do not pay
+     * for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadTemplates() {
+        if (!cacheEnabled) {
+            return;
+        }
+        for (String langKey : Constants.LANGUAGES) {
+            Locale locale = getLocale(langKey);
+            for (String templateName : new String[] { ACTIVATION_TEMPLATE, CREATION_TEMPLATE, PASSWORD_RESET_TEMPLATE }) {
+                render(templateName, new User(), locale);
+            }
+            getSubject(ACTIVATION_TITLE, locale);
+            getSubject(PASSWORD_RESET_TITLE, locale);
+        }
+        log.debug("Preloaded email templates for languages {}", Constants.LANGUAGES);
     }
 
-    @Async
     public void sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
         log.debug(
             "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
@@ -70,9 +123,12 @@ public class MailService {
             message.setFrom(jHipsterProperties.getMail().getFrom());
             message.setSubject(subject);
             message.setText(content, isHtml);
-            javaMailSender.send(mimeMessage);
-            log.debug("Sent email to User '{}'", to);
-        } catch (MailException | MessagingException e) {
+            if (mailOutbox.offer(mimeMessage)) {
+                log.debug("Queued email to User '{}'", to);
+            } else {
+                log.warn("Email could not be queued for user '{}', the outbox is full", to);
+            }
+        } catch (MessagingException e) {
             log.warn("Email could not be sent to user '{}'", to, e);
         }
     }
@@ -83,30 +139,53 @@ public class MailService {
             log.debug("Email doesn't exist for user '{}'", user.getLogin());
             return;
         }
-        Locale locale = Locale.forLanguageTag(user.getLangKey());
+        Locale locale = getLocale(user.getLangKey());
+        String content = render(templateName, user, locale);
+        String subject = getSubject(titleKey, locale);
+        sendEmail(user.getEmail(), subject, content, false, true);
+    }
+
+    private String render(String templateName, User user, Locale locale) {
         Context context = new Context(locale);
         context.setVariable(USER, user);
         context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
-        String content = templateEngine.process(templateName, context);
-        String subject = messageSource.getMessage(titleKey, null, locale);
-        sendEmail(user.getEmail(), subject, content, false, true);
+        // Sized for the mail templates, so the buffer does not grow while rendering
+        StringWriter writer = new StringWriter(RENDER_BUFFER_SIZE);
+        templateEngine.process(templateName, context, writer);
+        return writer.toString();
+    }
+
+    private Locale getLocale(String langKey) {
+        if (!cacheEnabled) {
+            return Locale.forLanguageTag(langKey);
+        }
+        return locales.computeIfAbsent(langKey, Locale::forLanguageTag);
+    }
+
+    private String getSubject(String titleKey, Locale locale) {
+        if (!cacheEnabled) {
+            return messageSource.getMessage(titleKey, null, locale);
+        }
+        return subjects
+            .computeIfAbsent(locale, key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(titleKey, key -> messageSource.getMessage(key, null, locale));
     }
 
     @Async
     public void sendActivationEmail(User user) {
         log.debug("Sending activation email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/activationEmail", "email.activation.title");
+        sendEmailFromTemplate(user, ACTIVATION_TEMPLATE, ACTIVATION_TITLE);
     }
 
     @Async
     public void sendCreationEmail(User user) {
         log.debug("Sending creation email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/creationEmail", "email.activation.title");
+        sendEmailFromTemplate(user, CREATION_TEMPLATE, ACTIVATION_TITLE);
     }
 
     @Async
     public void sendPasswordResetMail(User user) {
         log.debug("Sending password reset email to '{}'", user.getEmail());
-        sendEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title");
+        sendEmailFromTemplate(user, PASSWORD_RESET_TEMPLATE, PASSWORD_RESET_TITLE);
     }
 }
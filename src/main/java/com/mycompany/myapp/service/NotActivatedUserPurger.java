@@ -0,0 +1,119 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.repository.UserCaches;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.repository.UserRepository.NotActivatedUser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Purge of the not activated users, in chunks.
+ * <p>
+ * Each chunk is the next range of {@code (created_date, id)}, read through the {@code (activated, created_date)} index
+ * as projections of the id, creation date, login and email, and deleted by id with one statement per table, committed
+ * on its own, so that a purge after a wave of spam registrations neither holds locks for long nor loads all the users
+ * at once. Nothing but the users themselves tracks the progress: a purge interrupted by a crash is resumed by the next
+ * one, as the committed chunks are gone.
+ */
+@Component
+public class NotActivatedUserPurger {
+
+    public static final String DELETED_METER_NAME = "user.purge.deleted";
+    public static final String DELETED_METER_DESCRIPTION = "Indicates the number of not activated users deleted by the purge.";
+
+    public static final String PURGE_METER_NAME = "user.purge";
+    public static final String PURGE_METER_DESCRIPTION = "Indicates the time spent purging not activated users.";
+
+    private final Logger log = LoggerFactory.getLogger(NotActivatedUserPurger.class);
+
+    private final UserRepository userRepository;
+
+    private final UserCaches userCaches;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int chunkSize;
+
+    private final Counter deletedCounter;
+
+    private final Timer purgeTimer;
+
+    public NotActivatedUserPurger(
+        UserRepository userRepository,
+        UserCaches userCaches,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.userRepository = userRepository;
+        this.userCaches = userCaches;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = applicationProperties.getUserPurge().getChunkSize();
+        this.deletedCounter = Counter.builder(DELETED_METER_NAME).description(DELETED_METER_DESCRIPTION).register(registry);
+        this.purgeTimer = Timer.builder(PURGE_METER_NAME).description(PURGE_METER_DESCRIPTION).register(registry);
+    }
+
+    /**
+     * Delete the not activated users created before a date.
+     * <p>
+     * Each chunk joins the current transaction if there is one, and runs in its own transaction otherwise.
+     *
+     * @param createdBefore the creation date the users must be older than.
+     * @return the number of deleted users.
+     */
+    public long purge(Instant createdBefore) {
+        return purgeTimer.record(() -> {
+            AtomicLong deleted = new AtomicLong();
+            NotActivatedUser last = null;
+            List<NotActivatedUser> users;
+            do {
+                NotActivatedUser after = last;
+                users =
+                    Objects.requireNonNull(
+                        transactionTemplate.execute(status -> {
+                            List<NotActivatedUser> chunk = findChunk(createdBefore, after);
+                            deleted.addAndGet(deleteChunk(chunk));
+                            return chunk;
+                        })
+                    );
+                if (!users.isEmpty()) {
+                    last = users.get(users.size() - 1);
+                    log.debug("Purged {} not activated users, up to id {} created at {}", deleted, last.getId(), last.getCreatedDate());
+                }
+            } while (users.size() == chunkSize);
+            log.info("Purged {} not activated users created before {}", deleted, createdBefore);
+            return deleted.get();
+        });
+    }
+
+    private List<NotActivatedUser> findChunk(Instant createdBefore, NotActivatedUser after) {
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+        if (after == null) {
+            return userRepository.findAllNotActivatedCreatedBefore(createdBefore, chunk);
+        }
+        return userRepository.findAllNotActivatedCreatedBefore(createdBefore, after.getCreatedDate(), after.getId(), chunk);
+    }
+
+    private int deleteChunk(List<NotActivatedUser> users) {
+        if (users.isEmpty()) {
+            return 0;
+        }
+        int deleted = userRepository.deleteNotActivatedByIdIn(users.stream().map(NotActivatedUser::getId).collect(Collectors.toList()));
+        deletedCounter.increment(deleted);
+        users.forEach(user -> userCaches.evict(user.getLogin(), user.getEmail()));
+        return deleted;
+    }
+}
@@ -0,0 +1,89 @@
+package com.mycompany.myapp.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of strings: {@link #mightContain(String)} has no false negatives, and false positives with
+ * the probability it was sized for, as long as no more than the expected number of strings are added.
+ */
+final class StringBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray bits;
+
+    private final long bitSize;
+
+    private final int hashFunctions;
+
+    StringBloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (LN2 * LN2));
+        this.bits = new AtomicLongArray(Math.toIntExact((m + 63) / 64));
+        this.bitSize = bits.length() * 64L;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / n * LN2));
+    }
+
+    void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long bit = index(h1 + (long) i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long bit = index(h1 + (long) i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the probability of a false positive, given the bits set so far.
+     */
+    double expectedFalsePositiveProbability() {
+        long set = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            set += Long.bitCount(bits.get(i));
+        }
+        return Math.pow((double) set / bitSize, hashFunctions);
+    }
+
+    long sizeInBytes() {
+        return bitSize / 8;
+    }
+
+    private long index(long combinedHash) {
+        // Kirsch-Mitzenmacher: the hash functions are combinations of the two halves of a single hash
+        return (combinedHash & Long.MAX_VALUE) % bitSize;
+    }
+
+    private static long hash(String value) {
+        // FNV-1a over the chars, then the MurmurHash3 finalizer to spread both halves
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,248 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Node-local Bloom filters of the logins and emails of the activated users, answering "definitely available" without
+ * the database.
+ * <p>
+ * Like the database checks, they ignore the users not activated yet, whose login and email remain available. They
+ * are built from {@code jhi_user} at startup, and {@link UserService} adds the users it activates or updates. As
+ * Bloom filters cannot forget, and other nodes create users too, they are rebuilt periodically: meanwhile, their
+ * answers are advisory, the unique constraints of {@code jhi_user} remain the reference at registration.
+ */
+@Component
+public class UserAvailabilityFilter {
+
+    public static final String CHECKS_METER_NAME = "user.availability.checks";
+    public static final String CHECKS_METER_DESCRIPTION =
+        "Indicates the number of availability checks, answered by the filter or else by the database.";
+    public static final String CHECKS_METER_RESULT_DIMENSION = "result";
+
+    public static final String FALSE_POSITIVE_RATE_METER_NAME = "user.availability.filter.false.positive.rate";
+    public static final String FALSE_POSITIVE_RATE_METER_DESCRIPTION =
+        "Indicates the share of the available values that the filter could not tell apart from taken ones.";
+
+    public static final String EXPECTED_FALSE_POSITIVE_METER_NAME = "user.availability.filter.expected.false.positive.probability";
+    public static final String EXPECTED_FALSE_POSITIVE_METER_DESCRIPTION =
+        "Indicates the probability of a false positive of the filter, given how full it is.";
+
+    public static final String MEMORY_METER_NAME = "user.availability.filter.memory";
+    public static final String MEMORY_METER_DESCRIPTION = "Indicates the memory used by the filter.";
+
+    public static final String FIELD_DIMENSION = "field";
+
+    private final Logger log = LoggerFactory.getLogger(UserAvailabilityFilter.class);
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final double falsePositiveProbability;
+
+    private final long minExpectedInsertions;
+
+    private final Counter filteredCounter;
+
+    private final Counter falsePositiveCounter;
+
+    private final Counter takenCounter;
+
+    private final Object lock = new Object();
+
+    /**
+     * The filters answering the checks, {@code null} until they are first built.
+     */
+    private volatile Filters filters;
+
+    /**
+     * The filters being rebuilt, which must also get the users added meanwhile.
+     */
+    private Filters rebuilding;
+
+    public UserAvailabilityFilter(
+        UserRepository userRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry registry
+    ) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.falsePositiveProbability = applicationProperties.getUserAvailability().getFalsePositiveProbability();
+        this.minExpectedInsertions = applicationProperties.getUserAvailability().getMinExpectedInsertions();
+        this.filteredCounter = checksCounterForResultBuilder("filtered").register(registry);
+        this.falsePositiveCounter = checksCounterForResultBuilder("false_positive").register(registry);
+        this.takenCounter = checksCounterForResultBuilder("taken").register(registry);
+        Gauge
+            .builder(FALSE_POSITIVE_RATE_METER_NAME, this, UserAvailabilityFilter::falsePositiveRate)
+            .description(FALSE_POSITIVE_RATE_METER_DESCRIPTION)
+            .register(registry);
+        registerFilterGauges(registry, "login", Filters::getLogins);
+        registerFilterGauges(registry, "email", Filters::getEmails);
+    }
+
+    private Counter.Builder checksCounterForResultBuilder(String result) {
+        return Counter.builder(CHECKS_METER_NAME).description(CHECKS_METER_DESCRIPTION).tag(CHECKS_METER_RESULT_DIMENSION, result);
+    }
+
+    private void registerFilterGauges(MeterRegistry registry, String field, Function<Filters, StringBloomFilter> filter) {
+        Gauge
+            .builder(
+                EXPECTED_FALSE_POSITIVE_METER_NAME,
+                this,
+                self -> self.measure(filter, StringBloomFilter::expectedFalsePositiveProbability)
+            )
+            .description(EXPECTED_FALSE_POSITIVE_METER_DESCRIPTION)
+            .tag(FIELD_DIMENSION, field)
+            .register(registry);
+        Gauge
+            .builder(MEMORY_METER_NAME, this, self -> self.measure(filter, StringBloomFilter::sizeInBytes))
+            .description(MEMORY_METER_DESCRIPTION)
+            .tag(FIELD_DIMENSION, field)
+            .baseUnit("bytes")
+            .register(registry);
+    }
+
+    private double measure(Function<Filters, StringBloomFilter> filter, Function<StringBloomFilter, Number> measure) {
+        Filters current = filters;
+        return current == null ? Double.NaN : measure.apply(filter.apply(current)).doubleValue();
+    }
+
+    private double falsePositiveRate() {
+        double falsePositives = falsePositiveCounter.count();
+        double available = falsePositives + filteredCounter.count();
+        return available == 0 ? 0 : falsePositives / available;
+    }
+
+    /**
+     * Rebuild the filters from the activated users, at startup and then periodically.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${application.user-availability.rebuild-cron:0 30 * * * ?}")
+    public void rebuild() {
+        long users = userRepository.count();
+        Filters next = new Filters(Math.max(minExpectedInsertions, 2 * users), falsePositiveProbability);
+        synchronized (lock) {
+            rebuilding = next;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = userRepository.streamActivatedLoginsAndEmails()) {
+                    rows.forEach(row -> next.put((String) row[0], (String) row[1]));
+                }
+            });
+            synchronized (lock) {
+                filters = next;
+            }
+            log.debug("Built the login and email filters of {} users", users);
+        } finally {
+            synchronized (lock) {
+                rebuilding = null;
+            }
+        }
+    }
+
+    /**
+     * Add the login and email of a user, created, activated or updated, if it is activated.
+     *
+     * @param user the user.
+     */
+    public void add(User user) {
+        if (!user.isActivated()) {
+            return;
+        }
+        synchronized (lock) {
+            if (filters != null) {
+                filters.put(user.getLogin(), user.getEmail());
+            }
+            if (rebuilding != null) {
+                rebuilding.put(user.getLogin(), user.getEmail());
+            }
+        }
+    }
+
+    /**
+     * Check whether a login is not used by an activated user.
+     *
+     * @param login the login.
+     * @return whether the login is available.
+     */
+    public boolean isLoginAvailable(String login) {
+        return isAvailable(normalize(login), Filters::getLogins, userRepository::existsByLoginAndActivatedIsTrue);
+    }
+
+    /**
+     * Check whether an email is not used by an activated user.
+     *
+     * @param email the email.
+     * @return whether the email is available.
+     */
+    public boolean isEmailAvailable(String email) {
+        return isAvailable(normalize(email), Filters::getEmails, userRepository::existsByEmailAndActivatedIsTrue);
+    }
+
+    private boolean isAvailable(String value, Function<Filters, StringBloomFilter> filter, Predicate<String> taken) {
+        Filters current = filters;
+        if (current != null && !filter.apply(current).mightContain(value)) {
+            filteredCounter.increment();
+            return true;
+        }
+        if (taken.test(value)) {
+            takenCounter.increment();
+            return false;
+        }
+        falsePositiveCounter.increment();
+        return true;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static final class Filters {
+
+        private final StringBloomFilter logins;
+
+        private final StringBloomFilter emails;
+
+        Filters(long expectedInsertions, double falsePositiveProbability) {
+            this.logins = new StringBloomFilter(expectedInsertions, falsePositiveProbability);
+            this.emails = new StringBloomFilter(expectedInsertions, falsePositiveProbability);
+        }
+
+        void put(String login, String email) {
+            if (login != null) {
+                logins.put(normalize(login));
+            }
+            if (email != null) {
+                emails.put(normalize(email));
+            }
+        }
+
+        StringBloomFilter getLogins() {
+            return logins;
+        }
+
+        StringBloomFilter getEmails() {
+            return emails;
+        }
+    }
+}
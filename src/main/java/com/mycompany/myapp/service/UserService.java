@@ -1,9 +1,12 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.aop.logging.Loggable;
+import com.mycompany.myapp.aop.scheduling.SchedulerLock;
 import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
-import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.management.ReadYourWritesWindow;
+import com.mycompany.myapp.repository.UserCaches;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.security.SecurityUtils;
@@ -12,36 +15,107 @@ import com.mycompany.myapp.service.dto.UserDTO;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import tech.jhipster.security.RandomUtil;
 
 /**
  * Service class for managing users.
+ * <p>
+ * Only the methods without passwords or keys in their arguments are {@link Loggable}.
  */
 @Service
 @Transactional
 public class UserService {
 
+    private static final String LOGIN_UNIQUE_CONSTRAINT = "ux_user_login";
+
+    private static final String EMAIL_UNIQUE_CONSTRAINT = "ux_user_email";
+
+    private static final List<String> UNIQUE_CONSTRAINTS = List.of(LOGIN_UNIQUE_CONSTRAINT, EMAIL_UNIQUE_CONSTRAINT);
+
+    private static final int MAX_REGISTRATION_ATTEMPTS = 5;
+
+    private static final Map<String, BiConsumer<AdminUserDTO, Object>> PROJECTED_FIELD_SETTERS = Map.ofEntries(
+        Map.entry("id", (userDTO, value) -> userDTO.setId((Long) value)),
+        Map.entry("login", (userDTO, value) -> userDTO.setLogin((String) value)),
+        Map.entry("firstName", (userDTO, value) -> userDTO.setFirstName((String) value)),
+        Map.entry("lastName", (userDTO, value) -> userDTO.setLastName((String) value)),
+        Map.entry("email", (userDTO, value) -> userDTO.setEmail((String) value)),
+        Map.entry("imageUrl", (userDTO, value) -> userDTO.setImageUrl((String) value)),
+        Map.entry("activated", (userDTO, value) -> userDTO.setActivated((Boolean) value)),
+        Map.entry("langKey", (userDTO, value) -> userDTO.setLangKey((String) value)),
+        Map.entry("createdBy", (userDTO, value) -> userDTO.setCreatedBy((String) value)),
+        Map.entry("createdDate", (userDTO, value) -> userDTO.setCreatedDate((Instant) value)),
+        Map.entry("lastModifiedBy", (userDTO, value) -> userDTO.setLastModifiedBy((String) value)),
+        Map.entry("lastModifiedDate", (userDTO, value) -> userDTO.setLastModifiedDate((Instant) value))
+    );
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
 
     private final PasswordEncoder passwordEncoder;
 
-    private final AuthorityRepository authorityRepository;
+    private final AuthorityRegistry authorityRegistry;
+
+    private final UserCaches userCaches;
+
+    private final EntityManager entityManager;
+
+    private final NotActivatedUserPurger notActivatedUserPurger;
+
+    private final TransactionTemplate registrationTransactionTemplate;
+
+    private final UserAvailabilityFilter userAvailabilityFilter;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final ReadYourWritesWindow readYourWritesWindow;
+
+    public UserService(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        AuthorityRegistry authorityRegistry,
+        UserCaches userCaches,
+        EntityManager entityManager,
+        NotActivatedUserPurger notActivatedUserPurger,
+        PlatformTransactionManager transactionManager,
+        UserAvailabilityFilter userAvailabilityFilter,
+        ReadYourWritesWindow readYourWritesWindow
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.authorityRepository = authorityRepository;
+        this.authorityRegistry = authorityRegistry;
+        this.userCaches = userCaches;
+        this.entityManager = entityManager;
+        this.notActivatedUserPurger = notActivatedUserPurger;
+        this.registrationTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.registrationTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.userAvailabilityFilter = userAvailabilityFilter;
+        this.readYourWritesWindow = readYourWritesWindow;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -52,6 +126,8 @@ public class UserService {
                 // activate given user for the registration key.
                 user.setActivated(true);
                 user.setActivationKey(null);
+                this.clearUserCaches(user);
+                userAvailabilityFilter.add(user);
                 log.debug("Activated user: {}", user);
                 return user;
             });
@@ -66,6 +142,7 @@ public class UserService {
                 user.setPassword(passwordEncoder.encode(newPassword));
                 user.setResetKey(null);
                 user.setResetDate(null);
+                this.clearUserCaches(user);
                 return user;
             });
     }
@@ -77,29 +154,72 @@ public class UserService {
             .map(user -> {
                 user.setResetKey(RandomUtil.generateResetKey());
                 user.setResetDate(Instant.now());
+                this.clearUserCaches(user);
                 return user;
             });
     }
 
+    /**
+     * Register a new, not activated, user.
+     * <p>
+     * The user is inserted right away, relying on the unique constraints of the login and email: only a conflict
+     * looks up the existing user, to replace it if it was never activated. As a failed insert dooms its transaction,
+     * each attempt runs in a transaction of its own, committed whether or not the caller has one.
+     *
+     * @param userDTO the user to register.
+     * @param password the clear password of the user.
+     * @return the registered user.
+     * @throws UsernameAlreadyUsedException if the login is used by an activated user.
+     * @throws EmailAlreadyUsedException if the email is used by an activated user.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerUser(AdminUserDTO userDTO, String password) {
-        userRepository
-            .findOneByLogin(userDTO.getLogin().toLowerCase())
-            .ifPresent(existingUser -> {
-                boolean removed = removeNonActivatedUser(existingUser);
-                if (!removed) {
-                    throw new UsernameAlreadyUsedException();
+        User newUser = insertRegisteredUser(userDTO, passwordEncoder.encode(password));
+        this.clearUserCaches(newUser);
+        log.debug("Created Information for User: {}", newUser);
+        return newUser;
+    }
+
+    private User insertRegisteredUser(AdminUserDTO userDTO, String encryptedPassword) {
+        // the conflicts seen so far, as each attempt is rolled back
+        Set<String> conflicts = new LinkedHashSet<>();
+        for (int attempt = 1;; attempt++) {
+            try {
+                return registrationTransactionTemplate.execute(status -> {
+                    conflicts.forEach(constraint -> removeConflictingNonActivatedUser(constraint, userDTO));
+                    return userRepository.saveAndFlush(newRegisteredUser(userDTO, encryptedPassword));
+                });
+            } catch (DataIntegrityViolationException e) {
+                String conflict = violatedUniqueConstraint(e);
+                conflicts.add(conflict);
+                if (attempt == MAX_REGISTRATION_ATTEMPTS) {
+                    throw alreadyUsedException(conflict);
                 }
-            });
-        userRepository
-            .findOneByEmailIgnoreCase(userDTO.getEmail())
-            .ifPresent(existingUser -> {
-                boolean removed = removeNonActivatedUser(existingUser);
-                if (!removed) {
-                    throw new EmailAlreadyUsedException();
+                log.debug("Registration of {} conflicts on {}", userDTO.getLogin(), conflict);
+            } catch (ConcurrencyFailureException e) {
+                // deadlock with a concurrent registration replacing the same not activated user
+                if (attempt == MAX_REGISTRATION_ATTEMPTS) {
+                    throw e;
                 }
-            });
+                log.debug("Registration of {} failed, retrying: {}", userDTO.getLogin(), e.getMessage());
+            }
+        }
+    }
+
+    private void removeConflictingNonActivatedUser(String constraint, AdminUserDTO userDTO) {
+        Optional<User> existingUser = LOGIN_UNIQUE_CONSTRAINT.equals(constraint)
+            ? userRepository.findOneByLogin(userDTO.getLogin().toLowerCase())
+            : Optional.ofNullable(userDTO.getEmail()).flatMap(userRepository::findOneByEmailIgnoreCase);
+        existingUser.ifPresent(user -> {
+            boolean removed = removeNonActivatedUser(user);
+            if (!removed) {
+                throw alreadyUsedException(constraint);
+            }
+        });
+    }
+
+    private User newRegisteredUser(AdminUserDTO userDTO, String encryptedPassword) {
         User newUser = new User();
-        String encryptedPassword = passwordEncoder.encode(password);
         newUser.setLogin(userDTO.getLogin().toLowerCase());
         // new user gets initially a generated password
         newUser.setPassword(encryptedPassword);
@@ -115,22 +235,35 @@ public class UserService {
         // new user gets registration key
         newUser.setActivationKey(RandomUtil.generateActivationKey());
         Set<Authority> authorities = new HashSet<>();
-        authorityRepository.findById(AuthoritiesConstants.USER).ifPresent(authorities::add);
+        authorityRegistry.find(AuthoritiesConstants.USER).ifPresent(authorities::add);
         newUser.setAuthorities(authorities);
-        userRepository.save(newUser);
-        log.debug("Created Information for User: {}", newUser);
         return newUser;
     }
 
+    private static String violatedUniqueConstraint(DataIntegrityViolationException e) {
+        // the name extracted by the dialect, rather than the message, which also holds the duplicated value
+        String violated = e.getCause() instanceof ConstraintViolationException
+            ? ((ConstraintViolationException) e.getCause()).getConstraintName()
+            : e.getMostSpecificCause().getMessage();
+        String name = String.valueOf(violated).toLowerCase(Locale.ROOT);
+        return UNIQUE_CONSTRAINTS.stream().filter(name::contains).findFirst().orElseThrow(() -> e);
+    }
+
+    private static RuntimeException alreadyUsedException(String constraint) {
+        return LOGIN_UNIQUE_CONSTRAINT.equals(constraint) ? new UsernameAlreadyUsedException() : new EmailAlreadyUsedException();
+    }
+
     private boolean removeNonActivatedUser(User existingUser) {
         if (existingUser.isActivated()) {
             return false;
         }
         userRepository.delete(existingUser);
         userRepository.flush();
+        this.clearUserCaches(existingUser);
         return true;
     }
 
+    @Loggable
     public User createUser(AdminUserDTO userDTO) {
         User user = new User();
         user.setLogin(userDTO.getLogin().toLowerCase());
@@ -154,13 +287,15 @@ public class UserService {
             Set<Authority> authorities = userDTO
                 .getAuthorities()
                 .stream()
-                .map(authorityRepository::findById)
+                .map(authorityRegistry::find)
                 .filter(Optional::isPresent)
                 .map(Optional::get)
                 .collect(Collectors.toSet());
             user.setAuthorities(authorities);
         }
         userRepository.save(user);
+        this.clearUserCaches(user);
+        userAvailabilityFilter.add(user);
         log.debug("Created Information for User: {}", user);
         return user;
     }
@@ -171,12 +306,31 @@ public class UserService {
      * @param userDTO user to update.
      * @return updated user.
      */
+    @Loggable
     public Optional<AdminUserDTO> updateUser(AdminUserDTO userDTO) {
+        return updateUser(userDTO, null);
+    }
+
+    /**
+     * Update all information for a specific user, provided it was not updated since a given version, and return the
+     * modified user, with its new version.
+     *
+     * @param userDTO user to update.
+     * @param expectedVersion the version the update was made from, {@code null} to update whatever the version.
+     * @return updated user.
+     * @throws OptimisticLockingFailureException if the user is not at the expected version.
+     */
+    @Loggable
+    public Optional<AdminUserDTO> updateUser(AdminUserDTO userDTO, Long expectedVersion) {
         return Optional
             .of(userRepository.findById(userDTO.getId()))
             .filter(Optional::isPresent)
             .map(Optional::get)
             .map(user -> {
+                if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+                    throw new OptimisticLockingFailureException("User " + user.getId() + " is not at version " + expectedVersion);
+                }
+                this.clearUserCaches(user);
                 user.setLogin(userDTO.getLogin().toLowerCase());
                 user.setFirstName(userDTO.getFirstName());
                 user.setLastName(userDTO.getLastName());
@@ -191,21 +345,27 @@ public class UserService {
                 userDTO
                     .getAuthorities()
                     .stream()
-                    .map(authorityRepository::findById)
+                    .map(authorityRegistry::find)
                     .filter(Optional::isPresent)
                     .map(Optional::get)
                     .forEach(managedAuthorities::add);
+                this.clearUserCaches(user);
+                userAvailabilityFilter.add(user);
+                // increments the version, checked against concurrent updates
+                userRepository.flush();
                 log.debug("Changed Information for User: {}", user);
                 return user;
             })
             .map(AdminUserDTO::new);
     }
 
+    @Loggable
     public void deleteUser(String login) {
         userRepository
             .findOneByLogin(login)
             .ifPresent(user -> {
                 userRepository.delete(user);
+                this.clearUserCaches(user);
                 log.debug("Deleted User: {}", user);
             });
     }
@@ -219,11 +379,13 @@ public class UserService {
      * @param langKey   language key.
      * @param imageUrl  image URL of user.
      */
+    @Loggable
     public void updateUser(String firstName, String lastName, String email, String langKey, String imageUrl) {
         SecurityUtils
             .getCurrentUserLogin()
             .flatMap(userRepository::findOneByLogin)
             .ifPresent(user -> {
+                this.clearUserCaches(user);
                 user.setFirstName(firstName);
                 user.setLastName(lastName);
                 if (email != null) {
@@ -231,6 +393,8 @@ public class UserService {
                 }
                 user.setLangKey(langKey);
                 user.setImageUrl(imageUrl);
+                this.clearUserCaches(user);
+                userAvailabilityFilter.add(user);
                 log.debug("Changed Information for User: {}", user);
             });
     }
@@ -247,26 +411,133 @@ public class UserService {
                 }
                 String encryptedPassword = passwordEncoder.encode(newPassword);
                 user.setPassword(encryptedPassword);
+                this.clearUserCaches(user);
                 log.debug("Changed password for User: {}", user);
             });
     }
 
     @Transactional(readOnly = true)
+    @Loggable
     public Page<AdminUserDTO> getAllManagedUsers(Pageable pageable) {
-        return userRepository.findAll(pageable).map(AdminUserDTO::new);
+        return getAllManagedUsers(pageable, null);
+    }
+
+    /**
+     * Get a page of users, with only some of their fields: the other fields are left {@code null}.
+     * <p>
+     * Only the columns of these fields are selected, then the authorities of the whole page if they are requested: no
+     * entity is loaded, nor dirty checked.
+     *
+     * @param pageable the page.
+     * @param fields the fields to get, {@code null} for all fields.
+     * @return the page of users.
+     */
+    @Transactional(readOnly = true)
+    @Loggable
+    public Page<AdminUserDTO> getAllManagedUsers(Pageable pageable, Set<String> fields) {
+        Collection<String> properties = fields == null ? UserRepository.PROJECTABLE_PROPERTIES : fields;
+        Page<Tuple> tuples = userRepository.findAllAsTuples(properties, false, pageable);
+        return tuples.map(toAdminUserDTO(tuples.getContent(), fields == null || fields.contains("authorities")));
+    }
+
+    /**
+     * Map user tuples to DTOs, reading the authorities of all the users at once if they are requested.
+     *
+     * @param tuples the tuples of the users.
+     * @param withAuthorities whether to set the authorities of the users.
+     * @return the mapping of a tuple to its DTO.
+     */
+    private Function<Tuple, AdminUserDTO> toAdminUserDTO(List<Tuple> tuples, boolean withAuthorities) {
+        Map<Long, Set<String>> authorities = new HashMap<>();
+        if (withAuthorities && !tuples.isEmpty()) {
+            List<Long> ids = tuples.stream().map(tuple -> tuple.get("id", Long.class)).collect(Collectors.toList());
+            for (Object[] row : userRepository.findAuthorityNamesByUserIdIn(ids)) {
+                authorities.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]);
+            }
+        }
+        return tuple -> {
+            AdminUserDTO userDTO = new AdminUserDTO();
+            for (TupleElement<?> element : tuple.getElements()) {
+                PROJECTED_FIELD_SETTERS.get(element.getAlias()).accept(userDTO, tuple.get(element));
+            }
+            if (withAuthorities) {
+                userDTO.setAuthorities(authorities.getOrDefault(userDTO.getId(), new HashSet<>()));
+            }
+            return userDTO;
+        };
+    }
+
+    private static UserDTO toUserDTO(Tuple tuple) {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(tuple.get("id", Long.class));
+        userDTO.setLogin(tuple.get("login", String.class));
+        return userDTO;
     }
 
     @Transactional(readOnly = true)
+    @Loggable
     public Page<UserDTO> getAllPublicUsers(Pageable pageable) {
-        return userRepository.findAllByIdNotNullAndActivatedIsTrue(pageable).map(UserDTO::new);
+        // the id and login of the public DTO
+        return userRepository.findAllAsTuples(Set.of("login"), true, pageable).map(UserService::toUserDTO);
     }
 
     @Transactional(readOnly = true)
+    @Loggable
+    public Slice<AdminUserDTO> getAllManagedUsersAfter(Sort.Order order, Object after, int size) {
+        Slice<Tuple> tuples = userRepository.findAllAsTuplesAfter(UserRepository.PROJECTABLE_PROPERTIES, false, order, after, size);
+        return tuples.map(toAdminUserDTO(tuples.getContent(), true));
+    }
+
+    @Transactional(readOnly = true)
+    @Loggable
+    public Slice<UserDTO> getAllPublicUsersAfter(Sort.Order order, Object after, int size) {
+        return userRepository.findAllAsTuplesAfter(Set.of("login"), true, order, after, size).map(UserService::toUserDTO);
+    }
+
+    /**
+     * Export all users, in id order, with constant memory whatever the number of users: rows are read from a database
+     * cursor, and each user is detached once handed to the consumer.
+     *
+     * @param consumer the consumer of the exported users, called within the read transaction.
+     */
+    @Transactional(readOnly = true)
+    @Loggable
+    public void exportUsers(Consumer<AdminUserDTO> consumer) {
+        try (Stream<Object[]> rows = userRepository.streamAllWithAuthorityNames()) {
+            User current = null;
+            Set<String> authorities = new HashSet<>();
+            for (Iterator<Object[]> iterator = rows.iterator(); iterator.hasNext();) {
+                Object[] row = iterator.next();
+                User user = (User) row[0];
+                if (current != null && !current.getId().equals(user.getId())) {
+                    exportUser(current, authorities, consumer);
+                    authorities = new HashSet<>();
+                }
+                current = user;
+                if (row[1] != null) {
+                    authorities.add((String) row[1]);
+                }
+            }
+            if (current != null) {
+                exportUser(current, authorities, consumer);
+            }
+        }
+    }
+
+    private void exportUser(User user, Set<String> authorities, Consumer<AdminUserDTO> consumer) {
+        consumer.accept(new AdminUserDTO(user, authorities));
+        entityManager.detach(user);
+    }
+
+    @Transactional(readOnly = true)
+    @Loggable
     public Optional<User> getUserWithAuthoritiesByLogin(String login) {
-        return userRepository.findOneWithAuthoritiesByLogin(login);
+        // the users are cached and evicted by lowercase login
+        return userRepository.findOneWithAuthoritiesByLogin(login.toLowerCase());
     }
 
     @Transactional(readOnly = true)
+    @Loggable
     public Optional<User> getUserWithAuthorities() {
         return SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findOneWithAuthoritiesByLogin);
     }
@@ -274,24 +545,30 @@ public class UserService {
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
-     * This is scheduled to get fired everyday, at 01:00 (am).
+     * This is scheduled to get fired everyday, at 01:00 (am). The users are deleted in chunks, each committed on its
+     * own, see {@link NotActivatedUserPurger}, on a single node of the cluster. An enclosing transaction is suspended,
+     * so that it does not hold the locks of every chunk until it ends.
      */
     @Scheduled(cron = "0 0 1 * * ?")
+    @SchedulerLock(name = "removeNotActivatedUsers", lockAtMostFor = "PT30M")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Loggable
     public void removeNotActivatedUsers() {
-        userRepository
-            .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .forEach(user -> {
-                log.debug("Deleting not activated user {}", user.getLogin());
-                userRepository.delete(user);
-            });
+        notActivatedUserPurger.purge(Instant.now().minus(3, ChronoUnit.DAYS));
     }
 
     /**
      * Gets a list of all the authorities.
      * @return a list of all the authorities.
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
+    @Loggable
     public List<String> getAuthorities() {
-        return authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList());
+        return authorityRegistry.getNames();
+    }
+
+    private void clearUserCaches(User user) {
+        userCaches.evict(user);
+        readYourWritesWindow.recordWrite(user.getLogin(), user.getEmail());
     }
 }
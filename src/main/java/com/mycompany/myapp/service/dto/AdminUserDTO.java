@@ -1,5 +1,6 @@
 package com.mycompany.myapp.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
@@ -51,11 +52,21 @@ public class AdminUserDTO implements Serializable {
 
     private Set<String> authorities;
 
+    /**
+     * The version of the user, exchanged as its ETag rather than in the body.
+     */
+    @JsonIgnore
+    private Long version;
+
     public AdminUserDTO() {
         // Empty constructor needed for Jackson.
     }
 
     public AdminUserDTO(User user) {
+        this(user, user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet()));
+    }
+
+    public AdminUserDTO(User user, Set<String> authorities) {
         this.id = user.getId();
         this.login = user.getLogin();
         this.firstName = user.getFirstName();
@@ -68,7 +79,8 @@ public class AdminUserDTO implements Serializable {
         this.createdDate = user.getCreatedDate();
         this.lastModifiedBy = user.getLastModifiedBy();
         this.lastModifiedDate = user.getLastModifiedDate();
-        this.authorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toSet());
+        this.authorities = authorities;
+        this.version = user.getVersion();
     }
 
     public Long getId() {
@@ -175,6 +187,14 @@ public class AdminUserDTO implements Serializable {
         this.authorities = authorities;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // prettier-ignore
     @Override
     public String toString() {
@@ -2,6 +2,7 @@ package com.mycompany.myapp.service.mapper;
 
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.service.AuthorityRegistry;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
 import com.mycompany.myapp.service.dto.UserDTO;
 import java.util.*;
@@ -20,6 +21,12 @@ import org.springframework.stereotype.Service;
 @Service
 public class UserMapper {
 
+    private final AuthorityRegistry authorityRegistry;
+
+    public UserMapper(AuthorityRegistry authorityRegistry) {
+        this.authorityRegistry = authorityRegistry;
+    }
+
     public List<UserDTO> usersToUserDTOs(List<User> users) {
         return users.stream().filter(Objects::nonNull).map(this::userToUserDTO).collect(Collectors.toList());
     }
@@ -66,11 +73,15 @@ public class UserMapper {
             authorities =
                 authoritiesAsString
                     .stream()
-                    .map(string -> {
-                        Authority auth = new Authority();
-                        auth.setName(string);
-                        return auth;
-                    })
+                    .map(string ->
+                        authorityRegistry
+                            .find(string)
+                            .orElseGet(() -> {
+                                Authority auth = new Authority();
+                                auth.setName(string);
+                                return auth;
+                            })
+                    )
                     .collect(Collectors.toSet());
         }
 
@@ -0,0 +1,199 @@
+package com.mycompany.myapp.web.filter;
+
+import com.mycompany.myapp.management.SqlStatementCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Filter counting the SQL statements of each HTTP request, see {@link SqlStatementCounter}.
+ * <p>
+ * It records them by endpoint, warns about the statements repeated more than a threshold, and can send them in a
+ * {@code Server-Timing} header, which requires buffering the response body. The streamed responses, exports and other
+ * attachments, are not buffered and go without the header. It runs before the security filters, so that their statements
+ * are counted too.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class SqlStatementCountingFilter extends OncePerRequestFilter {
+
+    /**
+     * Request attribute holding the closed {@link SqlStatementCounter.Scope} of the request.
+     */
+    public static final String SCOPE_ATTRIBUTE = SqlStatementCountingFilter.class.getName() + ".SCOPE";
+
+    public static final String STATEMENTS_METER_NAME = "http.server.requests.sql.statements";
+    public static final String STATEMENTS_METER_DESCRIPTION = "Indicates the number of SQL statements executed by HTTP requests.";
+
+    public static final String ROWS_METER_NAME = "http.server.requests.sql.rows";
+    public static final String ROWS_METER_DESCRIPTION = "Indicates the number of rows read by the SQL statements of HTTP requests.";
+
+    public static final String TIME_METER_NAME = "http.server.requests.sql.time";
+    public static final String TIME_METER_DESCRIPTION = "Indicates the time spent executing the SQL statements of HTTP requests.";
+
+    public static final String REPEATED_METER_NAME = "http.server.requests.sql.repeated";
+    public static final String REPEATED_METER_DESCRIPTION =
+        "Indicates the number of HTTP requests repeating a SQL statement more than the threshold, a likely N+1 pattern.";
+
+    public static final String METHOD_DIMENSION = "method";
+    public static final String URI_DIMENSION = "uri";
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final Logger log = LoggerFactory.getLogger(SqlStatementCountingFilter.class);
+
+    private final MeterRegistry registry;
+
+    private final int repeatedThreshold;
+
+    private final boolean serverTiming;
+
+    public SqlStatementCountingFilter(MeterRegistry registry, int repeatedThreshold, boolean serverTiming) {
+        this.registry = registry;
+        this.repeatedThreshold = repeatedThreshold;
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        ServerTimingResponseWrapper bufferedResponse = serverTiming ? new ServerTimingResponseWrapper(response) : null;
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+        try {
+            filterChain.doFilter(request, bufferedResponse != null ? bufferedResponse : response);
+        } finally {
+            scope.close();
+            request.setAttribute(SCOPE_ATTRIBUTE, scope);
+            record(request, scope);
+            if (bufferedResponse != null) {
+                if (!bufferedResponse.streaming) {
+                    bufferedResponse.setHeader(SERVER_TIMING_HEADER, serverTiming(scope));
+                }
+                bufferedResponse.copyBodyToResponse();
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementCounter.Scope scope) {
+        String method = request.getMethod();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary
+            .builder(STATEMENTS_METER_NAME)
+            .description(STATEMENTS_METER_DESCRIPTION)
+            .tag(METHOD_DIMENSION, method)
+            .tag(URI_DIMENSION, uri)
+            .register(registry)
+            .record(scope.getStatements());
+        DistributionSummary
+            .builder(ROWS_METER_NAME)
+            .description(ROWS_METER_DESCRIPTION)
+            .tag(METHOD_DIMENSION, method)
+            .tag(URI_DIMENSION, uri)
+            .register(registry)
+            .record(scope.getRows());
+        Timer
+            .builder(TIME_METER_NAME)
+            .description(TIME_METER_DESCRIPTION)
+            .tag(METHOD_DIMENSION, method)
+            .tag(URI_DIMENSION, uri)
+            .register(registry)
+            .record(scope.getNanos(), TimeUnit.NANOSECONDS);
+        Map<String, Integer> repeated = repeatedThreshold > 0 ? scope.getRepeatedStatements(repeatedThreshold) : Map.of();
+        if (!repeated.isEmpty()) {
+            repeated.forEach((sql, count) -> log.warn("Possible N+1 in {} {}: {} times {}", method, uri, count, sql));
+            Counter
+                .builder(REPEATED_METER_NAME)
+                .description(REPEATED_METER_DESCRIPTION)
+                .tag(METHOD_DIMENSION, method)
+                .tag(URI_DIMENSION, uri)
+                .register(registry)
+                .increment();
+        }
+    }
+
+    private static String serverTiming(SqlStatementCounter.Scope scope) {
+        return String.format(
+            Locale.ROOT,
+            "db;desc=\"%d statements, %d rows\";dur=%.1f",
+            scope.getStatements(),
+            scope.getRows(),
+            scope.getNanos() / 1_000_000.0
+        );
+    }
+
+    /**
+     * Response buffered for its {@code Server-Timing} header, unless its body is streamed.
+     */
+    private static class ServerTimingResponseWrapper extends ContentCachingResponseWrapper {
+
+        private static final List<MediaType> STREAMED_MEDIA_TYPES = List.of(
+            MediaType.APPLICATION_NDJSON,
+            MediaType.TEXT_EVENT_STREAM,
+            MediaType.valueOf("text/csv")
+        );
+
+        private boolean streaming;
+
+        ServerTimingResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return isStreamed() ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return isStreamed() ? getResponse().getWriter() : super.getWriter();
+        }
+
+        /**
+         * Whether the body is streamed, known from the headers set before writing it.
+         */
+        private boolean isStreamed() {
+            if (!streaming && getContentSize() == 0) {
+                streaming = isAttachment(getHeader(HttpHeaders.CONTENT_DISPOSITION)) || isStreamedMediaType(getContentType());
+            }
+            return streaming;
+        }
+
+        private static boolean isAttachment(String contentDisposition) {
+            return contentDisposition != null && contentDisposition.regionMatches(true, 0, "attachment", 0, "attachment".length());
+        }
+
+        private static boolean isStreamedMediaType(String contentType) {
+            if (contentType == null) {
+                return false;
+            }
+            try {
+                MediaType mediaType = MediaType.parseMediaType(contentType);
+                return STREAMED_MEDIA_TYPES.stream().anyMatch(mediaType::isCompatibleWith);
+            } catch (InvalidMediaTypeException e) {
+                return false;
+            }
+        }
+    }
+}
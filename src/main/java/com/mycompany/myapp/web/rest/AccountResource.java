@@ -4,19 +4,23 @@ import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.security.SecurityUtils;
 import com.mycompany.myapp.service.MailService;
+import com.mycompany.myapp.service.UserAvailabilityFilter;
 import com.mycompany.myapp.service.UserService;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
 import com.mycompany.myapp.service.dto.PasswordChangeDTO;
 import com.mycompany.myapp.web.rest.errors.*;
 import com.mycompany.myapp.web.rest.vm.KeyAndPasswordVM;
 import com.mycompany.myapp.web.rest.vm.ManagedUserVM;
+import com.mycompany.myapp.web.util.EntityTagUtil;
 import java.util.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -41,10 +45,18 @@ public class AccountResource {
 
     private final MailService mailService;
 
-    public AccountResource(UserRepository userRepository, UserService userService, MailService mailService) {
+    private final UserAvailabilityFilter userAvailabilityFilter;
+
+    public AccountResource(
+        UserRepository userRepository,
+        UserService userService,
+        MailService mailService,
+        UserAvailabilityFilter userAvailabilityFilter
+    ) {
         this.userRepository = userRepository;
         this.userService = userService;
         this.mailService = mailService;
+        this.userAvailabilityFilter = userAvailabilityFilter;
     }
 
     /**
@@ -65,6 +77,34 @@ public class AccountResource {
         mailService.sendActivationEmail(user);
     }
 
+    /**
+     * {@code GET  /register/availability} : check whether a login and/or an email can be registered.
+     * <p>
+     * The answer is advisory: the registration itself may still fail if they are taken meanwhile.
+     *
+     * @param login the login to check.
+     * @param email the email to check.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the availability of each value checked.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if neither a login nor an email is given.
+     */
+    @GetMapping("/register/availability")
+    public ResponseEntity<Map<String, Boolean>> checkAvailability(
+        @RequestParam(required = false) String login,
+        @RequestParam(required = false) String email
+    ) {
+        if (StringUtils.isBlank(login) && StringUtils.isBlank(email)) {
+            throw new BadRequestAlertException("A login or an email is required", "userManagement", "availabilityvalueneeded");
+        }
+        Map<String, Boolean> availability = new LinkedHashMap<>();
+        if (StringUtils.isNotBlank(login)) {
+            availability.put("login", userAvailabilityFilter.isLoginAvailable(login));
+        }
+        if (StringUtils.isNotBlank(email)) {
+            availability.put("email", userAvailabilityFilter.isEmailAvailable(email));
+        }
+        return ResponseEntity.ok(availability);
+    }
+
     /**
      * {@code GET  /activate} : activate the registered user.
      *
@@ -94,15 +134,21 @@ public class AccountResource {
     /**
      * {@code GET  /account} : get the current user.
      *
-     * @return the current user.
+     * @param headers the HTTP request headers.
+     * @return the current user, with its ETag, or only the ETag with status {@code 304 (Not Modified)} if it matches
+     * the {@code If-None-Match} header.
      * @throws RuntimeException {@code 500 (Internal Server Error)} if the user couldn't be returned.
      */
     @GetMapping("/account")
-    public AdminUserDTO getAccount() {
-        return userService
-            .getUserWithAuthorities()
-            .map(AdminUserDTO::new)
-            .orElseThrow(() -> new AccountResourceException("User could not be found"));
+    public ResponseEntity<AdminUserDTO> getAccount(@RequestHeader HttpHeaders headers) {
+        // the user comes from the users by login cache, so the ETag is checked without a query, and from the same
+        // state as the body
+        User user = userService.getUserWithAuthorities().orElseThrow(() -> new AccountResourceException("User could not be found"));
+        String entityTag = EntityTagUtil.entityTag(user.getId(), user.getVersion());
+        if (EntityTagUtil.isNotModified(headers.getIfNoneMatch(), entityTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).build();
+        }
+        return ResponseEntity.ok().eTag(entityTag).body(new AdminUserDTO(user));
     }
 
     /**
@@ -1,7 +1,9 @@
 package com.mycompany.myapp.web.rest;
 
+import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.service.UserService;
 import com.mycompany.myapp.service.dto.UserDTO;
+import com.mycompany.myapp.web.util.KeysetPaginationUtil;
 import java.util.*;
 import java.util.Collections;
 import org.slf4j.Logger;
@@ -36,14 +38,28 @@ public class PublicUserResource {
      * {@code GET /users} : get all users with only the public informations - calling this are allowed for anyone.
      *
      * @param pageable the pagination information.
+     * @param after the cursor of a keyset paginated request, empty for its first page, see {@link KeysetPaginationUtil}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
-    public ResponseEntity<List<UserDTO>> getAllPublicUsers(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<UserDTO>> getAllPublicUsers(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after
+    ) {
         log.debug("REST request to get all public User names");
         if (!onlyContainsAllowedProperties(pageable)) {
             return ResponseEntity.badRequest().build();
         }
+        if (after != null) {
+            return KeysetPaginationUtil.getSliceAfter(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                pageable,
+                after,
+                UserRepository.KEYSET_PROPERTIES,
+                Sort.Order.asc("id"),
+                userService::getAllPublicUsersAfter
+            );
+        }
 
         final Page<UserDTO> page = userService.getAllPublicUsers(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
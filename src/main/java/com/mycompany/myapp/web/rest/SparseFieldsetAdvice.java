@@ -0,0 +1,43 @@
+package com.mycompany.myapp.web.rest;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.mycompany.myapp.web.util.SparseFieldsetUtil;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Advice writing only the requested fields of the JSON responses, see {@link SparseFieldsetUtil}.
+ */
+@RestControllerAdvice
+public class SparseFieldsetAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(
+        MappingJacksonValue bodyContainer,
+        MediaType contentType,
+        MethodParameter returnType,
+        ServerHttpRequest request,
+        ServerHttpResponse response
+    ) {
+        if (!(request instanceof ServletServerHttpRequest)) {
+            return;
+        }
+        String[] values = ((ServletServerHttpRequest) request).getServletRequest().getParameterValues(SparseFieldsetUtil.FIELDS_PARAMETER);
+        SparseFieldsetUtil
+            .parseFields(values)
+            .ifPresent(fields ->
+                bodyContainer.setFilters(
+                    new SimpleFilterProvider()
+                        .addFilter(SparseFieldsetUtil.FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(fields))
+                        .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll())
+                )
+            );
+    }
+}
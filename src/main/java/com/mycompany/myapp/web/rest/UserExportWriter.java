@@ -0,0 +1,196 @@
+package com.mycompany.myapp.web.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mycompany.myapp.service.dto.AdminUserDTO;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import org.springframework.http.MediaType;
+
+/**
+ * Writer of the users exported by {@link UserResource}, one at a time as they are read from the database.
+ * <p>
+ * Errors writing a user are thrown as {@link UncheckedIOException}, so a client going away aborts the export.
+ */
+abstract class UserExportWriter implements Consumer<AdminUserDTO>, Flushable {
+
+    /**
+     * The export formats.
+     */
+    enum Format {
+        /**
+         * One JSON user per line.
+         */
+        NDJSON("ndjson", MediaType.APPLICATION_NDJSON_VALUE),
+
+        /**
+         * A header line and then one line per user, with the authorities separated by semicolons.
+         */
+        CSV("csv", "text/csv");
+
+        private final String name;
+
+        private final String contentType;
+
+        Format(String name, String contentType) {
+            this.name = name;
+            this.contentType = contentType;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        String getContentType() {
+            return contentType;
+        }
+
+        static Optional<Format> of(String name) {
+            return Arrays.stream(values()).filter(format -> format.name.equals(name)).findFirst();
+        }
+    }
+
+    private static final String CSV_LINE_SEPARATOR = "\r\n";
+
+    private static final List<String> CSV_HEADER = List.of(
+        "id",
+        "login",
+        "firstName",
+        "lastName",
+        "email",
+        "imageUrl",
+        "activated",
+        "langKey",
+        "createdBy",
+        "createdDate",
+        "lastModifiedBy",
+        "lastModifiedDate",
+        "authorities"
+    );
+
+    protected final Writer writer;
+
+    private UserExportWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * @param format the export format.
+     * @param writer the writer of the export, not closed.
+     * @param objectMapper the mapper of the JSON users.
+     * @return the writer of the users, the CSV header already written.
+     * @throws IOException if the header cannot be written.
+     */
+    static UserExportWriter create(Format format, Writer writer, ObjectMapper objectMapper) throws IOException {
+        if (format == Format.CSV) {
+            writer.write(String.join(",", CSV_HEADER) + CSV_LINE_SEPARATOR);
+            return new CsvWriter(writer);
+        }
+        return new NdjsonWriter(writer, objectMapper);
+    }
+
+    @Override
+    public void accept(AdminUserDTO user) {
+        try {
+            write(user);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected abstract void write(AdminUserDTO user) throws IOException;
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private static final class NdjsonWriter extends UserExportWriter {
+
+        private final ObjectWriter objectWriter;
+
+        private final JsonGenerator generator;
+
+        NdjsonWriter(Writer writer, ObjectMapper objectMapper) throws IOException {
+            super(writer);
+            this.objectWriter =
+                objectMapper
+                    .writerFor(AdminUserDTO.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator((String) null);
+            this.generator = objectWriter.createGenerator(writer);
+        }
+
+        @Override
+        protected void write(AdminUserDTO user) throws IOException {
+            objectWriter.writeValue(generator, user);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            generator.flush();
+            super.flush();
+        }
+    }
+
+    private static final class CsvWriter extends UserExportWriter {
+
+        CsvWriter(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        protected void write(AdminUserDTO user) throws IOException {
+            Object[] values = {
+                user.getId(),
+                user.getLogin(),
+                user.getFirstName(),
+                user.getLastName(),
+                user.getEmail(),
+                user.getImageUrl(),
+                user.isActivated(),
+                user.getLangKey(),
+                user.getCreatedBy(),
+                user.getCreatedDate(),
+                user.getLastModifiedBy(),
+                user.getLastModifiedDate(),
+                user.getAuthorities() == null ? null : String.join(";", new TreeSet<>(user.getAuthorities())),
+            };
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeValue(values[i]);
+            }
+            writer.write(CSV_LINE_SEPARATOR);
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String text = value.toString();
+            if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+                // keep spreadsheets from evaluating user provided values as formulas
+                text = "'" + text;
+            }
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.mycompany.myapp.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.myapp.config.Constants;
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.repository.UserRepository;
@@ -10,18 +11,27 @@ import com.mycompany.myapp.service.dto.AdminUserDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
 import com.mycompany.myapp.web.rest.errors.EmailAlreadyUsedException;
 import com.mycompany.myapp.web.rest.errors.LoginAlreadyUsedException;
+import com.mycompany.myapp.web.util.EntityTagUtil;
+import com.mycompany.myapp.web.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.util.SparseFieldsetUtil;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.Collections;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -76,6 +86,8 @@ public class UserResource {
         )
     );
 
+    private static final String EXPORT_FORMAT_NDJSON = "ndjson";
+
     private final Logger log = LoggerFactory.getLogger(UserResource.class);
 
     @Value("${jhipster.clientApp.name}")
@@ -87,10 +99,13 @@ public class UserResource {
 
     private final MailService mailService;
 
-    public UserResource(UserService userService, UserRepository userRepository, MailService mailService) {
+    private final ObjectMapper objectMapper;
+
+    public UserResource(UserService userService, UserRepository userRepository, MailService mailService, ObjectMapper objectMapper) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.mailService = mailService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -131,14 +146,27 @@ public class UserResource {
      * {@code PUT /admin/users} : Updates an existing User.
      *
      * @param userDTO the user to update.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated user.
+     * @param ifMatch the ETag of the user the update was made from, if it must be rejected after any other update.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated user, with its new ETag.
+     * @throws OptimisticLockingFailureException {@code 409 (Conflict)} if the user does not match the {@code If-Match} header.
      * @throws EmailAlreadyUsedException {@code 400 (Bad Request)} if the email is already in use.
      * @throws LoginAlreadyUsedException {@code 400 (Bad Request)} if the login is already in use.
      */
     @PutMapping("/users")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
-    public ResponseEntity<AdminUserDTO> updateUser(@Valid @RequestBody AdminUserDTO userDTO) {
+    public ResponseEntity<AdminUserDTO> updateUser(
+        @Valid @RequestBody AdminUserDTO userDTO,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
         log.debug("REST request to update User : {}", userDTO);
+        Long expectedVersion = null;
+        if (ifMatch != null && !"*".equals(ifMatch.trim())) {
+            // rejected before any lookup when it cannot match
+            expectedVersion =
+                EntityTagUtil
+                    .parseVersion(ifMatch, userDTO.getId())
+                    .orElseThrow(() -> new OptimisticLockingFailureException("If-Match does not match user " + userDTO.getId()));
+        }
         Optional<User> existingUser = userRepository.findOneByEmailIgnoreCase(userDTO.getEmail());
         if (existingUser.isPresent() && (!existingUser.get().getId().equals(userDTO.getId()))) {
             throw new EmailAlreadyUsedException();
@@ -147,29 +175,44 @@ public class UserResource {
         if (existingUser.isPresent() && (!existingUser.get().getId().equals(userDTO.getId()))) {
             throw new LoginAlreadyUsedException();
         }
-        Optional<AdminUserDTO> updatedUser = userService.updateUser(userDTO);
+        Optional<AdminUserDTO> updatedUser = userService.updateUser(userDTO, expectedVersion);
 
-        return ResponseUtil.wrapOrNotFound(
-            updatedUser,
-            HeaderUtil.createAlert(applicationName, "userManagement.updated", userDTO.getLogin())
-        );
+        HttpHeaders headers = HeaderUtil.createAlert(applicationName, "userManagement.updated", userDTO.getLogin());
+        updatedUser.ifPresent(user -> headers.setETag(EntityTagUtil.entityTag(user.getId(), user.getVersion())));
+        return ResponseUtil.wrapOrNotFound(updatedUser, headers);
     }
 
     /**
      * {@code GET /admin/users} : get all users with all the details - calling this are only allowed for the administrators.
      *
      * @param pageable the pagination information.
+     * @param after the cursor of a keyset paginated request, empty for its first page, see {@link KeysetPaginationUtil}.
+     * @param fields the comma separated fields to return, all by default, see {@link SparseFieldsetUtil}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
-    public ResponseEntity<List<AdminUserDTO>> getAllUsers(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<AdminUserDTO>> getAllUsers(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(name = SparseFieldsetUtil.FIELDS_PARAMETER, required = false) String fields
+    ) {
         log.debug("REST request to get all User for an admin");
         if (!onlyContainsAllowedProperties(pageable)) {
             return ResponseEntity.badRequest().build();
         }
+        if (after != null) {
+            return KeysetPaginationUtil.getSliceAfter(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                pageable,
+                after,
+                UserRepository.KEYSET_PROPERTIES,
+                Sort.Order.asc("id"),
+                userService::getAllManagedUsersAfter
+            );
+        }
 
-        final Page<AdminUserDTO> page = userService.getAllManagedUsers(pageable);
+        final Page<AdminUserDTO> page = userService.getAllManagedUsers(pageable, SparseFieldsetUtil.parseFields(fields).orElse(null));
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
@@ -178,17 +221,67 @@ public class UserResource {
         return pageable.getSort().stream().map(Sort.Order::getProperty).allMatch(ALLOWED_ORDERED_PROPERTIES::contains);
     }
 
+    /**
+     * {@code GET /admin/users/export} : export all users with all the details, written to the response as they are read
+     * from the database - calling this are only allowed for the administrators.
+     *
+     * @param format the export format: {@code ndjson}, one JSON user per line, or {@code csv}.
+     * @param response the response to write the users to.
+     * @throws IOException if the response cannot be written.
+     * @throws BadRequestAlertException {@code 400 (Bad Request)} if the format is unknown.
+     */
+    @GetMapping("/users/export")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public void exportUsers(@RequestParam(defaultValue = EXPORT_FORMAT_NDJSON) String format, HttpServletResponse response)
+        throws IOException {
+        log.debug("REST request to export all User as {}", format);
+        UserExportWriter.Format exportFormat = UserExportWriter.Format
+            .of(format)
+            .orElseThrow(() -> new BadRequestAlertException("Unknown export format", "userManagement", "exportformat"));
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("users." + exportFormat.getName()).build().toString()
+        );
+
+        // not the servlet writer, which swallows errors: a client going away must abort the export
+        UserExportWriter exportWriter = UserExportWriter.create(
+            exportFormat,
+            new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8),
+            objectMapper
+        );
+        userService.exportUsers(exportWriter);
+        exportWriter.flush();
+    }
+
     /**
      * {@code GET /admin/users/:login} : get the "login" user.
      *
      * @param login the login of the user to find.
+     * @param headers the HTTP request headers.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the "login" user, or with status {@code 404 (Not Found)}.
+     * The user comes with its ETag, alone with status {@code 304 (Not Modified)} if it matches the {@code If-None-Match} header.
      */
     @GetMapping("/users/{login}")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
-    public ResponseEntity<AdminUserDTO> getUser(@PathVariable @Pattern(regexp = Constants.LOGIN_REGEX) String login) {
+    public ResponseEntity<AdminUserDTO> getUser(
+        @PathVariable @Pattern(regexp = Constants.LOGIN_REGEX) String login,
+        @RequestHeader HttpHeaders headers
+    ) {
         log.debug("REST request to get User : {}", login);
-        return ResponseUtil.wrapOrNotFound(userService.getUserWithAuthoritiesByLogin(login).map(AdminUserDTO::new));
+        // the user comes from the users by login cache, so the ETag is checked without a query, and from the same
+        // state as the body
+        return userService
+            .getUserWithAuthoritiesByLogin(login)
+            .map(user -> {
+                String entityTag = EntityTagUtil.entityTag(user.getId(), user.getVersion());
+                if (EntityTagUtil.isNotModified(headers.getIfNoneMatch(), entityTag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).<AdminUserDTO>build();
+                }
+                return ResponseEntity.ok().eTag(entityTag).body(new AdminUserDTO(user));
+            })
+            .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.mycompany.myapp.web.rest.errors;
 
+import com.mycompany.myapp.security.PasswordHashingRejectedException;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Collection;
@@ -14,8 +15,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -164,6 +167,26 @@ public class ExceptionTranslator implements ProblemHandling, SecurityAdviceTrait
         return create(ex, problem, request);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Problem> handlePasswordHashingRejected(PasswordHashingRejectedException ex, NativeWebRequest request) {
+        Problem problem = Problem.builder().withStatus(Status.SERVICE_UNAVAILABLE).with(MESSAGE_KEY, ErrorConstants.ERR_BUSY).build();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        return create(ex, problem, request, headers);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Problem> handleInternalAuthenticationService(
+        InternalAuthenticationServiceException ex,
+        NativeWebRequest request
+    ) {
+        // The hashing that protects unknown logins against timing attacks runs while the user is retrieved, and is wrapped then
+        if (ex.getCause() instanceof PasswordHashingRejectedException) {
+            return handlePasswordHashingRejected((PasswordHashingRejectedException) ex.getCause(), request);
+        }
+        return handleAuthentication(ex, request);
+    }
+
     @Override
     public ProblemBuilder prepare(final Throwable throwable, final StatusType status, final URI type) {
         Collection<String> activeProfiles = Arrays.asList(env.getActiveProfiles());
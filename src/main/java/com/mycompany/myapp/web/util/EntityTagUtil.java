@@ -0,0 +1,63 @@
+package com.mycompany.myapp.web.util;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class for the strong ETags of versioned entities, made of their id and version.
+ * <p>
+ * Clients send them back in {@code If-None-Match} to get a {@code 304 (Not Modified)} response when the entity did
+ * not change, and in {@code If-Match} to update an entity only if it did not change meanwhile.
+ */
+public final class EntityTagUtil {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private static final Pattern ENTITY_TAG = Pattern.compile("\"(\\d+)-(\\d+)\"");
+
+    private EntityTagUtil() {}
+
+    /**
+     * Get the ETag of an entity.
+     *
+     * @param id the id of the entity.
+     * @param version the version of the entity.
+     * @return the quoted ETag.
+     */
+    public static String entityTag(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * Tell whether the client already has the current state of an entity.
+     *
+     * @param ifNoneMatch the ETags of the {@code If-None-Match} header.
+     * @param entityTag the current ETag of the entity.
+     * @return whether one of the ETags matches, with the weak comparison.
+     */
+    public static boolean isNotModified(List<String> ifNoneMatch, String entityTag) {
+        for (String tag : ifNoneMatch) {
+            if ("*".equals(tag) || entityTag.equals(tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the version of an entity an {@code If-Match} header stands for.
+     *
+     * @param ifMatch the {@code If-Match} header, a single strong ETag.
+     * @param id the id of the entity.
+     * @return the version, or empty if the header is not an ETag of this entity: weak ETags never match.
+     */
+    public static Optional<Long> parseVersion(String ifMatch, Long id) {
+        Matcher matcher = ENTITY_TAG.matcher(ifMatch.trim());
+        if (!matcher.matches() || !matcher.group(1).equals(String.valueOf(id))) {
+            return Optional.empty();
+        }
+        return Optional.of(Long.valueOf(matcher.group(2)));
+    }
+}
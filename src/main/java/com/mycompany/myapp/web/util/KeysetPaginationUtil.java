@@ -0,0 +1,157 @@
+package com.mycompany.myapp.web.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (cursor based) pagination.
+ * <p>
+ * Clients opt in with an {@code after} request parameter, empty for the first page. Each page then carries a
+ * <a href="https://tools.ietf.org/html/rfc5988">Link header</a> to the next one, holding an opaque cursor. There is no
+ * total count, use the offset pagination of {@link tech.jhipster.web.util.PaginationUtil} when it is needed.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String AFTER_PARAMETER = "after";
+
+    private static final String SEPARATOR = ",";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Query of a slice of a keyset paginated request.
+     *
+     * @param <T> the type of the elements.
+     */
+    @FunctionalInterface
+    public interface KeysetQuery<T> {
+        /**
+         * @param order the keyset property and its direction.
+         * @param after the keyset value the slice starts after, {@code null} for the first slice.
+         * @param size the size of the slice.
+         * @return the slice.
+         */
+        Slice<T> find(Sort.Order order, Object after, int size);
+    }
+
+    /**
+     * Answer a keyset paginated request: parse its order and cursor, query the slice, and link to the next one.
+     *
+     * @param uriBuilder the uri builder of the current request.
+     * @param pageable the pagination information of the request, for its sort and size.
+     * @param cursor the cursor sent by the client, empty for the first page.
+     * @param keysetProperties the properties usable as keyset, with the conversion of their value from its string form.
+     * @param defaultOrder the order to use when no sort is requested.
+     * @param query the query of the slice.
+     * @param <T> the type of the elements.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the slice as body, or with status
+     * {@code 400 (Bad Request)} if the sort is not a keyset property or the cursor is invalid.
+     */
+    public static <T> ResponseEntity<List<T>> getSliceAfter(
+        UriComponentsBuilder uriBuilder,
+        Pageable pageable,
+        String cursor,
+        Map<String, Function<String, Object>> keysetProperties,
+        Sort.Order defaultOrder,
+        KeysetQuery<T> query
+    ) {
+        Optional<Sort.Order> order = getKeysetOrder(pageable.getSort(), keysetProperties.keySet(), defaultOrder);
+        if (order.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        Object after;
+        try {
+            after = decodeCursor(cursor, order.get()).map(keysetProperties.get(order.get().getProperty())).orElse(null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Slice<T> slice = query.find(order.get(), after, pageable.getPageSize());
+        HttpHeaders headers = generateKeysetHttpHeaders(uriBuilder, nextCursor(slice, order.get()));
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * Get the order to paginate on, from the requested sort.
+     *
+     * @param sort the requested sort.
+     * @param keysetProperties the properties usable as keyset.
+     * @param defaultOrder the order to use when no sort is requested.
+     * @return the order, or empty if the sort is not a single keyset property. Trailing orders are ignored, as the
+     * keyset properties are unique.
+     */
+    public static Optional<Sort.Order> getKeysetOrder(Sort sort, Collection<String> keysetProperties, Sort.Order defaultOrder) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.isEmpty()) {
+            return Optional.of(defaultOrder);
+        }
+        return Optional.of(orders.get(0)).filter(order -> keysetProperties.contains(order.getProperty()));
+    }
+
+    /**
+     * Decode a cursor.
+     *
+     * @param cursor the cursor sent by the client, empty for the first page.
+     * @param order the order of the current request.
+     * @return the keyset value the page starts after, or empty for the first page.
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another order.
+     */
+    public static Optional<String> decodeCursor(String cursor, Sort.Order order) {
+        if (cursor.isEmpty()) {
+            return Optional.empty();
+        }
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length != 3 || !parts[0].equals(order.getProperty()) || !parts[1].equals(order.getDirection().name())) {
+            throw new IllegalArgumentException("Invalid cursor for " + order);
+        }
+        return Optional.of(parts[2]);
+    }
+
+    /**
+     * Generate the cursor of the page following a slice.
+     *
+     * @param slice the current slice.
+     * @param order the order of the current request.
+     * @return the cursor of the next page, or empty if this slice is the last one.
+     */
+    public static Optional<String> nextCursor(Slice<?> slice, Sort.Order order) {
+        if (!slice.hasNext() || slice.isEmpty()) {
+            return Optional.empty();
+        }
+        Object last = slice.getContent().get(slice.getNumberOfElements() - 1);
+        Object value = new BeanWrapperImpl(last).getPropertyValue(order.getProperty());
+        String cursor = order.getProperty() + SEPARATOR + order.getDirection().name() + SEPARATOR + value;
+        return Optional.of(Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Generate the pagination headers of a slice.
+     *
+     * @param uriBuilder the uri builder of the current request.
+     * @param nextCursor the cursor of the next page, if any.
+     * @return the {@link HttpHeaders}, with a {@code next} link when there is a next page.
+     */
+    public static HttpHeaders generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, Optional<String> nextCursor) {
+        HttpHeaders headers = new HttpHeaders();
+        nextCursor.ifPresent(cursor ->
+            headers.add(
+                HttpHeaders.LINK,
+                "<" + uriBuilder.replaceQueryParam("page").replaceQueryParam(AFTER_PARAMETER, cursor).toUriString() + ">; rel=\"next\""
+            )
+        );
+        return headers;
+    }
+}
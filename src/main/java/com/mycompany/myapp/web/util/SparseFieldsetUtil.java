@@ -0,0 +1,43 @@
+package com.mycompany.myapp.web.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.util.StringUtils;
+
+/**
+ * Utility class for handling sparse fieldsets.
+ * <p>
+ * Clients may request only some fields of the returned DTOs, with a comma separated {@code fields} request parameter:
+ * the DTOs opted in with the {@link #FILTER_ID} Jackson filter are serialized with only these fields, and services may
+ * select only their columns.
+ */
+public final class SparseFieldsetUtil {
+
+    public static final String FIELDS_PARAMETER = "fields";
+
+    /**
+     * Id of the Jackson filter of the DTOs supporting sparse fieldsets.
+     */
+    public static final String FILTER_ID = "sparseFieldset";
+
+    private SparseFieldsetUtil() {}
+
+    /**
+     * Parse the requested fields.
+     *
+     * @param values the values of the {@code fields} request parameter, or {@code null} if it is absent.
+     * @return the requested fields, or empty if all fields are requested.
+     */
+    public static Optional<Set<String>> parseFields(String... values) {
+        if (values == null) {
+            return Optional.empty();
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        for (String value : values) {
+            fields.addAll(Arrays.asList(StringUtils.tokenizeToStringArray(value, ",")));
+        }
+        return fields.isEmpty() ? Optional.empty() : Optional.of(fields);
+    }
+}
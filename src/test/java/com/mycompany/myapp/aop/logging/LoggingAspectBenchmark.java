@@ -0,0 +1,177 @@
+package com.mycompany.myapp.aop.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Overhead per call of the logging advices, on methods returning 10 000 elements in a page, and in a response entity
+ * like the REST endpoints.
+ * <p>
+ * {@code legacyAdvice} is the advice of {@link LoggingAspect} before sampling and size caps, {@code direct} is the
+ * unproxied call, which is what the beans without {@link Loggable} get with {@link LoggableAspect}. Run with
+ * {@code ./mvnw test-compile} and then the {@link #main(String[])} method, it is not part of the tests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingAspectBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean debug;
+
+    private Repository direct;
+
+    private Repository legacyAdvice;
+
+    private Repository loggableAspect;
+
+    private Repository sampledLoggableAspect;
+
+    @Setup
+    public void setup() {
+        ch.qos.logback.classic.Logger logger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Repository.class);
+        // Debug events are formatted but not written, so that the measure does not depend on the console
+        logger.setAdditive(false);
+        logger.detachAndStopAllAppenders();
+        FormattingAppender appender = new FormattingAppender();
+        appender.setContext(logger.getLoggerContext());
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(debug ? Level.DEBUG : Level.INFO);
+        direct = new Repository();
+        legacyAdvice = proxy(new LegacyLoggingAspect());
+        loggableAspect = proxy(new LoggableAspect(new StandardEnvironment(), new ApplicationProperties.MethodLogging()));
+        ApplicationProperties.MethodLogging sampled = new ApplicationProperties.MethodLogging();
+        sampled.setSampleRate(100);
+        sampledLoggableAspect = proxy(new LoggableAspect(new StandardEnvironment(), sampled));
+    }
+
+    private Repository proxy(Object aspect) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new Repository());
+        proxyFactory.addAspect(aspect);
+        return proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public Page<String> direct() {
+        return direct.findAll(PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public Page<String> legacyAdvicePage() {
+        return legacyAdvice.findAll(PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public ResponseEntity<List<String>> legacyAdviceResponse() {
+        return legacyAdvice.getAll();
+    }
+
+    @Benchmark
+    public Page<String> loggableAspectPage() {
+        return loggableAspect.findAll(PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public ResponseEntity<List<String>> loggableAspectResponse() {
+        return loggableAspect.getAll();
+    }
+
+    @Benchmark
+    public ResponseEntity<List<String>> sampledLoggableAspectResponse() {
+        return sampledLoggableAspect.getAll();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LoggingAspectBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static class FormattingAppender extends AppenderBase<ILoggingEvent> {
+
+        private int length;
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            length += event.getFormattedMessage().length();
+        }
+    }
+
+    @Loggable
+    public static class Repository {
+
+        private static final Page<String> PAGE = new PageImpl<>(Collections.nCopies(10_000, "user"), PageRequest.of(0, 10_000), 1_000_000);
+
+        private static final ResponseEntity<List<String>> RESPONSE = ResponseEntity.ok(Collections.nCopies(10_000, "user"));
+
+        public Page<String> findAll(PageRequest pageRequest) {
+            return PAGE;
+        }
+
+        public ResponseEntity<List<String>> getAll() {
+            return RESPONSE;
+        }
+    }
+
+    /**
+     * The advice of {@link LoggingAspect} before sampling and size caps.
+     */
+    @Aspect
+    public static class LegacyLoggingAspect {
+
+        @Around("@within(com.mycompany.myapp.aop.logging.Loggable)")
+        public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
+            Logger log = LoggerFactory.getLogger(joinPoint.getSignature().getDeclaringTypeName());
+            if (log.isDebugEnabled()) {
+                log.debug("Enter: {}() with argument[s] = {}", joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+            }
+            Object result = joinPoint.proceed();
+            if (log.isDebugEnabled()) {
+                log.debug("Exit: {}() with result = {}", joinPoint.getSignature().getName(), result);
+            }
+            return result;
+        }
+
+        @AfterThrowing(pointcut = "@within(com.mycompany.myapp.aop.logging.Loggable)", throwing = "e")
+        public void logAfterThrowing(JoinPoint joinPoint, Throwable e) {
+            LoggerFactory
+                .getLogger(joinPoint.getSignature().getDeclaringTypeName())
+                .error("Exception in {}()", joinPoint.getSignature().getName());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.mycompany.myapp.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import tech.jhipster.config.JHipsterConstants;
+
+/**
+ * Test class for the {@link LoggableAspect} and {@link LoggingAspect} classes.
+ */
+class LoggingAspectTest {
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    private Logger logger;
+
+    private Level level;
+
+    @BeforeEach
+    public void setup() {
+        logger = (Logger) LoggerFactory.getLogger(LoggedJob.class.getPackageName());
+        level = logger.getLevel();
+        logger.setLevel(Level.DEBUG);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    public void teardown() {
+        logger.detachAppender(appender);
+        logger.setLevel(level);
+    }
+
+    @Test
+    void testAnnotatedClassIsLogged() {
+        LoggedJob proxy = proxy(new LoggedJob(), new ApplicationProperties.MethodLogging());
+
+        proxy.run("users");
+
+        assertThat(appender.list)
+            .extracting(ILoggingEvent::getFormattedMessage)
+            .containsExactly(
+                "Enter: run() with argument[s] = [users]",
+                "Exit: run() with result = Page[number=0, elements=10000, total=1000000]"
+            );
+    }
+
+    @Test
+    void testOnlyAnnotatedMethodsAreLogged() {
+        Job proxy = proxy(new Job(), new ApplicationProperties.MethodLogging());
+
+        proxy.run("users");
+        proxy.count();
+
+        assertThat(appender.list)
+            .extracting(ILoggingEvent::getFormattedMessage)
+            .containsExactly("Enter: count() with argument[s] = []", "Exit: count() with result = 1");
+    }
+
+    @Test
+    void testCallsAreSampled() {
+        ApplicationProperties.MethodLogging methodLogging = new ApplicationProperties.MethodLogging();
+        methodLogging.setSampleRate(Integer.MAX_VALUE);
+        LoggedJob proxy = proxy(new LoggedJob(), methodLogging);
+
+        for (int i = 0; i < 10; i++) {
+            proxy.run("users");
+        }
+
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    void testNothingIsLoggedWithoutDebug() {
+        logger.setLevel(Level.INFO);
+        LoggedJob proxy = proxy(new LoggedJob(), new ApplicationProperties.MethodLogging());
+
+        proxy.run("users");
+
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    void testExceptionsAreLogged() {
+        LoggedJob proxy = proxy(new LoggedJob(), new ApplicationProperties.MethodLogging());
+
+        assertThatThrownBy(() -> proxy.run(null)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(appender.list)
+            .filteredOn(event -> event.getLevel() == Level.ERROR)
+            .extracting(ILoggingEvent::getFormattedMessage)
+            .containsExactlyInAnyOrder("Illegal argument in run()", "Exception in run() with cause = NULL");
+    }
+
+    @Test
+    void testIllegalArgumentsAreLoggedInDev() {
+        StandardEnvironment env = new StandardEnvironment();
+        env.setActiveProfiles(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new LoggedJob());
+        proxyFactory.addAspect(new LoggableAspect(env, new ApplicationProperties.MethodLogging()));
+        LoggedJob proxy = proxyFactory.getProxy();
+
+        assertThatThrownBy(() -> proxy.login("admin", "")).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(appender.list)
+            .filteredOn(event -> event.getLevel() == Level.ERROR)
+            .extracting(ILoggingEvent::getFormattedMessage)
+            .contains("Illegal argument: [admin, ******] in login()");
+    }
+
+    @Test
+    void testSecretsAreMasked() {
+        LoggedJob proxy = proxy(new LoggedJob(), new ApplicationProperties.MethodLogging());
+
+        proxy.login("admin", "secret");
+
+        assertThat(appender.list)
+            .extracting(ILoggingEvent::getFormattedMessage)
+            .containsExactly("Enter: login() with argument[s] = [admin, ******]", "Exit: login() with result = true");
+        assertThat(AbstractLoggingAspect.isSecret("currentClearTextPassword")).isTrue();
+        assertThat(AbstractLoggingAspect.isSecret("activationKey")).isTrue();
+        assertThat(AbstractLoggingAspect.isSecret("login")).isFalse();
+    }
+
+    @Test
+    void testLoggingAspectDoesNotAdviseClassesOutsideTheApplicationPackages() {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new LoggedJob());
+        proxyFactory.addAspect(new LoggingAspect(new StandardEnvironment(), new ApplicationProperties.MethodLogging()));
+        LoggedJob proxy = proxyFactory.getProxy();
+
+        proxy.run("users");
+
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    void testContainersAreDescribedWithoutTheirElements() {
+        List<Object> elements = Collections.nCopies(3, new Unprintable());
+
+        assertThat(AbstractLoggingAspect.describe(new PageImpl<>(elements, PageRequest.of(1, 3), 9), 10))
+            .isEqualTo("Page[number=1, elements=3, total=9]");
+        assertThat(AbstractLoggingAspect.describe(elements, 10)).isEqualTo("CopiesList[size=3]");
+        assertThat(AbstractLoggingAspect.describe(new HashMap<>(Map.of("key", new Unprintable())), 10)).isEqualTo("HashMap[size=1]");
+        assertThat(AbstractLoggingAspect.describe(new byte[1024], 10)).isEqualTo("byte[length=1024]");
+        assertThat(AbstractLoggingAspect.describe(ResponseEntity.ok(elements), 10))
+            .isEqualTo("ResponseEntity[status=200, body=CopiesList[size=3]]");
+        assertThat(AbstractLoggingAspect.describe(Optional.of(elements), 10)).isEqualTo("Optional[CopiesList[size=3]]");
+    }
+
+    @Test
+    void testLongValuesAreCut() {
+        assertThat(AbstractLoggingAspect.describe("0123456789abcdef", 10)).isEqualTo("0123456789...(16 chars)");
+        assertThat(AbstractLoggingAspect.describe("0123456789", 10)).isEqualTo("0123456789");
+        assertThat(AbstractLoggingAspect.describe(null, 10)).isEqualTo("null");
+    }
+
+    private static <T> T proxy(T target, ApplicationProperties.MethodLogging methodLogging) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new LoggableAspect(new StandardEnvironment(), methodLogging));
+        return proxyFactory.getProxy();
+    }
+
+    @Loggable
+    public static class LoggedJob {
+
+        public PageImpl<Object> run(String name) {
+            if (name == null) {
+                throw new IllegalArgumentException("name is null");
+            }
+            return new PageImpl<>(Collections.nCopies(10_000, new Unprintable()), PageRequest.of(0, 10_000), 1_000_000);
+        }
+
+        public boolean login(String login, String password) {
+            if (password.isEmpty()) {
+                throw new IllegalArgumentException("password is empty");
+            }
+            return true;
+        }
+    }
+
+    public static class Job {
+
+        public String run(String name) {
+            return name;
+        }
+
+        @Loggable
+        public int count() {
+            return 1;
+        }
+    }
+
+    private static class Unprintable {
+
+        @Override
+        public String toString() {
+            throw new AssertionError("The elements of a container must not be converted to strings");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.mycompany.myapp.aop.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+/**
+ * Test class for the {@link SchedulerLockAspect} class.
+ */
+class SchedulerLockAspectTest {
+
+    private SchedulerLockProvider lockProvider;
+
+    private MeterRegistry meterRegistry;
+
+    private Job job;
+
+    private Job proxy;
+
+    @BeforeEach
+    public void setup() {
+        lockProvider = mock(SchedulerLockProvider.class);
+        meterRegistry = new SimpleMeterRegistry();
+        job = new Job();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(job);
+        proxyFactory.addAspect(new SchedulerLockAspect(lockProvider, meterRegistry));
+        proxy = proxyFactory.getProxy();
+    }
+
+    @Test
+    void testMethodRunsUnderTheLease() {
+        SchedulerLockProvider.Lease lease = new SchedulerLockProvider.Lease("job", Instant.now());
+        when(lockProvider.acquire("job", Duration.ofMinutes(10))).thenReturn(Optional.of(lease));
+
+        proxy.run();
+
+        assertThat(job.runs).isEqualTo(1);
+        verify(lockProvider).release(lease, Duration.ofMinutes(1));
+        assertThat(meterRegistry.get(SchedulerLockAspect.ACQUIRE_METER_NAME).tag("result", "acquired").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(SchedulerLockAspect.HELD_METER_NAME).tag("name", "job").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testMethodIsSkippedWhenTheLeaseIsHeld() {
+        when(lockProvider.acquire("job", Duration.ofMinutes(10))).thenReturn(Optional.empty());
+
+        proxy.run();
+
+        assertThat(job.runs).isZero();
+        verify(lockProvider, never()).release(any(), any());
+        assertThat(meterRegistry.get(SchedulerLockAspect.ACQUIRE_METER_NAME).tag("result", "skipped").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find(SchedulerLockAspect.HELD_METER_NAME).timer()).isNull();
+    }
+
+    @Test
+    void testLeaseIsReleasedWhenTheMethodFails() {
+        SchedulerLockProvider.Lease lease = new SchedulerLockProvider.Lease("job", Instant.now());
+        when(lockProvider.acquire("job", Duration.ofMinutes(10))).thenReturn(Optional.of(lease));
+        job.failure = new IllegalStateException("failed");
+
+        assertThatThrownBy(proxy::run).isSameAs(job.failure);
+
+        verify(lockProvider).release(lease, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testMethodsWithoutLockAreNotAdvised() {
+        proxy.runUnlocked();
+
+        assertThat(job.runs).isEqualTo(1);
+        verify(lockProvider, never()).acquire(any(), any());
+    }
+
+    static class Job {
+
+        int runs;
+
+        RuntimeException failure;
+
+        @SchedulerLock(name = "job", lockAtMostFor = "PT10M", lockAtLeastFor = "PT1M")
+        public void run() {
+            runs++;
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        public void runUnlocked() {
+            runs++;
+        }
+    }
+}
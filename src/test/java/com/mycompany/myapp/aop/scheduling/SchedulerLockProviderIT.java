@@ -0,0 +1,154 @@
+package com.mycompany.myapp.aop.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Integration tests for {@link SchedulerLockProvider}: each provider stands for a node of the cluster, all of them
+ * sharing the test database.
+ */
+@IntegrationTest
+class SchedulerLockProviderIT {
+
+    private static final Duration AT_MOST = Duration.ofMinutes(10);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2022-01-01T01:00:00Z"));
+
+    private String lockName;
+
+    @BeforeEach
+    public void setup() {
+        lockName = "test-" + UUID.randomUUID();
+    }
+
+    @Test
+    void testSingleNodeHoldsTheLease() {
+        SchedulerLockProvider first = node("first");
+        SchedulerLockProvider second = node("second");
+
+        Optional<SchedulerLockProvider.Lease> lease = first.acquire(lockName, AT_MOST);
+
+        assertThat(lease).isPresent();
+        assertThat(second.acquire(lockName, AT_MOST)).isEmpty();
+        assertThat(first.acquire(lockName, AT_MOST)).as("not reentrant").isEmpty();
+
+        first.release(lease.get(), Duration.ZERO);
+        assertThat(second.acquire(lockName, AT_MOST)).isPresent();
+    }
+
+    @Test
+    void testExpiredLeaseIsTakenOver() {
+        SchedulerLockProvider crashed = node("crashed");
+        SchedulerLockProvider other = node("other");
+        assertThat(crashed.acquire(lockName, AT_MOST)).isPresent();
+
+        clock.advance(AT_MOST.minusSeconds(1));
+        assertThat(other.acquire(lockName, AT_MOST)).isEmpty();
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(other.acquire(lockName, AT_MOST)).isPresent();
+    }
+
+    @Test
+    void testLeaseIsKeptForItsMinimumDuration() {
+        SchedulerLockProvider first = node("first");
+        SchedulerLockProvider late = node("late");
+        SchedulerLockProvider.Lease lease = first.acquire(lockName, AT_MOST).orElseThrow();
+
+        clock.advance(Duration.ofSeconds(5));
+        first.release(lease, Duration.ofMinutes(1));
+
+        assertThat(late.acquire(lockName, AT_MOST)).isEmpty();
+        clock.advance(Duration.ofSeconds(55));
+        assertThat(late.acquire(lockName, AT_MOST)).isPresent();
+    }
+
+    @Test
+    void testReleaseOfAnExpiredLeaseDoesNotReleaseTheNextHolder() {
+        SchedulerLockProvider slow = node("slow");
+        SchedulerLockProvider next = node("next");
+        SchedulerLockProvider.Lease expired = slow.acquire(lockName, AT_MOST).orElseThrow();
+        clock.advance(AT_MOST);
+        assertThat(next.acquire(lockName, AT_MOST)).isPresent();
+
+        slow.release(expired, Duration.ZERO);
+
+        assertThat(node("third").acquire(lockName, AT_MOST)).isEmpty();
+    }
+
+    @Test
+    void testConcurrentNodesRunOnce() throws Exception {
+        int nodes = 8;
+        List<Callable<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            SchedulerLockProvider node = node("node-" + i);
+            attempts.add(() -> node.acquire(lockName, AT_MOST).isPresent());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(nodes);
+        try {
+            int acquired = 0;
+            for (Future<Boolean> attempt : executor.invokeAll(attempts)) {
+                acquired += attempt.get() ? 1 : 0;
+            }
+            assertThat(acquired).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private SchedulerLockProvider node(String name) {
+        return new SchedulerLockProvider(jdbcTemplate, transactionManager, clock, name);
+    }
+
+    private static class MutableClock extends Clock {
+
+        private volatile Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.mycompany.myapp.config;
+
+import ch.qos.logback.classic.spi.LoggingEvent;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.ansi.AnsiColor;
+
+/**
+ * Cost per message of {@link CRLFLogConverter}, on clean messages and on messages with control characters.
+ * <p>
+ * {@code regex} is the former implementation. Run with {@code ./mvnw test-compile} and then the {@link #main(String[])}
+ * method, with {@code -prof gc} for the allocations: it is not part of the tests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CRLFLogConverterBenchmark {
+
+    @Param({ "clean", "dirty" })
+    public String line;
+
+    private String message;
+
+    private LoggingEvent event;
+
+    private CRLFLogConverter converter;
+
+    @Setup
+    public void setup() {
+        message =
+            "REST request to update User : AdminUserDTO{login='admin', firstName='Administrator', lastName='Administrator'" +
+            ", email='admin@localhost', imageUrl='', activated=true, langKey='en'}";
+        if ("dirty".equals(line)) {
+            message = message.replace(", email", ",\r\nemail");
+        }
+        event = new LoggingEvent();
+        event.setLoggerName("com.mycompany.myapp.web.rest.UserResource");
+        converter = new CRLFLogConverter();
+        converter.setOptionList(List.of("red"));
+        converter.start();
+    }
+
+    @Benchmark
+    public String regex() {
+        if ((event.getMarker() != null && event.getMarker().contains(CRLFLogConverter.CRLF_SAFE_MARKER)) || converter.isLoggerSafe(event)) {
+            return message;
+        }
+        return message.replaceAll("[\n\r\t]", converter.toAnsiString("_", AnsiColor.RED));
+    }
+
+    @Benchmark
+    public String scan() {
+        return converter.transform(event, message);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CRLFLogConverterBenchmark.class.getSimpleName()).addProfiler("gc").build()).run();
+    }
+}
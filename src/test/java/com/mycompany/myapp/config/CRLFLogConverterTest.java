@@ -0,0 +1,82 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.spi.LoggingEvent;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.ansi.AnsiElement;
+
+/**
+ * Unit tests for the {@link CRLFLogConverter} class.
+ */
+class CRLFLogConverterTest {
+
+    @Test
+    void testCleanMessageIsReturnedAsIs() {
+        CRLFLogConverter converter = converter(null);
+        String message = "Request to get User : admin";
+
+        assertThat(converter.transform(event("com.mycompany.myapp.web.rest.UserResource"), message)).isSameAs(message);
+    }
+
+    @Test
+    void testControlCharactersAreReplaced() {
+        CRLFLogConverter converter = converter(null);
+
+        assertThat(converter.transform(event("com.mycompany.myapp.web.rest.UserResource"), "\nforged\r\nline\t"))
+            .isEqualTo("_forged__line_");
+    }
+
+    @Test
+    void testReplacementHasTheColorOfTheOption() {
+        CRLFLogConverter converter = converter("red");
+
+        assertThat(converter.transform(event("com.mycompany.myapp.web.rest.UserResource"), "login\nforged"))
+            .isEqualTo("login<31:_>forged");
+    }
+
+    @Test
+    void testSuccessiveMessagesDoNotShareTheBuffer() {
+        CRLFLogConverter converter = converter(null);
+        LoggingEvent event = event("com.mycompany.myapp.web.rest.UserResource");
+
+        String first = converter.transform(event, "first\nmessage, longer than the second");
+        String second = converter.transform(event, "second\n");
+
+        assertThat(first).isEqualTo("first_message, longer than the second");
+        assertThat(second).isEqualTo("second_");
+    }
+
+    @Test
+    void testMessagesOfSafeLoggersAreNotChanged() {
+        CRLFLogConverter converter = converter(null);
+        String message = "select\n  *\nfrom jhi_user";
+
+        assertThat(converter.transform(event("org.hibernate.SQL"), message)).isSameAs(message);
+
+        LoggingEvent event = event("com.mycompany.myapp.BookingCareV3App");
+        event.setMarker(CRLFLogConverter.CRLF_SAFE_MARKER);
+        assertThat(converter.transform(event, message)).isSameAs(message);
+    }
+
+    private static CRLFLogConverter converter(String option) {
+        CRLFLogConverter converter = new CRLFLogConverter() {
+            @Override
+            protected String toAnsiString(String in, AnsiElement element) {
+                return "<" + element + ":" + in + ">";
+            }
+        };
+        if (option != null) {
+            converter.setOptionList(List.of(option));
+        }
+        converter.start();
+        return converter;
+    }
+
+    private static LoggingEvent event(String loggerName) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerName(loggerName);
+        return event;
+    }
+}
@@ -0,0 +1,107 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.util.Collections;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for the {@link CacheConfiguration} class.
+ */
+class CacheConfigurationTest {
+
+    private CacheManager cacheManager;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private ApplicationProperties applicationProperties;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager =
+            Caching
+                .getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create(CacheConfigurationTest.class.getName() + System.nanoTime()), getClass().getClassLoader());
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getCache().getCaffeine().setMaxEntries(100);
+        jHipsterProperties.getCache().getCaffeine().setTimeToLiveSeconds(3600);
+        applicationProperties = new ApplicationProperties();
+    }
+
+    @AfterEach
+    public void teardown() {
+        cacheManager.close();
+    }
+
+    @Test
+    void shouldCreateUserAndAuthorityRegions() {
+        new CacheConfiguration(jHipsterProperties, applicationProperties).cacheManagerCustomizer().customize(cacheManager);
+
+        assertThat(cacheManager.getCacheNames())
+            .contains(
+                UserRepository.USERS_BY_LOGIN_CACHE,
+                UserRepository.USERS_BY_EMAIL_CACHE,
+                User.class.getName(),
+                Authority.class.getName(),
+                User.class.getName() + ".authorities"
+            );
+        CaffeineConfiguration<?, ?> configuration = configuration(User.class.getName());
+        assertThat(configuration.getMaximumSize()).isEqualTo(OptionalLong.of(100));
+        assertThat(configuration.getExpireAfterWrite()).isEqualTo(OptionalLong.of(TimeUnit.HOURS.toNanos(1)));
+    }
+
+    @Test
+    void shouldOverrideRegionSizeAndTimeToLive() {
+        ApplicationProperties.Cache.Region byEmail = new ApplicationProperties.Cache.Region();
+        byEmail.setTimeToLiveSeconds(300);
+        applicationProperties.getCache().getRegions().put(UserRepository.USERS_BY_EMAIL_CACHE, byEmail);
+        ApplicationProperties.Cache.Region authority = new ApplicationProperties.Cache.Region();
+        authority.setMaxEntries(10L);
+        applicationProperties.getCache().getRegions().put(Authority.class.getName(), authority);
+
+        new CacheConfiguration(jHipsterProperties, applicationProperties).cacheManagerCustomizer().customize(cacheManager);
+
+        assertThat(configuration(UserRepository.USERS_BY_EMAIL_CACHE).getMaximumSize()).isEqualTo(OptionalLong.of(100));
+        assertThat(configuration(UserRepository.USERS_BY_EMAIL_CACHE).getExpireAfterWrite())
+            .isEqualTo(OptionalLong.of(TimeUnit.MINUTES.toNanos(5)));
+        assertThat(configuration(Authority.class.getName()).getMaximumSize()).isEqualTo(OptionalLong.of(10));
+        assertThat(configuration(Authority.class.getName()).getExpireAfterWrite()).isEqualTo(OptionalLong.of(TimeUnit.HOURS.toNanos(1)));
+    }
+
+    @Test
+    void shouldExposeHitRatioMetrics() {
+        new CacheConfiguration(jHipsterProperties, applicationProperties).cacheManagerCustomizer().customize(cacheManager);
+        Cache<Object, Object> usersByLogin = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        new JCacheMetrics<>(usersByLogin, Collections.emptyList()).bindTo(meterRegistry);
+
+        usersByLogin.put("user", "cached");
+        usersByLogin.get("user");
+        usersByLogin.get("unknown");
+
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CaffeineConfiguration<?, ?> configuration(String cacheName) {
+        return cacheManager.getCache(cacheName).getConfiguration(CaffeineConfiguration.class);
+    }
+}
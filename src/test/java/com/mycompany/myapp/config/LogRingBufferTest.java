@@ -0,0 +1,87 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link LogRingBuffer} class.
+ */
+class LogRingBufferTest {
+
+    @Test
+    void testCapacityIsRoundedUpToAPowerOfTwo() {
+        assertThat(new LogRingBuffer<>(5).capacity()).isEqualTo(8);
+        assertThat(new LogRingBuffer<>(8).capacity()).isEqualTo(8);
+        assertThat(new LogRingBuffer<>(0).capacity()).isEqualTo(2);
+    }
+
+    @Test
+    void testElementsArePolledInOrderUntilTheBufferIsFull() {
+        LogRingBuffer<Integer> ringBuffer = new LogRingBuffer<>(4);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(ringBuffer.offer(i)).isTrue();
+        }
+        assertThat(ringBuffer.offer(4)).isFalse();
+        assertThat(ringBuffer.size()).isEqualTo(4);
+
+        assertThat(ringBuffer.poll()).isZero();
+        assertThat(ringBuffer.offer(4)).isTrue();
+        List<Integer> polled = new ArrayList<>();
+        Integer element;
+        while ((element = ringBuffer.poll()) != null) {
+            polled.add(element);
+        }
+        assertThat(polled).containsExactly(1, 2, 3, 4);
+        assertThat(ringBuffer.size()).isZero();
+    }
+
+    @Test
+    void testConcurrentProducersLoseNothing() throws Exception {
+        int producers = 4;
+        int elementsPerProducer = 10_000;
+        LogRingBuffer<Integer> ringBuffer = new LogRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < elementsPerProducer; i++) {
+                    while (!ringBuffer.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+
+        start.countDown();
+        long sum = 0;
+        int count = 0;
+        while (count < producers * elementsPerProducer) {
+            Integer element = ringBuffer.poll();
+            if (element != null) {
+                sum += element;
+                count++;
+            } else {
+                Thread.yield();
+            }
+        }
+        executor.shutdown();
+
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(sum).isEqualTo(producers * ((long) elementsPerProducer * (elementsPerProducer - 1) / 2));
+        assertThat(ringBuffer.poll()).isNull();
+    }
+}
@@ -0,0 +1,268 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.management.ReadYourWritesWindow;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Test class for the {@link ReplicaRoutingDataSource}, over embedded databases telling which one answered, with JDBC and
+ * JPA transactions.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private MeterRegistry meterRegistry;
+
+    private ReadYourWritesWindow readYourWritesWindow;
+
+    private DataSource primary;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getReadReplicas().getReplicas().add(new ApplicationProperties.ReadReplicas.Replica());
+        applicationProperties.getReadReplicas().setReadYourWritesMillis(60_000);
+        readYourWritesWindow = new ReadYourWritesWindow(applicationProperties);
+        primary = embeddedDatabase("primary");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testReadOnlyTransactionsGoToTheReplica() throws SQLException {
+        Routing routing = new Routing(Map.of("replica", embeddedDatabase("replica")));
+
+        assertThat(routing.read()).isEqualTo("replica");
+        assertThat(routing.readWrite()).isEqualTo("primary");
+        assertThat(routing.jdbcTemplate.queryForObject("select name from origin", String.class)).isEqualTo("primary");
+        assertThat(connections("replica", "read_only")).isEqualTo(1);
+        assertThat(connections(ReplicaRoutingDataSource.PRIMARY, "read_write")).isEqualTo(2);
+    }
+
+    @Test
+    void testReadOnlyJpaTransactionsGoToTheReplica() throws SQLException {
+        Routing routing = new Routing(Map.of("replica", embeddedDatabase("replica")));
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(routing.dataSource);
+        // no entity is needed to read the name of the database
+        factoryBean.setPackagesToScan(ReplicaRoutingDataSourceTest.class.getPackageName());
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.connection.provider_disables_autocommit", "true"));
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+        try {
+            // the JPA dialect prepares the connection of a read-only transaction before its read-only flag is exposed
+            JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            TransactionTemplate readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+            readOnlyTransactionTemplate.setReadOnly(true);
+            EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+            TransactionCallback<String> readName = status ->
+                (String) entityManager.createNativeQuery("select name from origin").getSingleResult();
+
+            assertThat(readOnlyTransactionTemplate.execute(readName)).isEqualTo("replica");
+            assertThat(transactionTemplate.execute(readName)).isEqualTo("primary");
+            assertThat(connections("replica", "read_only")).isEqualTo(1);
+        } finally {
+            entityManagerFactory.close();
+        }
+    }
+
+    @Test
+    void testReplicasAreTakenInTurn() throws SQLException {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", embeddedDatabase("replica-0"));
+        replicas.put("replica-1", embeddedDatabase("replica-1"));
+        Routing routing = new Routing(replicas);
+
+        assertThat(routing.read()).isEqualTo("replica-0");
+        assertThat(routing.read()).isEqualTo("replica-1");
+        assertThat(routing.read()).isEqualTo("replica-0");
+    }
+
+    @Test
+    void testFailingReplicaIsEjected() throws SQLException {
+        AtomicInteger attempts = new AtomicInteger();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", failingDataSource(attempts));
+        replicas.put("replica-1", embeddedDatabase("replica-1"));
+        Routing routing = new Routing(replicas);
+
+        assertThat(routing.read()).isEqualTo("replica-1");
+        assertThat(routing.read()).isEqualTo("replica-1");
+        assertThat(routing.read()).isEqualTo("replica-1");
+
+        assertThat(attempts).hasValue(1);
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.EJECTIONS_METER_NAME).tag("target", "replica-0").counter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.AVAILABLE_METER_NAME).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testReadsGoToThePrimaryWithoutReplicaLeft() throws SQLException {
+        AtomicInteger attempts = new AtomicInteger();
+        Routing routing = new Routing(Map.of("replica", failingDataSource(attempts)));
+
+        assertThat(routing.read()).isEqualTo("primary");
+        assertThat(routing.read()).isEqualTo("primary");
+
+        assertThat(attempts).hasValue(1);
+        assertThat(connections(ReplicaRoutingDataSource.PRIMARY, "no_replica")).isEqualTo(2);
+    }
+
+    @Test
+    void testEjectedReplicaIsTriedAgainAfterTheDelay() throws SQLException {
+        AtomicInteger attempts = new AtomicInteger();
+        Routing routing = new Routing(Map.of("replica", failingDataSource(attempts)), Duration.ZERO);
+
+        assertThat(routing.read()).isEqualTo("primary");
+        assertThat(routing.read()).isEqualTo("primary");
+
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void testReadsOfAUserGoToThePrimaryAfterTheirWrite() throws SQLException {
+        Routing routing = new Routing(Map.of("replica", embeddedDatabase("replica")));
+        authenticate("alice");
+
+        routing.transactionTemplate.executeWithoutResult(status -> routing.jdbcTemplate.update("update origin set name = 'written'"));
+
+        assertThat(routing.read()).isEqualTo("written");
+        assertThat(connections(ReplicaRoutingDataSource.PRIMARY, "read_your_writes")).isEqualTo(1);
+        authenticate("bob");
+        assertThat(routing.read()).isEqualTo("replica");
+    }
+
+    @Test
+    void testRolledBackWritesDoNotOpenTheWindow() throws SQLException {
+        Routing routing = new Routing(Map.of("replica", embeddedDatabase("replica")));
+        authenticate("alice");
+
+        routing.transactionTemplate.executeWithoutResult(status -> {
+            routing.jdbcTemplate.update("update origin set name = 'written'");
+            status.setRollbackOnly();
+        });
+
+        assertThat(routing.read()).isEqualTo("replica");
+    }
+
+    @Test
+    void testReadsOfASubjectGoToThePrimaryAfterItsWrite() throws SQLException {
+        Routing routing = new Routing(Map.of("replica", embeddedDatabase("replica")));
+        readYourWritesWindow.recordWrite("Alice");
+
+        assertThat(readYourWritesWindow.readAs("alice", routing::read)).isEqualTo("primary");
+        assertThat(readYourWritesWindow.readAs("bob", routing::read)).isEqualTo("replica");
+        assertThat(routing.read()).isEqualTo("replica");
+    }
+
+    @Test
+    void testUnwrapsToThePrimary() throws SQLException {
+        Routing routing = new Routing(Map.of("replica", embeddedDatabase("replica")));
+
+        assertThat(routing.dataSource.isWrapperFor(JdbcDataSource.class)).isTrue();
+        assertThat(routing.dataSource.unwrap(JdbcDataSource.class)).isSameAs(primary);
+    }
+
+    private double connections(String target, String reason) {
+        return meterRegistry
+            .get(ReplicaRoutingDataSource.CONNECTIONS_METER_NAME)
+            .tag(ReplicaRoutingDataSource.TARGET_DIMENSION, target)
+            .tag(ReplicaRoutingDataSource.CONNECTIONS_METER_REASON_DIMENSION, reason)
+            .counter()
+            .count();
+    }
+
+    private static void authenticate(String login) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(login, "password"));
+    }
+
+    private static DataSource embeddedDatabase(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table origin (name varchar(20))");
+        jdbcTemplate.update("insert into origin (name) values (?)", name);
+        return dataSource;
+    }
+
+    private static DataSource failingDataSource(AtomicInteger attempts) {
+        return new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                attempts.incrementAndGet();
+                throw new SQLTransientConnectionException("Connection is not available, request timed out after 30000ms.");
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return getConnection();
+            }
+        };
+    }
+
+    private class Routing {
+
+        private final ReplicaRoutingDataSource dataSource;
+
+        private final JdbcTemplate jdbcTemplate;
+
+        private final TransactionTemplate transactionTemplate;
+
+        private final TransactionTemplate readOnlyTransactionTemplate;
+
+        Routing(Map<String, DataSource> replicas) throws SQLException {
+            this(replicas, Duration.ofMinutes(1));
+        }
+
+        Routing(Map<String, DataSource> replicas, Duration ejectionDelay) throws SQLException {
+            dataSource = new ReplicaRoutingDataSource(primary, replicas, readYourWritesWindow, ejectionDelay, meterRegistry);
+            dataSource.afterPropertiesSet();
+            jdbcTemplate = new JdbcTemplate(dataSource);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            transactionTemplate = new TransactionTemplate(transactionManager);
+            readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+            readOnlyTransactionTemplate.setReadOnly(true);
+        }
+
+        String read() {
+            return readOnlyTransactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from origin", String.class));
+        }
+
+        String readWrite() {
+            return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from origin", String.class));
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.EncoderBase;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the {@link RingBufferLogstashAppender} class, against a local TCP sink.
+ */
+class RingBufferLogstashAppenderTest {
+
+    private ServerSocket sink;
+
+    private Thread sinkThread;
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+
+    private MeterRegistry meterRegistry;
+
+    private ApplicationProperties.LogShipping logShipping;
+
+    private RingBufferLogstashAppender appender;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        sink = new ServerSocket(0);
+        sinkThread = new Thread(this::receive);
+        sinkThread.start();
+        meterRegistry = new SimpleMeterRegistry();
+        logShipping = new ApplicationProperties.LogShipping();
+        logShipping.setCapacity(64);
+        logShipping.setReservedCapacity(8);
+        logShipping.setReconnectDelayMillis(50);
+    }
+
+    @AfterEach
+    public void teardown() throws Exception {
+        if (appender != null) {
+            appender.stop();
+        }
+        sink.close();
+        sinkThread.join(1000);
+    }
+
+    private void receive() {
+        try (
+            Socket socket = sink.accept();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))
+        ) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                received.add(line);
+            }
+        } catch (IOException e) {
+            // The sink is closed
+        }
+    }
+
+    @Test
+    void testEventsAreShippedInBatches() throws InterruptedException {
+        appender = appender(sink.getLocalPort());
+        appender.start();
+
+        for (int i = 0; i < 6; i++) {
+            appender.doAppend(event(Level.INFO, "message " + i));
+        }
+
+        awaitUntil(() -> received.size() == 6);
+        assertThat(received)
+            .containsExactly("INFO message 0", "INFO message 1", "INFO message 2", "INFO message 3", "INFO message 4", "INFO message 5");
+        assertThat(meterRegistry.get(RingBufferLogstashAppender.ENQUEUED_METER_NAME).counter().count()).isEqualTo(6);
+        awaitUntil(() -> meterRegistry.get(RingBufferLogstashAppender.FLUSHED_METER_NAME).counter().count() == 6);
+    }
+
+    @Test
+    void testOnlyWarningsAndErrorsUseTheReservedCapacity() throws InterruptedException {
+        logShipping.setCapacity(8);
+        logShipping.setReservedCapacity(4);
+        appender = appender(sink.getLocalPort());
+
+        // Not started yet, so that nothing is shipped while the buffer fills
+        for (int i = 0; i < 6; i++) {
+            appender.append(event(Level.INFO, "info " + i));
+        }
+        for (int i = 0; i < 5; i++) {
+            appender.append(event(i % 2 == 0 ? Level.ERROR : Level.WARN, "problem " + i));
+        }
+
+        assertThat(dropped(Level.INFO)).isEqualTo(2);
+        assertThat(dropped(Level.WARN)).isZero();
+        assertThat(dropped(Level.ERROR)).isEqualTo(1);
+        assertThat(meterRegistry.get(RingBufferLogstashAppender.BUFFERED_METER_NAME).gauge().value()).isEqualTo(8);
+
+        appender.start();
+
+        awaitUntil(() -> received.size() == 8);
+        assertThat(received)
+            .containsExactly(
+                "INFO info 0",
+                "INFO info 1",
+                "INFO info 2",
+                "INFO info 3",
+                "ERROR problem 0",
+                "WARN problem 1",
+                "ERROR problem 2",
+                "WARN problem 3"
+            );
+    }
+
+    @Test
+    void testWarningsWaitForRoomInAFullBuffer() throws InterruptedException {
+        logShipping.setCapacity(8);
+        logShipping.setReservedCapacity(4);
+        logShipping.setOverflowWaitMillis(5000);
+        appender = appender(sink.getLocalPort());
+        for (int i = 0; i < 8; i++) {
+            appender.append(event(Level.WARN, "problem " + i));
+        }
+
+        appender.start();
+        appender.doAppend(event(Level.ERROR, "overflow"));
+
+        awaitUntil(() -> received.size() == 9);
+        assertThat(received).endsWith("ERROR overflow");
+        assertThat(dropped(Level.ERROR)).isZero();
+    }
+
+    @Test
+    void testStalledWriteIsRetried() throws IOException, InterruptedException {
+        logShipping.setBatchSize(16);
+        logShipping.setWriteTimeoutMillis(100);
+        // Accepts connections in its backlog but never reads, so that the socket buffers fill up
+        try (ServerSocket stalled = new ServerSocket(0)) {
+            appender = appender(stalled.getLocalPort());
+            // A single batch larger than the socket buffers
+            String message = "x".repeat(1 << 20);
+            for (int i = 0; i < 16; i++) {
+                appender.append(event(Level.ERROR, message));
+            }
+
+            appender.start();
+
+            awaitUntil(() ->
+                appender
+                    .getStatusManager()
+                    .getCopyOfStatusList()
+                    .stream()
+                    .anyMatch(status -> status.getThrowable() instanceof SocketTimeoutException)
+            );
+            assertThat(meterRegistry.get(RingBufferLogstashAppender.FLUSHED_METER_NAME).counter().count()).isZero();
+        }
+    }
+
+    @Test
+    void testBatchIsRetriedUntilLogstashIsUp() throws IOException, InterruptedException {
+        int port = sink.getLocalPort();
+        sink.close();
+        appender = appender(port);
+        appender.start();
+
+        appender.doAppend(event(Level.ERROR, "while down"));
+        awaitUntil(() -> !appender.getStatusManager().getCopyOfStatusList().isEmpty());
+        sink = new ServerSocket();
+        sink.bind(new InetSocketAddress("localhost", port));
+        sinkThread = new Thread(this::receive);
+        sinkThread.start();
+
+        awaitUntil(() -> received.size() == 1);
+        assertThat(received).containsExactly("ERROR while down");
+        assertThat(dropped(Level.ERROR)).isZero();
+    }
+
+    private RingBufferLogstashAppender appender(int port) {
+        LineEncoder encoder = new LineEncoder();
+        encoder.start();
+        RingBufferLogstashAppender ringBufferAppender = new RingBufferLogstashAppender(
+            new InetSocketAddress("localhost", port),
+            encoder,
+            logShipping,
+            meterRegistry
+        );
+        ringBufferAppender.setContext(new LoggerContext());
+        return ringBufferAppender;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private double dropped(Level level) {
+        return meterRegistry
+            .get(RingBufferLogstashAppender.DROPPED_METER_NAME)
+            .tag(RingBufferLogstashAppender.DROPPED_METER_LEVEL_DIMENSION, level.toString())
+            .counter()
+            .count();
+    }
+
+    private static ILoggingEvent event(Level level, String message) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerName(RingBufferLogstashAppenderTest.class.getName());
+        event.setLevel(level);
+        event.setMessage(message);
+        return event;
+    }
+
+    /**
+     * Simpler than the JSON of the LogstashEncoder, to check the order of the events.
+     */
+    private static class LineEncoder extends EncoderBase<ILoggingEvent> {
+
+        @Override
+        public byte[] headerBytes() {
+            return null;
+        }
+
+        @Override
+        public byte[] encode(ILoggingEvent event) {
+            return (event.getLevel() + " " + event.getFormattedMessage() + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public byte[] footerBytes() {
+            return null;
+        }
+    }
+}
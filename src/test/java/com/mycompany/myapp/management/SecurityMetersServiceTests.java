@@ -12,6 +12,7 @@ import org.junit.jupiter.api.Test;
 class SecurityMetersServiceTests {
 
     private static final String INVALID_TOKENS_METER_EXPECTED_NAME = "security.authentication.invalid-tokens";
+    private static final String TOKEN_CACHE_METER_EXPECTED_NAME = "security.authentication.token-cache";
 
     private MeterRegistry meterRegistry;
 
@@ -67,4 +68,16 @@ class SecurityMetersServiceTests {
 
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(1);
     }
+
+    @Test
+    void testTokenCacheCountersAreBoundToCorrectResults() {
+        assertThat(meterRegistry.find(TOKEN_CACHE_METER_EXPECTED_NAME).counters()).hasSize(2);
+
+        securityMetersService.trackTokenCacheHit();
+        securityMetersService.trackTokenCacheHit();
+        securityMetersService.trackTokenCacheMiss();
+
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "miss").counter().count()).isEqualTo(1);
+    }
 }
@@ -0,0 +1,123 @@
+package com.mycompany.myapp.management;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link StatementCountingDataSource} and {@link SqlStatementCounter} classes.
+ */
+class StatementCountingDataSourceTest {
+
+    private static final String SELECT_AUTHORITIES = "select authority_name from jhi_user_authority where user_id=?";
+
+    private PreparedStatement preparedStatement;
+
+    private Statement statement;
+
+    private ResultSet resultSet;
+
+    private StatementCountingDataSource dataSource;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, true, false);
+        preparedStatement = mock(PreparedStatement.class);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        statement = mock(Statement.class);
+        when(statement.executeUpdate(anyString())).thenReturn(1);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+        dataSource = new StatementCountingDataSource(target);
+    }
+
+    @Test
+    void testStatementsAndRowsAreCountedInTheOpenScopes() throws SQLException {
+        try (SqlStatementCounter.Scope request = SqlStatementCounter.open()) {
+            try (SqlStatementCounter.Scope serviceCall = SqlStatementCounter.open()) {
+                readAuthorities();
+
+                assertThat(serviceCall.getStatements()).isEqualTo(1);
+                assertThat(serviceCall.getRows()).isEqualTo(2);
+            }
+            dataSource.getConnection().createStatement().executeUpdate("delete from jhi_persistent_audit_event");
+
+            assertThat(request.getStatements()).isEqualTo(2);
+            assertThat(request.getRows()).isEqualTo(2);
+            assertThat(request.getNanos()).isPositive();
+        }
+    }
+
+    @Test
+    void testNothingIsCountedWithoutScope() throws SQLException {
+        readAuthorities();
+
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            assertThat(scope.getStatements()).isZero();
+            assertThat(scope.getRows()).isZero();
+        }
+    }
+
+    @Test
+    void testRepeatedStatementsAreReported() throws SQLException {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            for (int i = 0; i < 3; i++) {
+                when(resultSet.next()).thenReturn(true, false);
+                readAuthorities();
+            }
+            dataSource.getConnection().createStatement().executeUpdate("delete from jhi_persistent_audit_event");
+
+            assertThat(scope.getRepeatedStatements(2)).containsOnlyKeys(SELECT_AUTHORITIES).containsEntry(SELECT_AUTHORITIES, 3);
+            assertThat(scope.getRepeatedStatements(3)).isEmpty();
+        }
+    }
+
+    @Test
+    void testExceptionsOfTheDriverAreThrownAsIs() throws SQLException {
+        SQLException failure = new SQLException("Deadlock found when trying to get lock", "40001");
+        when(preparedStatement.executeQuery()).thenThrow(failure);
+
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            assertThatThrownBy(this::readAuthorities).isSameAs(failure);
+            assertThat(scope.getStatements()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testClosingClosesTheTarget() throws Exception {
+        ClosableDataSource target = mock(ClosableDataSource.class);
+
+        new StatementCountingDataSource(target).close();
+        dataSource.close();
+
+        verify(target).close();
+    }
+
+    private void readAuthorities() throws SQLException {
+        PreparedStatement authorities = dataSource.getConnection().prepareStatement(SELECT_AUTHORITIES);
+        authorities.setLong(1, 1L);
+        try (ResultSet rows = authorities.executeQuery()) {
+            while (rows.next()) {
+                // Read the row
+            }
+        }
+    }
+
+    private interface ClosableDataSource extends DataSource, AutoCloseable {}
+}
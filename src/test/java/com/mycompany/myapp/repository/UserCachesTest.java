@@ -0,0 +1,76 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/**
+ * Test class for the {@link UserCaches} class.
+ */
+class UserCachesTest {
+
+    private CacheManager cacheManager;
+
+    private UserCaches userCaches;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager = new ConcurrentMapCacheManager(UserRepository.USERS_BY_LOGIN_CACHE, UserRepository.USERS_BY_EMAIL_CACHE);
+        userCaches = new UserCaches(cacheManager);
+    }
+
+    @Test
+    void testUserIsEvictedByLowercaseLoginAndEmail() {
+        User user = new User();
+        user.setLogin("John");
+        user.setEmail("John.Doe@Localhost");
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).put("john", user);
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).put("john.doe@localhost", user);
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).put("jane", new User());
+
+        userCaches.evict(user);
+
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("john")).isNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).get("john.doe@localhost")).isNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("jane")).isNotNull();
+    }
+
+    @Test
+    void testUserIsEvictedAgainWhenTheTransactionCompletes() {
+        User user = new User();
+        user.setLogin("john");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userCaches.evict(user);
+            // a concurrent login reads the row before the commit
+            cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).put("john", new User());
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_COMMITTED
+            );
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("john")).isNull();
+    }
+
+    @Test
+    void testUserWithoutEmailIsEvictedByLogin() {
+        User user = new User();
+        user.setLogin("john");
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).put("john", user);
+
+        userCaches.evict(user);
+
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("john")).isNull();
+    }
+}
@@ -0,0 +1,108 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.User;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import tech.jhipster.security.RandomUtil;
+
+/**
+ * Latency of the lookup of a user by the hash of its activation key, as done by
+ * {@link UserRepository#findOneByActivationKey(String)}, on a seeded embedded table with and without the
+ * {@code ux_user_activation_key_hash} unique index of the changelog.
+ * <p>
+ * Run with {@code ./mvnw test-compile} and then the {@link #main(String[])} method, it is not part of the tests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserKeyLookupBenchmark {
+
+    @Param({ "100000" })
+    public int users;
+
+    @Param({ "false", "true" })
+    public boolean index;
+
+    private Connection connection;
+
+    private PreparedStatement lookup;
+
+    private String[] keyHashes;
+
+    private int next;
+
+    @Setup
+    public void setup() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:users-" + UUID.randomUUID());
+        connection = dataSource.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table jhi_user (id bigint primary key, login varchar(50), activation_key_hash varchar(64))");
+        }
+        keyHashes = new String[users];
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("insert into jhi_user values (?, ?, ?)")) {
+            for (int i = 0; i < users; i++) {
+                keyHashes[i] = User.hashKey(RandomUtil.generateActivationKey());
+                insert.setLong(1, i);
+                insert.setString(2, "user-" + i);
+                insert.setString(3, keyHashes[i]);
+                insert.addBatch();
+                if (i % 1_000 == 999) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        if (index) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("alter table jhi_user add constraint ux_user_activation_key_hash unique (activation_key_hash)");
+            }
+        }
+        lookup = connection.prepareStatement("select id from jhi_user where activation_key_hash = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long findOneByActivationKeyHash() throws SQLException {
+        lookup.setString(1, keyHashes[next++ % keyHashes.length]);
+        try (ResultSet resultSet = lookup.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserKeyLookupBenchmark.class.getSimpleName()).build()).run();
+    }
+}
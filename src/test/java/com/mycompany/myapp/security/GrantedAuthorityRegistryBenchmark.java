@@ -0,0 +1,80 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.security.jwt.JWTAuthenticationToken;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Allocations per request of the authorities of a JWT, and of the authentication built from them.
+ * <p>
+ * {@code split*} and {@code userPrincipal} are the former implementation. Run with {@code ./mvnw test-compile} and then
+ * the {@link #main(String[])} method, which adds the {@code gc} profiler: it is not part of the tests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GrantedAuthorityRegistryBenchmark {
+
+    private static final String TOKEN = "eyJhbGciOiJIUzUxMiJ9.eyJzdWIiOiJhZG1pbiJ9.signature";
+
+    private String claim;
+
+    @Setup
+    public void setup() {
+        // a new string, as parsed from each token
+        claim = new String(AuthoritiesConstants.ADMIN + "," + AuthoritiesConstants.USER);
+        GrantedAuthorityRegistry.fromCommaSeparated(claim);
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> splitAuthorities() {
+        return Arrays.stream(claim.split(",")).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> registryAuthorities() {
+        return GrantedAuthorityRegistry.fromCommaSeparated(claim);
+    }
+
+    @Benchmark
+    public Authentication userPrincipal() {
+        List<GrantedAuthority> authorities = GrantedAuthorityRegistry.fromCommaSeparated(claim);
+        return new UsernamePasswordAuthenticationToken(new User("admin", "", authorities), TOKEN, authorities);
+    }
+
+    @Benchmark
+    public Authentication jwtAuthenticationToken() {
+        return new JWTAuthenticationToken("admin", TOKEN, GrantedAuthorityRegistry.fromCommaSeparated(claim));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+            new OptionsBuilder().include(GrantedAuthorityRegistryBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()
+        )
+            .run();
+    }
+}
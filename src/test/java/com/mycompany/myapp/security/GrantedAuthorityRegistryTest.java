@@ -0,0 +1,76 @@
+package com.mycompany.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Test class for the {@link GrantedAuthorityRegistry} utility class.
+ */
+class GrantedAuthorityRegistryTest {
+
+    private static final String ADMIN_AND_USER = AuthoritiesConstants.ADMIN + "," + AuthoritiesConstants.USER;
+
+    @BeforeEach
+    @AfterEach
+    void cleanup() {
+        GrantedAuthorityRegistry.clear();
+    }
+
+    @Test
+    void testFromCommaSeparatedReturnsSharedAuthorities() {
+        List<GrantedAuthority> authorities = GrantedAuthorityRegistry.fromCommaSeparated(ADMIN_AND_USER);
+
+        assertThat(authorities)
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        assertThat(GrantedAuthorityRegistry.fromCommaSeparated(new String(ADMIN_AND_USER))).isSameAs(authorities);
+        assertThat(GrantedAuthorityRegistry.fromCommaSeparated(AuthoritiesConstants.USER).get(0)).isSameAs(authorities.get(1));
+    }
+
+    @Test
+    void testFromCommaSeparatedSkipsEmptyNames() {
+        assertThat(GrantedAuthorityRegistry.fromCommaSeparated("")).isEmpty();
+        assertThat(GrantedAuthorityRegistry.fromCommaSeparated(AuthoritiesConstants.USER + ", ,"))
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly(AuthoritiesConstants.USER);
+    }
+
+    @Test
+    void testFromNamesIgnoresOrder() {
+        List<GrantedAuthority> authorities = GrantedAuthorityRegistry.fromNames(
+            Stream.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)
+        );
+
+        assertThat(authorities).isSameAs(GrantedAuthorityRegistry.fromCommaSeparated(ADMIN_AND_USER));
+    }
+
+    @Test
+    void testAuthoritiesAreUnmodifiable() {
+        List<GrantedAuthority> authorities = GrantedAuthorityRegistry.fromCommaSeparated(AuthoritiesConstants.USER);
+
+        assertThatThrownBy(() -> authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN)))
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void testRegistryIsBounded() {
+        String uniquePrefix = "ROLE_BOUNDED_";
+        for (int i = 0; i <= GrantedAuthorityRegistry.MAX_AUTHORITY_SETS; i++) {
+            GrantedAuthorityRegistry.fromCommaSeparated(uniquePrefix + i);
+        }
+        String overflow = uniquePrefix + "overflow";
+
+        List<GrantedAuthority> authorities = GrantedAuthorityRegistry.fromCommaSeparated(overflow);
+
+        assertThat(authorities).extracting(GrantedAuthority::getAuthority).containsExactly(overflow);
+        assertThat(GrantedAuthorityRegistry.fromCommaSeparated(overflow)).isNotSameAs(authorities).isEqualTo(authorities);
+    }
+}
@@ -0,0 +1,131 @@
+package com.mycompany.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Test class for the {@link PooledPasswordEncoder} class.
+ */
+class PooledPasswordEncoderTest {
+
+    private static final String PASSWORD = "password";
+
+    private ApplicationProperties.Security.PasswordHashing properties;
+
+    private MeterRegistry meterRegistry;
+
+    private PooledPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    public void setup() {
+        properties = new ApplicationProperties.Security.PasswordHashing();
+        properties.setStrength(4);
+        properties.setPoolSize(1);
+        properties.setQueueCapacity(1);
+        properties.setRetryAfterSeconds(3);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void teardown() {
+        if (passwordEncoder != null) {
+            passwordEncoder.destroy();
+        }
+    }
+
+    @Test
+    void testEncodeAndMatchesAreTimed() {
+        passwordEncoder = new PooledPasswordEncoder(properties, meterRegistry);
+
+        String encodedPassword = passwordEncoder.encode(PASSWORD);
+
+        assertThat(encodedPassword).startsWith("$2a$04$");
+        assertThat(passwordEncoder.matches(PASSWORD, encodedPassword)).isTrue();
+        assertThat(passwordEncoder.matches("wrong", encodedPassword)).isFalse();
+        assertThat(meterRegistry.get(PooledPasswordEncoder.HASHING_METER_NAME).tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(PooledPasswordEncoder.HASHING_METER_NAME).tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testHashingFailuresAreRethrown() {
+        passwordEncoder = new PooledPasswordEncoder(properties, meterRegistry);
+
+        assertThatThrownBy(() -> passwordEncoder.encode(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testUpgradeEncodingWhenCostChanges() {
+        passwordEncoder = new PooledPasswordEncoder(properties, meterRegistry);
+
+        assertThat(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode(PASSWORD))).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode(PASSWORD))).isTrue();
+        properties.setStrength(5);
+        assertThat(new PooledPasswordEncoder(properties, meterRegistry).upgradeEncoding(new BCryptPasswordEncoder(4).encode(PASSWORD)))
+            .isTrue();
+        assertThat(passwordEncoder.upgradeEncoding("not a bcrypt hash")).isFalse();
+        assertThat(passwordEncoder.upgradeEncoding(null)).isFalse();
+    }
+
+    @Test
+    void testRejectWhenPoolIsSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        passwordEncoder = new PooledPasswordEncoder(properties, blockingEncoder, meterRegistry);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> running = callers.submit(() -> passwordEncoder.encode(PASSWORD));
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            Future<String> queued = callers.submit(() -> passwordEncoder.encode(PASSWORD));
+            awaitQueueDepth(1);
+
+            assertThatThrownBy(() -> passwordEncoder.encode(PASSWORD))
+                .isInstanceOfSatisfying(
+                    PasswordHashingRejectedException.class,
+                    e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(3)
+                );
+            assertThat(meterRegistry.get(PooledPasswordEncoder.REJECTED_METER_NAME).counter().count()).isEqualTo(1);
+
+            release.countDown();
+            assertThat(running.get(10, TimeUnit.SECONDS)).startsWith("$2a$04$");
+            assertThat(queued.get(10, TimeUnit.SECONDS)).startsWith("$2a$04$");
+            assertThat(meterRegistry.get(PooledPasswordEncoder.QUEUE_METER_NAME).gauge().value()).isZero();
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get(PooledPasswordEncoder.QUEUE_METER_NAME).gauge().value() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(meterRegistry.get(PooledPasswordEncoder.QUEUE_METER_NAME).gauge().value()).isEqualTo(depth);
+    }
+}
@@ -0,0 +1,78 @@
+package com.mycompany.myapp.security.jwt;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.management.SecurityMetersService;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * CPU time per request of the token validation done by {@link JWTFilter}, for a session sending the same token on
+ * every request, with and without the cache of verified tokens.
+ * <p>
+ * Run with {@code ./mvnw test-compile} and then the {@link #main(String[])} method, it is not part of the tests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenProviderBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean tokenCache;
+
+    private TokenProvider tokenProvider;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties
+            .getSecurity()
+            .getAuthentication()
+            .getJwt()
+            .setBase64Secret("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8");
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getTokenCache().setEnabled(tokenCache);
+        tokenProvider = new TokenProvider(jHipsterProperties, applicationProperties, new SecurityMetersService(new SimpleMeterRegistry()));
+        token =
+            tokenProvider.createToken(
+                new UsernamePasswordAuthenticationToken(
+                    "user",
+                    "user",
+                    List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER), new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN))
+                ),
+                false
+            );
+    }
+
+    @Benchmark
+    public TokenValidationResult validateAndGetAuthentication() {
+        return tokenProvider.validateAndGetAuthentication(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TokenProviderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -2,6 +2,7 @@ package com.mycompany.myapp.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.management.SecurityMetersService;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import io.jsonwebtoken.Jwts;
@@ -28,6 +29,7 @@ class TokenProviderSecurityMetersTests {
 
     private static final long ONE_MINUTE = 60000;
     private static final String INVALID_TOKENS_METER_EXPECTED_NAME = "security.authentication.invalid-tokens";
+    private static final String TOKEN_CACHE_METER_EXPECTED_NAME = "security.authentication.token-cache";
 
     private MeterRegistry meterRegistry;
 
@@ -43,7 +45,7 @@ class TokenProviderSecurityMetersTests {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(meterRegistry);
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), securityMetersService);
         Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
@@ -107,6 +109,33 @@ class TokenProviderSecurityMetersTests {
         assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "malformed").counter().count()).isEqualTo(1);
     }
 
+    @Test
+    void testTokenCacheHitAndMissCount() {
+        String validToken = createValidToken();
+
+        tokenProvider.validateToken(validToken);
+
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "hit").counter().count()).isZero();
+
+        tokenProvider.getAuthentication(validToken);
+        tokenProvider.validateToken(validToken);
+
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "hit").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testExpiredTokenIsNotCached() {
+        String expiredToken = createExpiredToken();
+
+        tokenProvider.validateToken(expiredToken);
+        tokenProvider.validateToken(expiredToken);
+
+        assertThat(meterRegistry.get(INVALID_TOKENS_METER_EXPECTED_NAME).tag("cause", "expired").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(TOKEN_CACHE_METER_EXPECTED_NAME).tag("result", "hit").counter().count()).isZero();
+    }
+
     private String createValidToken() {
         Authentication authentication = createAuthentication();
 
@@ -2,6 +2,7 @@ package com.mycompany.myapp.security.jwt;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.management.SecurityMetersService;
 import com.mycompany.myapp.security.AuthoritiesConstants;
 import io.jsonwebtoken.Jwts;
@@ -36,7 +37,7 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), securityMetersService);
         key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret));
 
         ReflectionTestUtils.setField(tokenProvider, "key", key);
@@ -88,6 +89,73 @@ class TokenProviderTest {
         assertThat(isTokenValid).isFalse();
     }
 
+    @Test
+    void testValidateAndGetAuthenticationReturnsAuthenticationForValidToken() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        TokenValidationResult result = tokenProvider.validateAndGetAuthentication(token);
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getFailure()).isEmpty();
+        assertThat(result.getAuthentication()).hasValueSatisfying(authentication -> {
+            assertThat(authentication.getName()).isEqualTo("anonymous");
+            assertThat(authentication.getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly(AuthoritiesConstants.ANONYMOUS);
+        });
+    }
+
+    @Test
+    void testValidateAndGetAuthenticationReturnsFailureCause() {
+        assertThat(tokenProvider.validateAndGetAuthentication(createTokenWithDifferentSignature()).getFailure())
+            .contains(TokenValidationResult.Failure.INVALID_SIGNATURE);
+        assertThat(tokenProvider.validateAndGetAuthentication(createUnsupportedToken()).getFailure())
+            .contains(TokenValidationResult.Failure.UNSUPPORTED);
+        assertThat(tokenProvider.validateAndGetAuthentication("").getFailure()).contains(TokenValidationResult.Failure.INVALID);
+
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+        String expiredToken = tokenProvider.createToken(createAuthentication(), false);
+
+        TokenValidationResult result = tokenProvider.validateAndGetAuthentication(expiredToken);
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(result.getAuthentication()).isEmpty();
+        assertThat(result.getFailure()).contains(TokenValidationResult.Failure.EXPIRED);
+    }
+
+    @Test
+    void testVerifiedTokenAuthenticationIsReused() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.validateToken(token)).isTrue();
+        Authentication authentication = tokenProvider.getAuthentication(token);
+
+        assertThat(tokenProvider.getAuthentication(token)).isSameAs(authentication);
+        assertThat(authentication.getCredentials()).isEqualTo(token);
+    }
+
+    @Test
+    void testVerifiedTokenAuthenticationIsNotReusedWhenCacheIsDisabled() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties
+            .getSecurity()
+            .getAuthentication()
+            .getJwt()
+            .setBase64Secret("fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8");
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().getTokenCache().setEnabled(false);
+        TokenProvider uncachedTokenProvider = new TokenProvider(
+            jHipsterProperties,
+            applicationProperties,
+            new SecurityMetersService(new SimpleMeterRegistry())
+        );
+        String token = uncachedTokenProvider.createToken(createAuthentication(), false);
+
+        Authentication authentication = uncachedTokenProvider.getAuthentication(token);
+
+        assertThat(uncachedTokenProvider.getAuthentication(token)).isNotSameAs(authentication).isEqualTo(authentication);
+    }
+
     @Test
     void testKeyIsSetFromSecretWhenSecretIsNotEmpty() {
         final String secret = "NwskoUmKHZtzGRKJKVjsJF7BtQMMxNWi";
@@ -96,7 +164,7 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), securityMetersService);
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
@@ -110,7 +178,7 @@ class TokenProviderTest {
 
         SecurityMetersService securityMetersService = new SecurityMetersService(new SimpleMeterRegistry());
 
-        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, securityMetersService);
+        TokenProvider tokenProvider = new TokenProvider(jHipsterProperties, new ApplicationProperties(), securityMetersService);
 
         Key key = (Key) ReflectionTestUtils.getField(tokenProvider, "key");
         assertThat(key).isNotNull().isEqualTo(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)));
@@ -0,0 +1,62 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link AuthorityRegistry} class.
+ */
+class AuthorityRegistryTest {
+
+    private AuthorityRepository authorityRepository;
+
+    private AuthorityRegistry authorityRegistry;
+
+    @BeforeEach
+    public void setup() {
+        authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll())
+            .thenReturn(List.of(authority(AuthoritiesConstants.USER), authority(AuthoritiesConstants.ADMIN)));
+        authorityRegistry = new AuthorityRegistry(authorityRepository);
+    }
+
+    @Test
+    void testAuthoritiesAreLoadedOnce() {
+        assertThat(authorityRegistry.find(AuthoritiesConstants.ADMIN))
+            .get()
+            .extracting(Authority::getName)
+            .isEqualTo(AuthoritiesConstants.ADMIN);
+        assertThat(authorityRegistry.find("ROLE_UNKNOWN")).isEmpty();
+        assertThat(authorityRegistry.getNames()).containsExactly(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+
+        verify(authorityRepository).findAll();
+    }
+
+    @Test
+    void testRefreshReloadsTheAuthorities() {
+        authorityRegistry.refresh();
+        when(authorityRepository.findAll()).thenReturn(List.of(authority(AuthoritiesConstants.USER), authority("ROLE_MANAGER")));
+
+        authorityRegistry.refresh();
+
+        assertThat(authorityRegistry.getNames()).containsExactly("ROLE_MANAGER", AuthoritiesConstants.USER);
+        assertThat(authorityRegistry.find(AuthoritiesConstants.ADMIN)).isEmpty();
+        verify(authorityRepository, times(2)).findAll();
+    }
+
+    private static Authority authority(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return authority;
+    }
+}
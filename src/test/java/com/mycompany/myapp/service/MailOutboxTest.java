@@ -0,0 +1,177 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+/**
+ * Test class for the {@link MailOutbox} class.
+ */
+class MailOutboxTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private JavaMailSender javaMailSender;
+
+    private ApplicationProperties applicationProperties;
+
+    private MeterRegistry meterRegistry;
+
+    private MailOutbox mailOutbox;
+
+    @BeforeEach
+    public void setup() {
+        javaMailSender = mock(JavaMailSender.class);
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getMail().setMessagesPerSecond(0);
+        applicationProperties.getMail().setRetryDelayMillis(1);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void teardown() throws InterruptedException {
+        if (mailOutbox != null) {
+            mailOutbox.stop();
+        }
+    }
+
+    @Test
+    void testQueuedMessagesAreSentInOneBatch() {
+        mailOutbox = new MailOutbox(javaMailSender, applicationProperties, meterRegistry);
+        MimeMessage first = message();
+        MimeMessage second = message();
+        MimeMessage third = message();
+
+        // queued before starting, so that the three messages are drained together
+        mailOutbox.offer(first);
+        mailOutbox.offer(second);
+        mailOutbox.offer(third);
+        mailOutbox.start();
+
+        verify(javaMailSender, timeout(TIMEOUT_MILLIS)).send(first, second, third);
+        awaitMessages("sent", 3);
+    }
+
+    @Test
+    void testBatchesAreLimitedToBatchSize() {
+        applicationProperties.getMail().setBatchSize(2);
+        mailOutbox = new MailOutbox(javaMailSender, applicationProperties, meterRegistry);
+        MimeMessage first = message();
+        MimeMessage second = message();
+        MimeMessage third = message();
+
+        mailOutbox.offer(first);
+        mailOutbox.offer(second);
+        mailOutbox.offer(third);
+        mailOutbox.start();
+
+        verify(javaMailSender, timeout(TIMEOUT_MILLIS)).send(first, second);
+        verify(javaMailSender, timeout(TIMEOUT_MILLIS)).send(new MimeMessage[] { third });
+    }
+
+    @Test
+    void testOnlyFailedMessagesAreRetried() {
+        mailOutbox = new MailOutbox(javaMailSender, applicationProperties, meterRegistry);
+        MimeMessage sent = message();
+        MimeMessage failed = message();
+        doThrow(new MailSendException(Collections.singletonMap(failed, new RuntimeException("rejected"))))
+            .doNothing()
+            .when(javaMailSender)
+            .send(sent, failed);
+
+        mailOutbox.offer(sent);
+        mailOutbox.offer(failed);
+        mailOutbox.start();
+
+        verify(javaMailSender, timeout(TIMEOUT_MILLIS)).send(new MimeMessage[] { failed });
+        awaitMessages("sent", 2);
+        assertThat(meterRegistry.get(MailOutbox.SEND_METER_NAME).timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testMessagesAreDroppedAfterMaxAttempts() {
+        applicationProperties.getMail().setMaxAttempts(3);
+        mailOutbox = new MailOutbox(javaMailSender, applicationProperties, meterRegistry);
+        MimeMessage message = message();
+        doThrow(new MailSendException("unavailable")).when(javaMailSender).send(new MimeMessage[] { message });
+
+        mailOutbox.start();
+        mailOutbox.offer(message);
+
+        verify(javaMailSender, timeout(TIMEOUT_MILLIS).times(3)).send(new MimeMessage[] { message });
+        awaitMessages("failed", 1);
+        assertThat(meterRegistry.get(MailOutbox.MESSAGES_METER_NAME).tag("result", "sent").counter().count()).isZero();
+    }
+
+    @Test
+    void testMessagesAreRejectedWhenOutboxIsFull() {
+        applicationProperties.getMail().setQueueCapacity(1);
+        mailOutbox = new MailOutbox(javaMailSender, applicationProperties, meterRegistry);
+
+        assertThat(mailOutbox.offer(message())).isTrue();
+        assertThat(mailOutbox.offer(message())).isFalse();
+
+        assertThat(meterRegistry.get(MailOutbox.MESSAGES_METER_NAME).tag("result", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testSendingIsThrottled() {
+        applicationProperties.getMail().setBatchSize(1);
+        applicationProperties.getMail().setMessagesPerSecond(20);
+        mailOutbox = new MailOutbox(javaMailSender, applicationProperties, meterRegistry);
+        mailOutbox.start();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            mailOutbox.offer(message());
+        }
+        awaitMessages("sent", 5);
+
+        // the first message goes out at once, each of the four others waits 1/20 s
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void testStopSendsRemainingMessages() throws InterruptedException {
+        mailOutbox = new MailOutbox(javaMailSender, applicationProperties, meterRegistry);
+        MimeMessage message = message();
+        mailOutbox.start();
+        mailOutbox.offer(message);
+
+        mailOutbox.stop();
+
+        verify(javaMailSender, times(1)).send(new MimeMessage[] { message });
+        assertThat(mailOutbox.offer(message())).isFalse();
+    }
+
+    private MimeMessage message() {
+        return new MimeMessage((Session) null);
+    }
+
+    private void awaitMessages(String result, double count) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        while (
+            meterRegistry.get(MailOutbox.MESSAGES_METER_NAME).tag("result", result).counter().count() < count &&
+            System.nanoTime() < deadline
+        ) {
+            Thread.onSpinWait();
+        }
+        assertThat(meterRegistry.get(MailOutbox.MESSAGES_METER_NAME).tag("result", result).counter().count()).isEqualTo(count);
+    }
+}
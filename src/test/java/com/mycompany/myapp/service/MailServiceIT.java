@@ -44,6 +44,8 @@ class MailServiceIT {
     };
     private static final Pattern PATTERN_LOCALE_3 = Pattern.compile("([a-z]{2})-([a-zA-Z]{4})-([a-z]{2})");
     private static final Pattern PATTERN_LOCALE_2 = Pattern.compile("([a-z]{2})-([a-z]{2})");
+    // emails are sent by the MailOutbox thread
+    private static final long SEND_TIMEOUT_MILLIS = 5000;
 
     @Autowired
     private JHipsterProperties jHipsterProperties;
@@ -59,14 +61,14 @@ class MailServiceIT {
 
     @BeforeEach
     public void setup() {
-        doNothing().when(javaMailSender).send(any(MimeMessage.class));
+        doNothing().when(javaMailSender).send((MimeMessage[]) any());
         when(javaMailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
     }
 
     @Test
     void testSendEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
-        verify(javaMailSender).send(messageCaptor.capture());
+        verify(javaMailSender, timeout(SEND_TIMEOUT_MILLIS)).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
@@ -79,7 +81,7 @@ class MailServiceIT {
     @Test
     void testSendHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, true);
-        verify(javaMailSender).send(messageCaptor.capture());
+        verify(javaMailSender, timeout(SEND_TIMEOUT_MILLIS)).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
@@ -92,7 +94,7 @@ class MailServiceIT {
     @Test
     void testSendMultipartEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, false);
-        verify(javaMailSender).send(messageCaptor.capture());
+        verify(javaMailSender, timeout(SEND_TIMEOUT_MILLIS)).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         MimeMultipart mp = (MimeMultipart) message.getContent();
         MimeBodyPart part = (MimeBodyPart) ((MimeMultipart) mp.getBodyPart(0).getContent()).getBodyPart(0);
@@ -109,7 +111,7 @@ class MailServiceIT {
     @Test
     void testSendMultipartHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, true);
-        verify(javaMailSender).send(messageCaptor.capture());
+        verify(javaMailSender, timeout(SEND_TIMEOUT_MILLIS)).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         MimeMultipart mp = (MimeMultipart) message.getContent();
         MimeBodyPart part = (MimeBodyPart) ((MimeMultipart) mp.getBodyPart(0).getContent()).getBodyPart(0);
@@ -130,7 +132,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
-        verify(javaMailSender).send(messageCaptor.capture());
+        verify(javaMailSender, timeout(SEND_TIMEOUT_MILLIS)).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getSubject()).isEqualTo("test title");
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
@@ -146,7 +148,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendActivationEmail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
+        verify(javaMailSender, timeout(SEND_TIMEOUT_MILLIS)).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
@@ -161,7 +163,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendCreationEmail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
+        verify(javaMailSender, timeout(SEND_TIMEOUT_MILLIS)).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
@@ -176,7 +178,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendPasswordResetMail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
+        verify(javaMailSender, timeout(SEND_TIMEOUT_MILLIS)).send(new MimeMessage[] { messageCaptor.capture() });
         MimeMessage message = messageCaptor.getValue();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
@@ -186,7 +188,7 @@ class MailServiceIT {
 
     @Test
     void testSendEmailWithException() {
-        doThrow(MailSendException.class).when(javaMailSender).send(any(MimeMessage.class));
+        doThrow(MailSendException.class).when(javaMailSender).send((MimeMessage[]) any());
         try {
             mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
         } catch (Exception e) {
@@ -200,9 +202,11 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         for (String langKey : languages) {
+            // the email of the previous language must not satisfy the verification of this one
+            clearInvocations(javaMailSender);
             user.setLangKey(langKey);
             mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
-            verify(javaMailSender, atLeastOnce()).send(messageCaptor.capture());
+            verify(javaMailSender, timeout(SEND_TIMEOUT_MILLIS)).send(new MimeMessage[] { messageCaptor.capture() });
             MimeMessage message = messageCaptor.getValue();
 
             String propertyFilePath = "i18n/messages_" + getJavaLocale(langKey) + ".properties";
@@ -0,0 +1,153 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.User;
+import java.util.List;
+import java.util.Locale;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.context.MessageSource;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.thymeleaf.cache.TemplateCacheKey;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Test class for the template rendering of {@link MailService}.
+ */
+class MailServiceTest {
+
+    private static final String TEMPLATE = "mail/testEmail";
+
+    private static final String TITLE_KEY = "email.test.title";
+
+    private static final String BASE_URL = "http://127.0.0.1:8080";
+
+    private JavaMailSender javaMailSender;
+
+    private MessageSource messageSource;
+
+    private SpringTemplateEngine templateEngine;
+
+    private MailOutbox mailOutbox;
+
+    private ThymeleafProperties thymeleafProperties;
+
+    @BeforeEach
+    public void setup() {
+        javaMailSender = mock(JavaMailSender.class);
+        when(javaMailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        messageSource = mock(MessageSource.class);
+        when(messageSource.getMessage(eq(TITLE_KEY), isNull(), any(Locale.class))).thenReturn("test title");
+        ResourceBundleMessageSource templateMessageSource = new ResourceBundleMessageSource();
+        templateMessageSource.setBasename("i18n/messages");
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateEngineMessageSource(templateMessageSource);
+        mailOutbox = mock(MailOutbox.class);
+        when(mailOutbox.offer(any(MimeMessage.class))).thenReturn(true);
+        thymeleafProperties = new ThymeleafProperties();
+    }
+
+    @Test
+    void testSubjectIsResolvedOncePerLanguage() throws Exception {
+        MailService mailService = mailService();
+
+        mailService.sendEmailFromTemplate(user("john"), TEMPLATE, TITLE_KEY);
+        mailService.sendEmailFromTemplate(user("jane"), TEMPLATE, TITLE_KEY);
+
+        verify(messageSource, times(1)).getMessage(TITLE_KEY, null, Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE));
+        assertThat(sentMessages()).extracting(MimeMessage::getSubject).containsExactly("test title", "test title");
+    }
+
+    @Test
+    void testSubjectIsResolvedOnEachEmailWithoutCache() {
+        thymeleafProperties.setCache(false);
+        MailService mailService = mailService();
+
+        mailService.sendEmailFromTemplate(user("john"), TEMPLATE, TITLE_KEY);
+        mailService.sendEmailFromTemplate(user("jane"), TEMPLATE, TITLE_KEY);
+
+        verify(messageSource, times(2)).getMessage(TITLE_KEY, null, Locale.forLanguageTag(Constants.DEFAULT_LANGUAGE));
+    }
+
+    @Test
+    void testEachEmailIsRenderedForItsUser() throws Exception {
+        MailService mailService = mailService();
+
+        mailService.sendEmailFromTemplate(user("john"), TEMPLATE, TITLE_KEY);
+        mailService.sendEmailFromTemplate(user("jane"), TEMPLATE, TITLE_KEY);
+
+        List<MimeMessage> messages = sentMessages();
+        assertThat(messages.get(0).getContent().toString())
+            .isEqualToNormalizingNewlines("<html>test title, " + BASE_URL + ", john</html>\n");
+        assertThat(messages.get(1).getContent().toString())
+            .isEqualToNormalizingNewlines("<html>test title, " + BASE_URL + ", jane</html>\n");
+    }
+
+    @Test
+    void testPreloadTemplates() {
+        MailService mailService = mailService();
+
+        mailService.preloadTemplates();
+
+        assertThat(templateEngine.getCacheManager().getTemplateCache().keySet())
+            .extracting(TemplateCacheKey::getTemplate)
+            .containsExactlyInAnyOrder("mail/activationEmail", "mail/creationEmail", "mail/passwordResetEmail");
+        for (String langKey : Constants.LANGUAGES) {
+            verify(messageSource).getMessage("email.activation.title", null, Locale.forLanguageTag(langKey));
+            verify(messageSource).getMessage("email.reset.title", null, Locale.forLanguageTag(langKey));
+        }
+    }
+
+    @Test
+    void testNoPreloadWithoutCache() {
+        thymeleafProperties.setCache(false);
+
+        mailService().preloadTemplates();
+
+        assertThat(templateEngine.getCacheManager().getTemplateCache().keySet()).isEmpty();
+        verify(messageSource, never()).getMessage(anyString(), any(), any(Locale.class));
+    }
+
+    private MailService mailService() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setFrom("test@localhost");
+        jHipsterProperties.getMail().setBaseUrl(BASE_URL);
+        return new MailService(jHipsterProperties, javaMailSender, messageSource, templateEngine, mailOutbox, thymeleafProperties);
+    }
+
+    private User user(String login) {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(login + "@example.com");
+        user.setLangKey(Constants.DEFAULT_LANGUAGE);
+        return user;
+    }
+
+    private List<MimeMessage> sentMessages() {
+        ArgumentCaptor<MimeMessage> messageCaptor = ArgumentCaptor.forClass(MimeMessage.class);
+        verify(mailOutbox, times(2)).offer(messageCaptor.capture());
+        return messageCaptor.getAllValues();
+    }
+}
@@ -0,0 +1,156 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserCaches;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.repository.UserRepository.NotActivatedUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+/**
+ * Test class for the {@link NotActivatedUserPurger} class.
+ */
+class NotActivatedUserPurgerTest {
+
+    private static final int CHUNK_SIZE = 2;
+
+    private static final Instant CREATED_BEFORE = Instant.parse("2022-01-01T00:00:00Z");
+
+    private UserRepository userRepository;
+
+    private CacheManager cacheManager;
+
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+
+    private NotActivatedUserPurger purger;
+
+    @BeforeEach
+    public void setup() {
+        userRepository = mock(UserRepository.class);
+        cacheManager = new ConcurrentMapCacheManager(UserRepository.USERS_BY_LOGIN_CACHE, UserRepository.USERS_BY_EMAIL_CACHE);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getUserPurge().setChunkSize(CHUNK_SIZE);
+        purger =
+            new NotActivatedUserPurger(
+                userRepository,
+                new UserCaches(cacheManager),
+                transactionManager,
+                applicationProperties,
+                meterRegistry
+            );
+    }
+
+    @Test
+    void testUsersAreDeletedByChunkOfIds() {
+        NotActivatedUser first = user(1L);
+        NotActivatedUser second = user(5L);
+        NotActivatedUser third = user(8L);
+        chunk(null, first, second);
+        chunk(second, third);
+        when(userRepository.deleteNotActivatedByIdIn(List.of(1L, 5L))).thenReturn(2);
+        when(userRepository.deleteNotActivatedByIdIn(List.of(8L))).thenReturn(1);
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).put(second.getLogin(), new User());
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).put(second.getEmail(), new User());
+
+        assertThat(purger.purge(CREATED_BEFORE)).isEqualTo(3);
+
+        verify(transactionManager, times(2)).commit(any());
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(second.getLogin())).isNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).get(second.getEmail())).isNull();
+        assertThat(meterRegistry.get(NotActivatedUserPurger.DELETED_METER_NAME).counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get(NotActivatedUserPurger.PURGE_METER_NAME).timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testFullLastChunkEndsWithAnEmptyOne() {
+        NotActivatedUser last = user(2L);
+        chunk(null, user(1L), last);
+        chunk(last);
+        when(userRepository.deleteNotActivatedByIdIn(List.of(1L, 2L))).thenReturn(2);
+
+        assertThat(purger.purge(CREATED_BEFORE)).isEqualTo(2);
+
+        verify(userRepository).deleteNotActivatedByIdIn(any());
+    }
+
+    @Test
+    void testUsersActivatedMeanwhileAreNotCounted() {
+        NotActivatedUser last = user(2L);
+        chunk(null, user(1L), last);
+        chunk(last);
+        when(userRepository.deleteNotActivatedByIdIn(List.of(1L, 2L))).thenReturn(1);
+
+        assertThat(purger.purge(CREATED_BEFORE)).isEqualTo(1);
+        assertThat(meterRegistry.get(NotActivatedUserPurger.DELETED_METER_NAME).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testFailedChunkKeepsTheCommittedOnes() {
+        NotActivatedUser last = user(2L);
+        chunk(null, user(1L), last);
+        chunk(last, user(3L));
+        when(userRepository.deleteNotActivatedByIdIn(List.of(1L, 2L))).thenReturn(2);
+        when(userRepository.deleteNotActivatedByIdIn(List.of(3L))).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThatThrownBy(() -> purger.purge(CREATED_BEFORE)).isInstanceOf(QueryTimeoutException.class);
+
+        verify(transactionManager).commit(any());
+        verify(transactionManager).rollback(any());
+        assertThat(meterRegistry.get(NotActivatedUserPurger.DELETED_METER_NAME).counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void testNothingToPurge() {
+        when(userRepository.findAllNotActivatedCreatedBefore(eq(CREATED_BEFORE), any())).thenReturn(Collections.emptyList());
+
+        assertThat(purger.purge(CREATED_BEFORE)).isZero();
+
+        verify(userRepository, never()).deleteNotActivatedByIdIn(any());
+    }
+
+    private void chunk(NotActivatedUser after, NotActivatedUser... users) {
+        PageRequest chunk = PageRequest.of(0, CHUNK_SIZE);
+        if (after == null) {
+            when(userRepository.findAllNotActivatedCreatedBefore(CREATED_BEFORE, chunk)).thenReturn(List.of(users));
+        } else {
+            when(userRepository.findAllNotActivatedCreatedBefore(CREATED_BEFORE, after.getCreatedDate(), after.getId(), chunk))
+                .thenReturn(List.of(users));
+        }
+    }
+
+    private NotActivatedUser user(long id) {
+        NotActivatedUser user = mock(NotActivatedUser.class);
+        when(user.getId()).thenReturn(id);
+        when(user.getLogin()).thenReturn("user" + id);
+        when(user.getEmail()).thenReturn("user" + id + "@localhost");
+        when(user.getCreatedDate()).thenReturn(CREATED_BEFORE.minusSeconds(100 - id));
+        return user;
+    }
+}
@@ -0,0 +1,56 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link StringBloomFilter} class.
+ */
+class StringBloomFilterTest {
+
+    private static final int INSERTIONS = 10_000;
+
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    @Test
+    void testNoFalseNegatives() {
+        StringBloomFilter filter = new StringBloomFilter(INSERTIONS, FALSE_POSITIVE_PROBABILITY);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put("user" + i + "@localhost");
+        }
+
+        for (int i = 0; i < INSERTIONS; i++) {
+            assertThat(filter.mightContain("user" + i + "@localhost")).isTrue();
+        }
+    }
+
+    @Test
+    void testFalsePositivesStayNearTheExpectedProbability() {
+        StringBloomFilter filter = new StringBloomFilter(INSERTIONS, FALSE_POSITIVE_PROBABILITY);
+        for (int i = 0; i < INSERTIONS; i++) {
+            filter.put("user" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = INSERTIONS; i < 11 * INSERTIONS; i++) {
+            if (filter.mightContain("user" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / (10 * INSERTIONS)).isLessThan(2 * FALSE_POSITIVE_PROBABILITY);
+        assertThat(filter.expectedFalsePositiveProbability()).isCloseTo(FALSE_POSITIVE_PROBABILITY, within(FALSE_POSITIVE_PROBABILITY));
+    }
+
+    @Test
+    void testEmptyFilter() {
+        StringBloomFilter filter = new StringBloomFilter(INSERTIONS, FALSE_POSITIVE_PROBABILITY);
+
+        assertThat(filter.mightContain("user")).isFalse();
+        assertThat(filter.expectedFalsePositiveProbability()).isZero();
+        // about 9.6 bits per value for 1% of false positives
+        assertThat(filter.sizeInBytes()).isBetween(11_000L, 13_000L);
+    }
+}
@@ -0,0 +1,134 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+/**
+ * Test class for the {@link UserAvailabilityFilter} class.
+ */
+class UserAvailabilityFilterTest {
+
+    private UserRepository userRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private UserAvailabilityFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        userRepository = mock(UserRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getUserAvailability().setMinExpectedInsertions(1_000);
+        filter = new UserAvailabilityFilter(userRepository, transactionManager, applicationProperties, meterRegistry);
+    }
+
+    @Test
+    void testDatabaseIsCheckedUntilTheFilterIsBuilt() {
+        when(userRepository.existsByLoginAndActivatedIsTrue("admin")).thenReturn(true);
+
+        assertThat(filter.isLoginAvailable("Admin")).isFalse();
+        assertThat(filter.isLoginAvailable("free")).isTrue();
+
+        assertThat(checks("taken")).isEqualTo(1);
+        assertThat(checks("false_positive")).isEqualTo(1);
+    }
+
+    @Test
+    void testValuesMissingFromTheFilterAreAvailableWithoutTheDatabase() {
+        rebuildWith(new Object[] { "admin", "admin@localhost" });
+
+        assertThat(filter.isLoginAvailable("free")).isTrue();
+        assertThat(filter.isEmailAvailable("free@localhost")).isTrue();
+
+        verify(userRepository, never()).existsByLoginAndActivatedIsTrue(anyString());
+        verify(userRepository, never()).existsByEmailAndActivatedIsTrue(anyString());
+        assertThat(checks("filtered")).isEqualTo(2);
+    }
+
+    @Test
+    void testValuesInTheFilterAreCheckedInTheDatabase() {
+        rebuildWith(new Object[] { "admin", "admin@localhost" }, new Object[] { "user", "user@localhost" });
+        when(userRepository.existsByEmailAndActivatedIsTrue("admin@localhost")).thenReturn(true);
+
+        assertThat(filter.isEmailAvailable("Admin@Localhost")).isFalse();
+        // deactivated since the filter was built
+        assertThat(filter.isLoginAvailable("user")).isTrue();
+
+        assertThat(checks("taken")).isEqualTo(1);
+        assertThat(checks("false_positive")).isEqualTo(1);
+        assertThat(meterRegistry.get(UserAvailabilityFilter.FALSE_POSITIVE_RATE_METER_NAME).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void testAddedUsersAreInTheFilter() {
+        rebuildWith();
+        User user = new User();
+        user.setLogin("new");
+        user.setEmail("new@localhost");
+        user.setActivated(true);
+
+        filter.add(user);
+
+        assertThat(filter.isLoginAvailable("new")).isTrue();
+        verify(userRepository).existsByLoginAndActivatedIsTrue("new");
+    }
+
+    @Test
+    void testNotActivatedUsersAreNotInTheFilter() {
+        rebuildWith();
+        User user = new User();
+        user.setLogin("new");
+        user.setEmail("new@localhost");
+
+        filter.add(user);
+
+        assertThat(filter.isLoginAvailable("new")).isTrue();
+        verify(userRepository, never()).existsByLoginAndActivatedIsTrue(anyString());
+        assertThat(checks("filtered")).isEqualTo(1);
+        assertThat(checks("false_positive")).isZero();
+    }
+
+    @Test
+    void testFilterMetrics() {
+        assertThat(meterRegistry.get(UserAvailabilityFilter.MEMORY_METER_NAME).tag("field", "login").gauge().value()).isNaN();
+
+        rebuildWith(new Object[] { "admin", "admin@localhost" });
+
+        assertThat(meterRegistry.get(UserAvailabilityFilter.MEMORY_METER_NAME).tag("field", "login").gauge().value()).isPositive();
+        assertThat(meterRegistry.get(UserAvailabilityFilter.EXPECTED_FALSE_POSITIVE_METER_NAME).tag("field", "email").gauge().value())
+            .isBetween(0.0, 0.01);
+    }
+
+    private void rebuildWith(Object[]... rows) {
+        when(userRepository.count()).thenReturn((long) rows.length);
+        when(userRepository.streamActivatedLoginsAndEmails()).thenReturn(Stream.of(rows));
+        filter.rebuild();
+    }
+
+    private double checks(String result) {
+        return meterRegistry
+            .get(UserAvailabilityFilter.CHECKS_METER_NAME)
+            .tag(UserAvailabilityFilter.CHECKS_METER_RESULT_DIMENSION, result)
+            .counter()
+            .count();
+    }
+}
@@ -0,0 +1,152 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.repository.UserRepositoryWithKeysetImpl;
+import com.mycompany.myapp.repository.UserRepositoryWithProjectionImpl;
+import com.mycompany.myapp.repository.UserRepositoryWithPurgeImpl;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.dto.AdminUserDTO;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Time and allocations of listing a page of 1000 users for the administration, as entities mapped to DTOs as formerly
+ * done, and as the projections of {@link UserService#getAllManagedUsers}, over an embedded database.
+ * <p>
+ * Each listing runs in a transaction of its own, so from an empty persistence context: the entities are dirty checked
+ * when it commits. The second-level cache is disabled, so the authorities of the entities are loaded by batches.
+ * <p>
+ * Run with {@code ./mvnw test-compile} and then the {@link #main(String[])} method, it is not part of the tests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserListingBenchmark {
+
+    private static final int USERS = 1_000;
+
+    private static final PageRequest PAGE = PageRequest.of(0, USERS, Sort.by("id"));
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private UserRepository userRepository;
+
+    private UserService userService;
+
+    private TransactionTemplate transactionTemplate;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @Setup
+    public void setup() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:users-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan(User.class.getPackageName());
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create", "hibernate.cache.use_second_level_cache", "false"));
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        Object[] fragments = {
+            new UserRepositoryWithKeysetImpl(),
+            new UserRepositoryWithPurgeImpl(),
+            new UserRepositoryWithProjectionImpl(),
+        };
+        for (Object fragment : fragments) {
+            ReflectionTestUtils.setField(fragment, "entityManager", entityManager);
+        }
+        userRepository = new JpaRepositoryFactory(entityManager).getRepository(UserRepository.class, RepositoryFragments.just(fragments));
+        // the listing only uses the repository
+        userService = new UserService(userRepository, null, null, null, entityManager, null, transactionManager, null, null);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Authority user = new Authority();
+            user.setName(AuthoritiesConstants.USER);
+            Authority admin = new Authority();
+            admin.setName(AuthoritiesConstants.ADMIN);
+            entityManager.persist(user);
+            entityManager.persist(admin);
+            for (int i = 0; i < USERS; i++) {
+                entityManager.persist(user(i, Set.of(user, admin)));
+            }
+        });
+    }
+
+    private static User user(int i, Set<Authority> authorities) {
+        User user = new User();
+        user.setLogin("user-" + i);
+        user.setEmail("user-" + i + "@example.com");
+        user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        user.setFirstName("first-" + i);
+        user.setLastName("last-" + i);
+        user.setActivated(true);
+        user.setLangKey("en");
+        user.setCreatedBy("system");
+        user.setAuthorities(new HashSet<>(authorities));
+        return user;
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public Page<AdminUserDTO> entities() {
+        return transactionTemplate.execute(status -> userRepository.findAll(PAGE).map(AdminUserDTO::new));
+    }
+
+    @Benchmark
+    public Page<AdminUserDTO> projections() {
+        return readOnlyTransactionTemplate.execute(status -> userService.getAllManagedUsers(PAGE));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UserListingBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -5,23 +5,44 @@ import static org.mockito.Mockito.when;
 
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.management.SqlStatementCounter;
+import com.mycompany.myapp.repository.AuthorityRepository;
 import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.repository.UserRepository.NotActivatedUser;
+import com.mycompany.myapp.security.AuthoritiesConstants;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import javax.persistence.EntityManager;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import tech.jhipster.security.RandomUtil;
 
@@ -44,15 +65,28 @@ class UserServiceIT {
 
     private static final String DEFAULT_LANGKEY = "dummy";
 
+    private static final PageRequest PURGE_CHUNK = PageRequest.of(0, 100);
+
+    private final Logger log = LoggerFactory.getLogger(UserServiceIT.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
     @Autowired
     private AuditingHandler auditingHandler;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManager em;
+
     @MockBean
     private DateTimeProvider dateTimeProvider;
 
@@ -60,6 +94,8 @@ class UserServiceIT {
 
     @BeforeEach
     public void init() {
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
         user = new User();
         user.setLogin(DEFAULT_LOGIN);
         user.setPassword(RandomStringUtils.randomAlphanumeric(60));
@@ -88,6 +124,21 @@ class UserServiceIT {
         assertThat(maybeUser.orElse(null).getResetKey()).isNotNull();
     }
 
+    @Test
+    @Transactional
+    void assertThatUserCacheIsEvictedWhenPasswordResetIsRequested() {
+        userRepository.saveAndFlush(user);
+        userRepository.findOneWithAuthoritiesByLogin(user.getLogin());
+        userRepository.findOneWithAuthoritiesByEmail(user.getEmail());
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(user.getLogin())).isNotNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).get(user.getEmail())).isNotNull();
+
+        userService.requestPasswordReset(user.getEmail());
+
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(user.getLogin())).isNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).get(user.getEmail())).isNull();
+    }
+
     @Test
     @Transactional
     void assertThatOnlyActivatedUserCanRequestPasswordReset() {
@@ -149,37 +200,272 @@ class UserServiceIT {
     }
 
     @Test
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     void assertThatNotActivatedUsersWithNotNullActivationKeyCreatedBefore3DaysAreDeleted() {
         Instant now = Instant.now();
         when(dateTimeProvider.getNow()).thenReturn(Optional.of(now.minus(4, ChronoUnit.DAYS)));
         user.setActivated(false);
         user.setActivationKey(RandomStringUtils.random(20));
-        User dbUser = userRepository.saveAndFlush(user);
-        dbUser.setCreatedDate(now.minus(4, ChronoUnit.DAYS));
         userRepository.saveAndFlush(user);
-        Instant threeDaysAgo = now.minus(3, ChronoUnit.DAYS);
-        List<User> users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo);
-        assertThat(users).isNotEmpty();
-        userService.removeNotActivatedUsers();
-        users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo);
-        assertThat(users).isEmpty();
+        try {
+            Instant threeDaysAgo = now.minus(3, ChronoUnit.DAYS);
+            List<NotActivatedUser> users = userRepository.findAllNotActivatedCreatedBefore(threeDaysAgo, PURGE_CHUNK);
+            assertThat(users).isNotEmpty();
+            userService.removeNotActivatedUsers();
+            users = userRepository.findAllNotActivatedCreatedBefore(threeDaysAgo, PURGE_CHUNK);
+            assertThat(users).isEmpty();
+        } finally {
+            userRepository.findById(user.getId()).ifPresent(userRepository::delete);
+        }
     }
 
     @Test
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void assertThatNotActivatedUsersAreDeletedWithTheirAuthorities() {
+        Instant now = Instant.now();
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(now.minus(4, ChronoUnit.DAYS)));
+        user.setActivated(false);
+        user.setActivationKey(RandomUtil.generateActivationKey());
+        user.setAuthorities(new HashSet<>(authorityRepository.findAllById(Set.of(AuthoritiesConstants.USER))));
+        userRepository.saveAndFlush(user);
+        try {
+            userService.removeNotActivatedUsers();
+
+            assertThat(userRepository.findById(user.getId())).isEmpty();
+            Number authorities = (Number) em
+                .createNativeQuery("select count(*) from jhi_user_authority where user_id = ?")
+                .setParameter(1, user.getId())
+                .getSingleResult();
+            assertThat(authorities.longValue()).isZero();
+        } finally {
+            userRepository.findById(user.getId()).ifPresent(userRepository::delete);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     void assertThatNotActivatedUsersWithNullActivationKeyCreatedBefore3DaysAreNotDeleted() {
         Instant now = Instant.now();
         when(dateTimeProvider.getNow()).thenReturn(Optional.of(now.minus(4, ChronoUnit.DAYS)));
         user.setActivated(false);
         User dbUser = userRepository.saveAndFlush(user);
-        dbUser.setCreatedDate(now.minus(4, ChronoUnit.DAYS));
+        try {
+            Instant threeDaysAgo = now.minus(3, ChronoUnit.DAYS);
+            List<NotActivatedUser> users = userRepository.findAllNotActivatedCreatedBefore(threeDaysAgo, PURGE_CHUNK);
+            assertThat(users).isEmpty();
+            userService.removeNotActivatedUsers();
+            Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
+            assertThat(maybeDbUser).contains(dbUser);
+        } finally {
+            userRepository.findById(user.getId()).ifPresent(userRepository::delete);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void assertThatNotActivatedUsersCreatedAtTheSameTimeArePurgedInChunks() {
+        Instant createdDate = Instant.now().minus(4, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(createdDate));
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User other = new User();
+            other.setLogin(DEFAULT_LOGIN + i);
+            other.setPassword(RandomStringUtils.randomAlphanumeric(60));
+            other.setActivationKey(RandomUtil.generateActivationKey());
+            ids.add(userRepository.saveAndFlush(other).getId());
+        }
+        try {
+            Instant threeDaysAgo = Instant.now().minus(3, ChronoUnit.DAYS);
+            List<NotActivatedUser> first = userRepository.findAllNotActivatedCreatedBefore(threeDaysAgo, PageRequest.of(0, 2));
+            assertThat(first).extracting(NotActivatedUser::getId).containsExactlyElementsOf(ids.subList(0, 2));
+            // the seek goes on by id among the users created at the same date
+            NotActivatedUser last = first.get(1);
+            List<NotActivatedUser> next = userRepository.findAllNotActivatedCreatedBefore(
+                threeDaysAgo,
+                last.getCreatedDate(),
+                last.getId(),
+                PageRequest.of(0, 10)
+            );
+            assertThat(next).extracting(NotActivatedUser::getId).containsExactlyElementsOf(ids.subList(2, 5));
+
+            userService.removeNotActivatedUsers();
+
+            assertThat(userRepository.findAllById(ids)).isEmpty();
+        } finally {
+            ids.forEach(id -> userRepository.findById(id).ifPresent(userRepository::delete));
+        }
+    }
+
+    @Test
+    @Transactional
+    void assertThatKeysAreStoredHashed() {
+        String activationKey = RandomUtil.generateActivationKey();
+        user.setActivationKey(activationKey);
+        user.setResetKey(RandomUtil.generateResetKey());
         userRepository.saveAndFlush(user);
-        Instant threeDaysAgo = now.minus(3, ChronoUnit.DAYS);
-        List<User> users = userRepository.findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(threeDaysAgo);
-        assertThat(users).isEmpty();
-        userService.removeNotActivatedUsers();
-        Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
-        assertThat(maybeDbUser).contains(dbUser);
+        em.clear();
+
+        Object[] stored = (Object[]) em
+            .createNativeQuery("select activation_key_hash, sha2(?, 256) from jhi_user where id = ?")
+            .setParameter(1, activationKey)
+            .setParameter(2, user.getId())
+            .getSingleResult();
+        // the database computes the same hash, which the changelog relies on to migrate pending keys
+        assertThat(stored[0]).isEqualTo(stored[1]).isEqualTo(User.hashKey(activationKey));
+        User dbUser = userRepository.findOneByActivationKey(activationKey).orElseThrow();
+        assertThat(dbUser.getId()).isEqualTo(user.getId());
+        assertThat(dbUser.getActivationKey()).isNull();
+        assertThat(userRepository.findOneByResetKey(user.getResetKey())).isPresent();
+        assertThat(userRepository.findOneByActivationKey(user.getResetKey())).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void assertThatManagedUsersAreListedWithoutLoadingEntities() {
+        Set<Authority> authorities = new HashSet<>(authorityRepository.findAll());
+        for (int i = 0; i < 1_000; i++) {
+            User other = new User();
+            other.setLogin(DEFAULT_LOGIN + i);
+            other.setPassword(RandomStringUtils.randomAlphanumeric(60));
+            other.setActivated(true);
+            other.setAuthorities(authorities);
+            userRepository.save(other);
+        }
+        userRepository.flush();
+        PageRequest pageRequest = PageRequest.of(0, 1_000, Sort.by("id"));
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        try {
+            // the former entity listing, for comparison
+            ListingCost entities = measure(statistics, () -> userRepository.findAll(pageRequest).map(AdminUserDTO::new));
+            ListingCost projections = measure(statistics, () -> userService.getAllManagedUsers(pageRequest));
+            log.info("Listing 1000 users: entities {}, projections {}", entities, projections);
+
+            assertThat(projections.page.getContent())
+                .usingRecursiveFieldByFieldElementComparatorIgnoringFields("version")
+                .isEqualTo(entities.page.getContent());
+            assertThat(projections.entities).isZero();
+            // page, count and authorities
+            assertThat(projections.queries).isEqualTo(3);
+            assertThat(projections.queries).isLessThan(entities.queries);
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
+    @Test
+    @Transactional
+    void assertThatManagedUsersAreListedWithOnlyTheRequestedFields() {
+        userRepository.saveAndFlush(user);
+
+        Page<AdminUserDTO> page = userService.getAllManagedUsers(PageRequest.of(0, 10, Sort.by("id").descending()), Set.of("login"));
+
+        assertThat(page.getContent().get(0).getId()).isEqualTo(user.getId());
+        assertThat(page.getContent().get(0).getLogin()).isEqualTo(DEFAULT_LOGIN);
+        assertThat(page.getContent().get(0).getEmail()).isNull();
+        assertThat(page.getContent().get(0).getAuthorities()).isNull();
+    }
+
+    private ListingCost measure(Statistics statistics, Supplier<Page<AdminUserDTO>> listing) {
+        em.clear();
+        statistics.clear();
+        Page<AdminUserDTO> page = listing.get();
+        return new ListingCost(page, statistics.getPrepareStatementCount(), statistics.getEntityLoadCount());
+    }
+
+    /**
+     * Queries and loaded entities of a listing, from a cleared persistence context; see {@link UserListingBenchmark}
+     * for their time and allocations.
+     */
+    private static final class ListingCost {
+
+        private final Page<AdminUserDTO> page;
+
+        private final long queries;
+
+        private final long entities;
+
+        ListingCost(Page<AdminUserDTO> page, long queries, long entities) {
+            this.page = page;
+            this.queries = queries;
+            this.entities = entities;
+        }
+
+        @Override
+        public String toString() {
+            return queries + " queries, " + entities + " entities";
+        }
+    }
+
+    @Test
+    @Transactional
+    void assertThatEmailLookupsUseAnIndex() {
+        for (int i = 0; i < 100; i++) {
+            User other = new User();
+            other.setLogin(DEFAULT_LOGIN + i);
+            other.setEmail(DEFAULT_LOGIN + i + "@Example.COM");
+            other.setPassword(RandomStringUtils.randomAlphanumeric(60));
+            userRepository.save(other);
+        }
+        userRepository.flush();
+
+        Set<String> statements;
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            assertThat(userRepository.findOneByEmailIgnoreCase(DEFAULT_LOGIN.toUpperCase() + "42@EXAMPLE.com"))
+                .get()
+                .extracting(User::getEmail)
+                .isEqualTo(DEFAULT_LOGIN + "42@example.com");
+            statements = scope.getRepeatedStatements(0).keySet();
+        }
+        // the SQL generated by Hibernate for the lookup, with the email as its only parameter
+        assertThat(statements).hasSize(1);
+        Object[] plan = (Object[]) em
+            .createNativeQuery("explain " + statements.iterator().next())
+            .setParameter(1, DEFAULT_LOGIN + "42@example.com")
+            .getSingleResult();
+        // columns: id, select_type, table, type, possible_keys, key, ...
+        assertThat(plan[5]).isEqualTo("ux_user_email");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void assertThatConcurrentRegistrationsOfOverlappingLoginsKeepOneUserPerLogin() throws Exception {
+        user.setLogin("race-taken");
+        userRepository.saveAndFlush(user);
+        int threads = 16;
+        int logins = 4;
+        List<Callable<Object>> registrations = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            AdminUserDTO registration = new AdminUserDTO();
+            registration.setLogin(i == 0 ? "race-taken" : "race-" + i % logins);
+            registration.setEmail("race-" + i + "@localhost");
+            registration.setLangKey(DEFAULT_LANGKEY);
+            registrations.add(() -> {
+                try {
+                    return userService.registerUser(registration, "password");
+                } catch (UsernameAlreadyUsedException e) {
+                    return e;
+                }
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Object> results = new ArrayList<>();
+            for (Future<Object> registration : executor.invokeAll(registrations)) {
+                // any other exception fails the test
+                results.add(registration.get());
+            }
+
+            assertThat(results.get(0)).isInstanceOf(UsernameAlreadyUsedException.class);
+            assertThat(userRepository.findOneByLogin("race-taken")).hasValueSatisfying(taken -> assertThat(taken.isActivated()).isTrue());
+            for (int i = 0; i < logins; i++) {
+                // later registrations replace the not activated ones
+                assertThat(userRepository.findOneByLogin("race-" + i)).isPresent();
+            }
+        } finally {
+            executor.shutdownNow();
+            userRepository.findAll().stream().filter(u -> u.getLogin().startsWith("race-")).forEach(userRepository::delete);
+        }
     }
 }
@@ -1,8 +1,13 @@
 package com.mycompany.myapp.service.mapper;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.service.AuthorityRegistry;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
 import com.mycompany.myapp.service.dto.UserDTO;
 import java.util.ArrayList;
@@ -21,13 +26,18 @@ class UserMapperTest {
     private static final String DEFAULT_LOGIN = "johndoe";
     private static final Long DEFAULT_ID = 1L;
 
+    private Authority adminAuthority;
     private UserMapper userMapper;
     private User user;
     private AdminUserDTO userDto;
 
     @BeforeEach
     public void init() {
-        userMapper = new UserMapper();
+        adminAuthority = new Authority();
+        adminAuthority.setName("ADMIN");
+        AuthorityRepository authorityRepository = mock(AuthorityRepository.class);
+        when(authorityRepository.findAll()).thenReturn(List.of(adminAuthority));
+        userMapper = new UserMapper(new AuthorityRegistry(authorityRepository));
         user = new User();
         user.setLogin(DEFAULT_LOGIN);
         user.setPassword(RandomStringUtils.randomAlphanumeric(60));
@@ -108,6 +118,16 @@ class UserMapperTest {
         assertThat(user.getAuthorities().iterator().next().getName()).isEqualTo("ADMIN");
     }
 
+    @Test
+    void userDTOToUserMapWithAuthoritiesStringShouldUseTheRegisteredAuthorities() {
+        userDto.setAuthorities(Set.of("ADMIN", "UNKNOWN"));
+
+        User user = userMapper.userDTOToUser(userDto);
+
+        assertThat(user.getAuthorities()).hasSize(2).containsOnlyOnce(adminAuthority);
+        assertThat(user.getAuthorities()).anySatisfy(authority -> assertThat(authority).isSameAs(adminAuthority));
+    }
+
     @Test
     void userDTOToUserMapWithNullAuthoritiesStringShouldReturnUserWithEmptyAuthorities() {
         userDto.setAuthorities(null);
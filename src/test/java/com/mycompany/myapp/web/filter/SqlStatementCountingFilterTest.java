@@ -0,0 +1,143 @@
+package com.mycompany.myapp.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.management.SqlStatementCounter;
+import com.mycompany.myapp.management.StatementCountingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Unit tests for the {@link SqlStatementCountingFilter} class.
+ */
+class SqlStatementCountingFilterTest {
+
+    private MeterRegistry meterRegistry;
+
+    private DataSource dataSource;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    public void setup() throws SQLException {
+        meterRegistry = new SimpleMeterRegistry();
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+        dataSource = new StatementCountingDataSource(target);
+        request = new MockHttpServletRequest("GET", "/api/admin/users");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void testStatementsAreRecordedByEndpoint() throws Exception {
+        new SqlStatementCountingFilter(meterRegistry, 10, false).doFilter(request, response, handler(3));
+
+        assertThat(
+            meterRegistry
+                .get(SqlStatementCountingFilter.STATEMENTS_METER_NAME)
+                .tag(SqlStatementCountingFilter.METHOD_DIMENSION, "GET")
+                .tag(SqlStatementCountingFilter.URI_DIMENSION, "/api/admin/users")
+                .summary()
+                .totalAmount()
+        )
+            .isEqualTo(3);
+        assertThat(meterRegistry.get(SqlStatementCountingFilter.TIME_METER_NAME).timer().count()).isEqualTo(1);
+        assertThat(((SqlStatementCounter.Scope) request.getAttribute(SqlStatementCountingFilter.SCOPE_ATTRIBUTE)).getStatements())
+            .isEqualTo(3);
+        assertThat(meterRegistry.find(SqlStatementCountingFilter.REPEATED_METER_NAME).counter()).isNull();
+        assertThat(response.getHeader(SqlStatementCountingFilter.SERVER_TIMING_HEADER)).isNull();
+    }
+
+    @Test
+    void testRepeatedStatementsAreCounted() throws Exception {
+        new SqlStatementCountingFilter(meterRegistry, 2, false).doFilter(request, response, handler(3));
+
+        assertThat(
+            meterRegistry
+                .get(SqlStatementCountingFilter.REPEATED_METER_NAME)
+                .tag(SqlStatementCountingFilter.URI_DIMENSION, "/api/admin/users")
+                .counter()
+                .count()
+        )
+            .isEqualTo(1);
+    }
+
+    @Test
+    void testServerTimingIsAddedBeforeTheBody() throws Exception {
+        new SqlStatementCountingFilter(meterRegistry, 10, true).doFilter(request, response, handler(2));
+
+        assertThat(response.getHeader(SqlStatementCountingFilter.SERVER_TIMING_HEADER)).startsWith("db;desc=\"2 statements, 0 rows\";dur=");
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+    }
+
+    @Test
+    void testStreamedResponsesAreNotBuffered() throws Exception {
+        new SqlStatementCountingFilter(meterRegistry, 10, true)
+            .doFilter(
+                request,
+                response,
+                (servletRequest, servletResponse) -> {
+                    servletResponse.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+                    servletResponse.getOutputStream().write("{}\n".getBytes(StandardCharsets.UTF_8));
+                    // written through to the client, before the handler returns
+                    assertThat(response.getContentAsString()).isEqualTo("{}\n");
+                }
+            );
+
+        assertThat(response.getHeader(SqlStatementCountingFilter.SERVER_TIMING_HEADER)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo("{}\n");
+    }
+
+    @Test
+    void testAttachmentsAreNotBuffered() throws Exception {
+        new SqlStatementCountingFilter(meterRegistry, 10, true)
+            .doFilter(
+                request,
+                response,
+                (servletRequest, servletResponse) -> {
+                    HttpServletResponse httpResponse = (HttpServletResponse) servletResponse;
+                    httpResponse.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"");
+                    servletResponse.getWriter().write("id,login");
+                    assertThat(response.getContentAsString()).isEqualTo("id,login");
+                }
+            );
+
+        assertThat(response.getHeader(SqlStatementCountingFilter.SERVER_TIMING_HEADER)).isNull();
+    }
+
+    private FilterChain handler(int statements) {
+        return (servletRequest, servletResponse) -> {
+            servletRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/admin/users");
+            try {
+                for (int i = 0; i < statements; i++) {
+                    dataSource.getConnection().prepareStatement("select * from jhi_user where id=?").executeQuery();
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            servletResponse.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+            servletResponse.flushBuffer();
+        };
+    }
+}
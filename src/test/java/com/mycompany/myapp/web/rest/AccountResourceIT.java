@@ -1,6 +1,7 @@
 package com.mycompany.myapp.web.rest;
 
 import static com.mycompany.myapp.web.rest.AccountResourceIT.TEST_USER_LOGIN;
+import static com.mycompany.myapp.web.rest.SqlStatementResultMatchers.sqlStatementsAtMost;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -23,6 +24,7 @@ import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -106,6 +108,49 @@ class AccountResourceIT {
             .andExpect(jsonPath("$.authorities").value(AuthoritiesConstants.ADMIN));
     }
 
+    @Test
+    @Transactional
+    void testGetExistingAccountWithEntityTag() throws Exception {
+        User user = new User();
+        user.setLogin(TEST_USER_LOGIN);
+        user.setEmail("john.doe@jhipster.com");
+        user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        user.setActivated(true);
+        userRepository.saveAndFlush(user);
+        String entityTag = "\"" + user.getId() + "-" + user.getVersion() + "\"";
+
+        restAccountMockMvc
+            .perform(get("/api/account").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, entityTag));
+
+        restAccountMockMvc
+            .perform(get("/api/account").header(HttpHeaders.IF_NONE_MATCH, entityTag).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""))
+            // checked against the user cached by the first request
+            .andExpect(sqlStatementsAtMost(0));
+    }
+
+    @Test
+    @Transactional
+    void testGetExistingAccountWithSparseFieldset() throws Exception {
+        AdminUserDTO user = new AdminUserDTO();
+        user.setLogin(TEST_USER_LOGIN);
+        user.setFirstName("john");
+        user.setEmail("john.doe@jhipster.com");
+        user.setAuthorities(Set.of(AuthoritiesConstants.USER));
+        userService.createUser(user);
+
+        restAccountMockMvc
+            .perform(get("/api/account?fields=login,authorities").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.login").value(TEST_USER_LOGIN))
+            .andExpect(jsonPath("$.authorities").value(AuthoritiesConstants.USER))
+            .andExpect(jsonPath("$.firstName").doesNotExist())
+            .andExpect(jsonPath("$.email").doesNotExist());
+    }
+
     @Test
     void testGetUnknownAccount() throws Exception {
         restAccountMockMvc
@@ -114,24 +159,59 @@ class AccountResourceIT {
     }
 
     @Test
-    @Transactional
     void testRegisterValid() throws Exception {
-        ManagedUserVM validUser = new ManagedUserVM();
-        validUser.setLogin("test-register-valid");
-        validUser.setPassword("password");
-        validUser.setFirstName("Alice");
-        validUser.setLastName("Test");
-        validUser.setEmail("test-register-valid@example.com");
-        validUser.setImageUrl("http://placehold.it/50x50");
-        validUser.setLangKey(Constants.DEFAULT_LANGUAGE);
-        validUser.setAuthorities(Collections.singleton(AuthoritiesConstants.USER));
-        assertThat(userRepository.findOneByLogin("test-register-valid")).isEmpty();
+        // registrations commit on their own, see UserService#registerUser
+        try {
+            ManagedUserVM validUser = new ManagedUserVM();
+            validUser.setLogin("test-register-valid");
+            validUser.setPassword("password");
+            validUser.setFirstName("Alice");
+            validUser.setLastName("Test");
+            validUser.setEmail("test-register-valid@example.com");
+            validUser.setImageUrl("http://placehold.it/50x50");
+            validUser.setLangKey(Constants.DEFAULT_LANGUAGE);
+            validUser.setAuthorities(Collections.singleton(AuthoritiesConstants.USER));
+            assertThat(userRepository.findOneByLogin("test-register-valid")).isEmpty();
+
+            restAccountMockMvc
+                .perform(
+                    post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(validUser))
+                )
+                .andExpect(status().isCreated());
+
+            assertThat(userRepository.findOneByLogin("test-register-valid")).isPresent();
+        } finally {
+            deleteUsers("test-register-valid");
+        }
+    }
+
+    @Test
+    @Transactional
+    void testRegisterAvailability() throws Exception {
+        User user = new User();
+        user.setLogin("availability-taken");
+        user.setEmail("availability-taken@example.com");
+        user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        user.setActivated(true);
+        userRepository.saveAndFlush(user);
 
         restAccountMockMvc
-            .perform(post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(validUser)))
-            .andExpect(status().isCreated());
+            .perform(get("/api/register/availability").param("login", "Availability-Taken").param("email", "free@example.com"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.login").value(false))
+            .andExpect(jsonPath("$.email").value(true));
 
-        assertThat(userRepository.findOneByLogin("test-register-valid")).isPresent();
+        restAccountMockMvc
+            .perform(get("/api/register/availability").param("email", "Availability-Taken@example.com"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.login").doesNotExist())
+            .andExpect(jsonPath("$.email").value(false));
+    }
+
+    @Test
+    @WithUnauthenticatedMockUser
+    void testRegisterAvailabilityWithoutValue() throws Exception {
+        restAccountMockMvc.perform(get("/api/register/availability")).andExpect(status().isBadRequest());
     }
 
     @Test
@@ -223,156 +303,182 @@ class AccountResourceIT {
     }
 
     @Test
-    @Transactional
     void testRegisterDuplicateLogin() throws Exception {
-        // First registration
-        ManagedUserVM firstUser = new ManagedUserVM();
-        firstUser.setLogin("alice");
-        firstUser.setPassword("password");
-        firstUser.setFirstName("Alice");
-        firstUser.setLastName("Something");
-        firstUser.setEmail("alice@example.com");
-        firstUser.setImageUrl("http://placehold.it/50x50");
-        firstUser.setLangKey(Constants.DEFAULT_LANGUAGE);
-        firstUser.setAuthorities(Collections.singleton(AuthoritiesConstants.USER));
-
-        // Duplicate login, different email
-        ManagedUserVM secondUser = new ManagedUserVM();
-        secondUser.setLogin(firstUser.getLogin());
-        secondUser.setPassword(firstUser.getPassword());
-        secondUser.setFirstName(firstUser.getFirstName());
-        secondUser.setLastName(firstUser.getLastName());
-        secondUser.setEmail("alice2@example.com");
-        secondUser.setImageUrl(firstUser.getImageUrl());
-        secondUser.setLangKey(firstUser.getLangKey());
-        secondUser.setCreatedBy(firstUser.getCreatedBy());
-        secondUser.setCreatedDate(firstUser.getCreatedDate());
-        secondUser.setLastModifiedBy(firstUser.getLastModifiedBy());
-        secondUser.setLastModifiedDate(firstUser.getLastModifiedDate());
-        secondUser.setAuthorities(new HashSet<>(firstUser.getAuthorities()));
-
-        // First user
-        restAccountMockMvc
-            .perform(post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(firstUser)))
-            .andExpect(status().isCreated());
-
-        // Second (non activated) user
-        restAccountMockMvc
-            .perform(post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(secondUser)))
-            .andExpect(status().isCreated());
-
-        Optional<User> testUser = userRepository.findOneByEmailIgnoreCase("alice2@example.com");
-        assertThat(testUser).isPresent();
-        testUser.get().setActivated(true);
-        userRepository.save(testUser.get());
-
-        // Second (already activated) user
-        restAccountMockMvc
-            .perform(post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(secondUser)))
-            .andExpect(status().is4xxClientError());
+        // registrations commit on their own, see UserService#registerUser
+        try {
+            // First registration
+            ManagedUserVM firstUser = new ManagedUserVM();
+            firstUser.setLogin("alice");
+            firstUser.setPassword("password");
+            firstUser.setFirstName("Alice");
+            firstUser.setLastName("Something");
+            firstUser.setEmail("alice@example.com");
+            firstUser.setImageUrl("http://placehold.it/50x50");
+            firstUser.setLangKey(Constants.DEFAULT_LANGUAGE);
+            firstUser.setAuthorities(Collections.singleton(AuthoritiesConstants.USER));
+
+            // Duplicate login, different email
+            ManagedUserVM secondUser = new ManagedUserVM();
+            secondUser.setLogin(firstUser.getLogin());
+            secondUser.setPassword(firstUser.getPassword());
+            secondUser.setFirstName(firstUser.getFirstName());
+            secondUser.setLastName(firstUser.getLastName());
+            secondUser.setEmail("alice2@example.com");
+            secondUser.setImageUrl(firstUser.getImageUrl());
+            secondUser.setLangKey(firstUser.getLangKey());
+            secondUser.setCreatedBy(firstUser.getCreatedBy());
+            secondUser.setCreatedDate(firstUser.getCreatedDate());
+            secondUser.setLastModifiedBy(firstUser.getLastModifiedBy());
+            secondUser.setLastModifiedDate(firstUser.getLastModifiedDate());
+            secondUser.setAuthorities(new HashSet<>(firstUser.getAuthorities()));
+
+            // First user
+            restAccountMockMvc
+                .perform(
+                    post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(firstUser))
+                )
+                .andExpect(status().isCreated());
+
+            // Second (non activated) user
+            restAccountMockMvc
+                .perform(
+                    post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(secondUser))
+                )
+                .andExpect(status().isCreated());
+
+            Optional<User> testUser = userRepository.findOneByEmailIgnoreCase("alice2@example.com");
+            assertThat(testUser).isPresent();
+            testUser.get().setActivated(true);
+            userRepository.save(testUser.get());
+
+            // Second (already activated) user
+            restAccountMockMvc
+                .perform(
+                    post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(secondUser))
+                )
+                .andExpect(status().is4xxClientError());
+        } finally {
+            deleteUsers("alice");
+        }
     }
 
     @Test
-    @Transactional
     void testRegisterDuplicateEmail() throws Exception {
-        // First user
-        ManagedUserVM firstUser = new ManagedUserVM();
-        firstUser.setLogin("test-register-duplicate-email");
-        firstUser.setPassword("password");
-        firstUser.setFirstName("Alice");
-        firstUser.setLastName("Test");
-        firstUser.setEmail("test-register-duplicate-email@example.com");
-        firstUser.setImageUrl("http://placehold.it/50x50");
-        firstUser.setLangKey(Constants.DEFAULT_LANGUAGE);
-        firstUser.setAuthorities(Collections.singleton(AuthoritiesConstants.USER));
-
-        // Register first user
-        restAccountMockMvc
-            .perform(post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(firstUser)))
-            .andExpect(status().isCreated());
-
-        Optional<User> testUser1 = userRepository.findOneByLogin("test-register-duplicate-email");
-        assertThat(testUser1).isPresent();
-
-        // Duplicate email, different login
-        ManagedUserVM secondUser = new ManagedUserVM();
-        secondUser.setLogin("test-register-duplicate-email-2");
-        secondUser.setPassword(firstUser.getPassword());
-        secondUser.setFirstName(firstUser.getFirstName());
-        secondUser.setLastName(firstUser.getLastName());
-        secondUser.setEmail(firstUser.getEmail());
-        secondUser.setImageUrl(firstUser.getImageUrl());
-        secondUser.setLangKey(firstUser.getLangKey());
-        secondUser.setAuthorities(new HashSet<>(firstUser.getAuthorities()));
-
-        // Register second (non activated) user
-        restAccountMockMvc
-            .perform(post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(secondUser)))
-            .andExpect(status().isCreated());
-
-        Optional<User> testUser2 = userRepository.findOneByLogin("test-register-duplicate-email");
-        assertThat(testUser2).isEmpty();
-
-        Optional<User> testUser3 = userRepository.findOneByLogin("test-register-duplicate-email-2");
-        assertThat(testUser3).isPresent();
-
-        // Duplicate email - with uppercase email address
-        ManagedUserVM userWithUpperCaseEmail = new ManagedUserVM();
-        userWithUpperCaseEmail.setId(firstUser.getId());
-        userWithUpperCaseEmail.setLogin("test-register-duplicate-email-3");
-        userWithUpperCaseEmail.setPassword(firstUser.getPassword());
-        userWithUpperCaseEmail.setFirstName(firstUser.getFirstName());
-        userWithUpperCaseEmail.setLastName(firstUser.getLastName());
-        userWithUpperCaseEmail.setEmail("TEST-register-duplicate-email@example.com");
-        userWithUpperCaseEmail.setImageUrl(firstUser.getImageUrl());
-        userWithUpperCaseEmail.setLangKey(firstUser.getLangKey());
-        userWithUpperCaseEmail.setAuthorities(new HashSet<>(firstUser.getAuthorities()));
-
-        // Register third (not activated) user
-        restAccountMockMvc
-            .perform(
-                post("/api/register")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .content(TestUtil.convertObjectToJsonBytes(userWithUpperCaseEmail))
-            )
-            .andExpect(status().isCreated());
-
-        Optional<User> testUser4 = userRepository.findOneByLogin("test-register-duplicate-email-3");
-        assertThat(testUser4).isPresent();
-        assertThat(testUser4.get().getEmail()).isEqualTo("test-register-duplicate-email@example.com");
-
-        testUser4.get().setActivated(true);
-        userService.updateUser((new AdminUserDTO(testUser4.get())));
-
-        // Register 4th (already activated) user
-        restAccountMockMvc
-            .perform(post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(secondUser)))
-            .andExpect(status().is4xxClientError());
+        // registrations commit on their own, see UserService#registerUser
+        try {
+            // First user
+            ManagedUserVM firstUser = new ManagedUserVM();
+            firstUser.setLogin("test-register-duplicate-email");
+            firstUser.setPassword("password");
+            firstUser.setFirstName("Alice");
+            firstUser.setLastName("Test");
+            firstUser.setEmail("test-register-duplicate-email@example.com");
+            firstUser.setImageUrl("http://placehold.it/50x50");
+            firstUser.setLangKey(Constants.DEFAULT_LANGUAGE);
+            firstUser.setAuthorities(Collections.singleton(AuthoritiesConstants.USER));
+
+            // Register first user
+            restAccountMockMvc
+                .perform(
+                    post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(firstUser))
+                )
+                .andExpect(status().isCreated());
+
+            Optional<User> testUser1 = userRepository.findOneByLogin("test-register-duplicate-email");
+            assertThat(testUser1).isPresent();
+
+            // Duplicate email, different login
+            ManagedUserVM secondUser = new ManagedUserVM();
+            secondUser.setLogin("test-register-duplicate-email-2");
+            secondUser.setPassword(firstUser.getPassword());
+            secondUser.setFirstName(firstUser.getFirstName());
+            secondUser.setLastName(firstUser.getLastName());
+            secondUser.setEmail(firstUser.getEmail());
+            secondUser.setImageUrl(firstUser.getImageUrl());
+            secondUser.setLangKey(firstUser.getLangKey());
+            secondUser.setAuthorities(new HashSet<>(firstUser.getAuthorities()));
+
+            // Register second (non activated) user
+            restAccountMockMvc
+                .perform(
+                    post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(secondUser))
+                )
+                .andExpect(status().isCreated());
+
+            Optional<User> testUser2 = userRepository.findOneByLogin("test-register-duplicate-email");
+            assertThat(testUser2).isEmpty();
+
+            Optional<User> testUser3 = userRepository.findOneByLogin("test-register-duplicate-email-2");
+            assertThat(testUser3).isPresent();
+
+            // Duplicate email - with uppercase email address
+            ManagedUserVM userWithUpperCaseEmail = new ManagedUserVM();
+            userWithUpperCaseEmail.setId(firstUser.getId());
+            userWithUpperCaseEmail.setLogin("test-register-duplicate-email-3");
+            userWithUpperCaseEmail.setPassword(firstUser.getPassword());
+            userWithUpperCaseEmail.setFirstName(firstUser.getFirstName());
+            userWithUpperCaseEmail.setLastName(firstUser.getLastName());
+            userWithUpperCaseEmail.setEmail("TEST-register-duplicate-email@example.com");
+            userWithUpperCaseEmail.setImageUrl(firstUser.getImageUrl());
+            userWithUpperCaseEmail.setLangKey(firstUser.getLangKey());
+            userWithUpperCaseEmail.setAuthorities(new HashSet<>(firstUser.getAuthorities()));
+
+            // Register third (not activated) user
+            restAccountMockMvc
+                .perform(
+                    post("/api/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(userWithUpperCaseEmail))
+                )
+                .andExpect(status().isCreated());
+
+            Optional<User> testUser4 = userRepository.findOneByLogin("test-register-duplicate-email-3");
+            assertThat(testUser4).isPresent();
+            assertThat(testUser4.get().getEmail()).isEqualTo("test-register-duplicate-email@example.com");
+
+            testUser4.get().setActivated(true);
+            userService.updateUser((new AdminUserDTO(testUser4.get())));
+
+            // Register 4th (already activated) user
+            restAccountMockMvc
+                .perform(
+                    post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(secondUser))
+                )
+                .andExpect(status().is4xxClientError());
+        } finally {
+            deleteUsers("test-register-duplicate-email", "test-register-duplicate-email-2", "test-register-duplicate-email-3");
+        }
     }
 
     @Test
-    @Transactional
     void testRegisterAdminIsIgnored() throws Exception {
-        ManagedUserVM validUser = new ManagedUserVM();
-        validUser.setLogin("badguy");
-        validUser.setPassword("password");
-        validUser.setFirstName("Bad");
-        validUser.setLastName("Guy");
-        validUser.setEmail("badguy@example.com");
-        validUser.setActivated(true);
-        validUser.setImageUrl("http://placehold.it/50x50");
-        validUser.setLangKey(Constants.DEFAULT_LANGUAGE);
-        validUser.setAuthorities(Collections.singleton(AuthoritiesConstants.ADMIN));
-
-        restAccountMockMvc
-            .perform(post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(validUser)))
-            .andExpect(status().isCreated());
-
-        Optional<User> userDup = userRepository.findOneWithAuthoritiesByLogin("badguy");
-        assertThat(userDup).isPresent();
-        assertThat(userDup.get().getAuthorities())
-            .hasSize(1)
-            .containsExactly(authorityRepository.findById(AuthoritiesConstants.USER).get());
+        // registrations commit on their own, see UserService#registerUser
+        try {
+            ManagedUserVM validUser = new ManagedUserVM();
+            validUser.setLogin("badguy");
+            validUser.setPassword("password");
+            validUser.setFirstName("Bad");
+            validUser.setLastName("Guy");
+            validUser.setEmail("badguy@example.com");
+            validUser.setActivated(true);
+            validUser.setImageUrl("http://placehold.it/50x50");
+            validUser.setLangKey(Constants.DEFAULT_LANGUAGE);
+            validUser.setAuthorities(Collections.singleton(AuthoritiesConstants.ADMIN));
+
+            restAccountMockMvc
+                .perform(
+                    post("/api/register").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(validUser))
+                )
+                .andExpect(status().isCreated());
+
+            Optional<User> userDup = userRepository.findOneWithAuthoritiesByLogin("badguy");
+            assertThat(userDup).isPresent();
+            assertThat(userDup.get().getAuthorities())
+                .hasSize(1)
+                .containsExactly(authorityRepository.findById(AuthoritiesConstants.USER).get());
+        } finally {
+            deleteUsers("badguy");
+        }
     }
 
     @Test
@@ -759,4 +865,10 @@ class AccountResourceIT {
             )
             .andExpect(status().isInternalServerError());
     }
+
+    private void deleteUsers(String... logins) {
+        for (String login : logins) {
+            userService.deleteUser(login);
+        }
+    }
 }
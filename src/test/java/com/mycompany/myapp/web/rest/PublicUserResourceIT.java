@@ -1,5 +1,6 @@
 package com.mycompany.myapp.web.rest;
 
+import static com.mycompany.myapp.web.rest.SqlStatementResultMatchers.sqlStatementsAtMost;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -59,7 +60,9 @@ class PublicUserResourceIT {
             .andExpect(jsonPath("$.[*].login").value(hasItem(DEFAULT_LOGIN)))
             .andExpect(jsonPath("$.[*].email").doesNotExist())
             .andExpect(jsonPath("$.[*].imageUrl").doesNotExist())
-            .andExpect(jsonPath("$.[*].langKey").doesNotExist());
+            .andExpect(jsonPath("$.[*].langKey").doesNotExist())
+            // The count and the page of logins
+            .andExpect(sqlStatementsAtMost(2));
     }
 
     @Test
@@ -70,7 +73,9 @@ class PublicUserResourceIT {
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$").isArray())
-            .andExpect(jsonPath("$").value(hasItems(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)));
+            .andExpect(jsonPath("$").value(hasItems(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)))
+            // Served by the AuthorityRegistry
+            .andExpect(sqlStatementsAtMost(0));
     }
 
     @Test
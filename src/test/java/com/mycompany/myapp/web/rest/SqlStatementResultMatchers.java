@@ -0,0 +1,52 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.management.SqlStatementCounter;
+import com.mycompany.myapp.web.filter.SqlStatementCountingFilter;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * Result matchers failing a request which exceeds its SQL statement budget, as counted by the
+ * {@link SqlStatementCountingFilter} of the application context.
+ * <p>
+ * Entities already in the persistence context of a {@code @Transactional} test are not read again, so the budgets are
+ * lower bounds of what the same request costs in production.
+ */
+public final class SqlStatementResultMatchers {
+
+    private SqlStatementResultMatchers() {}
+
+    /**
+     * Assert that the request executed at most a number of statements.
+     *
+     * @param budget the maximum number of statements.
+     * @return the matcher.
+     */
+    public static ResultMatcher sqlStatementsAtMost(int budget) {
+        return result ->
+            assertThat(scope(result).getStatements())
+                .as("SQL statements of %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                .isLessThanOrEqualTo(budget);
+    }
+
+    /**
+     * Assert that the request did not execute any statement more than a number of times, as in a N+1 pattern.
+     *
+     * @param times the maximum number of executions of each statement.
+     * @return the matcher.
+     */
+    public static ResultMatcher sqlStatementsRepeatedAtMost(int times) {
+        return result ->
+            assertThat(scope(result).getRepeatedStatements(times))
+                .as("SQL statements repeated by %s %s", result.getRequest().getMethod(), result.getRequest().getRequestURI())
+                .isEmpty();
+    }
+
+    private static SqlStatementCounter.Scope scope(MvcResult result) {
+        Object scope = result.getRequest().getAttribute(SqlStatementCountingFilter.SCOPE_ATTRIBUTE);
+        assertThat(scope).as("SQL statements of the request, counted by the SqlStatementCountingFilter").isNotNull();
+        return (SqlStatementCounter.Scope) scope;
+    }
+}
@@ -0,0 +1,146 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.dto.AdminUserDTO;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link UserExportWriter}.
+ */
+class UserExportWriterTest {
+
+    private static final Instant CREATED_DATE = Instant.parse("2026-10-18T10:15:30Z");
+
+    private ObjectMapper objectMapper;
+
+    private StringWriter output;
+
+    @BeforeEach
+    public void setup() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        output = new StringWriter();
+    }
+
+    @Test
+    void testFormatOf() {
+        assertThat(UserExportWriter.Format.of("ndjson")).contains(UserExportWriter.Format.NDJSON);
+        assertThat(UserExportWriter.Format.of("csv")).contains(UserExportWriter.Format.CSV);
+        assertThat(UserExportWriter.Format.of("CSV")).isEmpty();
+        assertThat(UserExportWriter.Format.of("xml")).isEmpty();
+    }
+
+    @Test
+    void testNdjsonWritesOneUserPerLine() throws IOException {
+        UserExportWriter writer = UserExportWriter.create(UserExportWriter.Format.NDJSON, output, objectMapper);
+
+        writer.accept(user(1L, "john"));
+        writer.accept(user(2L, "jane"));
+        writer.flush();
+
+        String[] lines = output.toString().split("\n");
+        assertThat(output.toString()).endsWith("\n");
+        assertThat(lines).hasSize(2);
+        AdminUserDTO first = objectMapper.readValue(lines[0], AdminUserDTO.class);
+        assertThat(first.getLogin()).isEqualTo("john");
+        assertThat(first.getCreatedDate()).isEqualTo(CREATED_DATE);
+        assertThat(first.getAuthorities()).containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+        assertThat(objectMapper.readValue(lines[1], AdminUserDTO.class).getLogin()).isEqualTo("jane");
+    }
+
+    @Test
+    void testCsvWritesTheHeaderAndOneLinePerUser() throws IOException {
+        UserExportWriter writer = UserExportWriter.create(UserExportWriter.Format.CSV, output, objectMapper);
+
+        writer.accept(user(1L, "john"));
+        writer.flush();
+
+        assertThat(output.toString())
+            .isEqualTo(
+                "id,login,firstName,lastName,email,imageUrl,activated,langKey," +
+                "createdBy,createdDate,lastModifiedBy,lastModifiedDate,authorities\r\n" +
+                "1,john,John,Doe,john@example.com,,true,en,system,2026-10-18T10:15:30Z,,,ROLE_ADMIN;ROLE_USER\r\n"
+            );
+    }
+
+    @Test
+    void testCsvQuotesSeparatorsAndQuotes() throws IOException {
+        AdminUserDTO user = user(1L, "john");
+        user.setFirstName("say \"hi\"");
+        user.setLastName("doe, john");
+        user.setImageUrl("line\nbreak");
+
+        assertThat(csvLine(user)).startsWith("1,john,\"say \"\"hi\"\"\",\"doe, john\",john@example.com,\"line\nbreak\",");
+    }
+
+    @Test
+    void testCsvGuardsFormulas() throws IOException {
+        AdminUserDTO user = user(1L, "john");
+        user.setFirstName("=HYPERLINK(\"x\")");
+        user.setLastName("+1");
+        user.setImageUrl("@SUM(A1)");
+
+        assertThat(csvLine(user)).startsWith("1,john,\"'=HYPERLINK(\"\"x\"\")\",'+1,john@example.com,'@SUM(A1),");
+    }
+
+    @Test
+    void testWriteErrorsAreUnchecked() throws IOException {
+        AtomicBoolean broken = new AtomicBoolean();
+        Writer brokenPipe = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                if (broken.get()) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+
+            @Override
+            public void flush() {}
+
+            @Override
+            public void close() {}
+        };
+        UserExportWriter writer = UserExportWriter.create(UserExportWriter.Format.CSV, brokenPipe, objectMapper);
+        broken.set(true);
+
+        assertThatThrownBy(() -> writer.accept(user(1L, "john")))
+            .isInstanceOf(UncheckedIOException.class)
+            .hasMessageContaining("Broken pipe");
+    }
+
+    private String csvLine(AdminUserDTO user) throws IOException {
+        UserExportWriter writer = UserExportWriter.create(UserExportWriter.Format.CSV, output, objectMapper);
+        writer.accept(user);
+        writer.flush();
+        String export = output.toString();
+        return export.substring(export.indexOf("\r\n") + 2);
+    }
+
+    private static AdminUserDTO user(Long id, String login) {
+        AdminUserDTO user = new AdminUserDTO();
+        user.setId(id);
+        user.setLogin(login);
+        user.setFirstName(login.equals("john") ? "John" : "Jane");
+        user.setLastName("Doe");
+        user.setEmail(login + "@example.com");
+        user.setActivated(true);
+        user.setLangKey("en");
+        user.setCreatedBy("system");
+        user.setCreatedDate(CREATED_DATE);
+        user.setAuthorities(Set.of(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN));
+        return user;
+    }
+}
@@ -1,5 +1,6 @@
 package com.mycompany.myapp.web.rest;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.emptyString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
@@ -60,6 +62,29 @@ class UserJWTControllerIT {
             .andExpect(header().string("Authorization", not(is(emptyString()))));
     }
 
+    @Test
+    @Transactional
+    void testAuthorizeRehashesPasswordOfAnotherCost() throws Exception {
+        User user = new User();
+        user.setLogin("user-jwt-controller-rehash");
+        user.setEmail("user-jwt-controller-rehash@example.com");
+        user.setActivated(true);
+        user.setPassword(new BCryptPasswordEncoder(4).encode("test"));
+
+        userRepository.saveAndFlush(user);
+
+        LoginVM login = new LoginVM();
+        login.setUsername("user-jwt-controller-rehash");
+        login.setPassword("test");
+        mockMvc
+            .perform(post("/api/authenticate").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(login)))
+            .andExpect(status().isOk());
+
+        String password = userRepository.findOneByLogin("user-jwt-controller-rehash").orElseThrow().getPassword();
+        assertThat(passwordEncoder.upgradeEncoding(password)).isFalse();
+        assertThat(passwordEncoder.matches("test", password)).isTrue();
+    }
+
     @Test
     @Transactional
     void testAuthorizeWithRememberMe() throws Exception {
@@ -1,10 +1,14 @@
 package com.mycompany.myapp.web.rest;
 
+import static com.mycompany.myapp.web.rest.SqlStatementResultMatchers.sqlStatementsAtMost;
+import static com.mycompany.myapp.web.rest.SqlStatementResultMatchers.sqlStatementsRepeatedAtMost;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
@@ -22,6 +26,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -67,9 +73,15 @@ class UserResourceIT {
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @Autowired
     private MockMvc restUserMockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private User user;
 
     /**
@@ -102,6 +114,12 @@ class UserResourceIT {
         return user;
     }
 
+    @BeforeEach
+    public void setup() {
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+        cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
+    }
+
     @BeforeEach
     public void initTest() {
         user = initTestUser(userRepository, em);
@@ -245,7 +263,147 @@ class UserResourceIT {
             .andExpect(jsonPath("$.[*].lastName").value(hasItem(DEFAULT_LASTNAME)))
             .andExpect(jsonPath("$.[*].email").value(hasItem(DEFAULT_EMAIL)))
             .andExpect(jsonPath("$.[*].imageUrl").value(hasItem(DEFAULT_IMAGEURL)))
-            .andExpect(jsonPath("$.[*].langKey").value(hasItem(DEFAULT_LANGKEY)));
+            .andExpect(jsonPath("$.[*].langKey").value(hasItem(DEFAULT_LANGKEY)))
+            // The count, the page, and the authorities of all its users at once
+            .andExpect(sqlStatementsAtMost(3))
+            .andExpect(sqlStatementsRepeatedAtMost(1));
+    }
+
+    @Test
+    @Transactional
+    void getAllUsersWithSparseFieldset() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        // Get only the login and email of all the users
+        restUserMockMvc
+            .perform(get("/api/admin/users?sort=id,desc&fields=login, email").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].login").value(hasItem(DEFAULT_LOGIN)))
+            .andExpect(jsonPath("$.[*].email").value(hasItem(DEFAULT_EMAIL)))
+            .andExpect(jsonPath("$.[*].id").doesNotExist())
+            .andExpect(jsonPath("$.[*].firstName").doesNotExist())
+            .andExpect(jsonPath("$.[*].activated").doesNotExist())
+            .andExpect(jsonPath("$.[*].authorities").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllUsersWithKeysetPagination() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+        User other = createEntity(em);
+        other.setLogin("z" + DEFAULT_LOGIN);
+        userRepository.saveAndFlush(other);
+
+        String link = restUserMockMvc
+            .perform(get("/api/admin/users?after=&size=1&sort=login,asc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].login").value(contains(DEFAULT_LOGIN)))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.LINK);
+        assertThat(link).endsWith("; rel=\"next\"");
+
+        restUserMockMvc
+            .perform(get(link.substring(1, link.indexOf('>'))).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.[*].login").value(contains(other.getLogin())));
+    }
+
+    @Test
+    @Transactional
+    void getAllUsersWithInvalidKeyset() throws Exception {
+        restUserMockMvc
+            .perform(get("/api/admin/users?after=&sort=firstName,asc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+        restUserMockMvc
+            .perform(get("/api/admin/users?after=invalid&sort=id,asc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void exportUsersAsNdjson() throws Exception {
+        user.setAuthorities(new HashSet<>(Set.of(authority(AuthoritiesConstants.USER), authority(AuthoritiesConstants.ADMIN))));
+        userRepository.saveAndFlush(user);
+
+        String export = restUserMockMvc
+            .perform(get("/api/admin/users/export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\""))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertThat(export).endsWith("\n");
+        List<String> lines = Arrays.asList(export.split("\n"));
+        assertThat(lines).hasSize((int) userRepository.count());
+        String line = lines.stream().filter(l -> l.contains("\"login\":\"" + DEFAULT_LOGIN + "\"")).findFirst().orElseThrow();
+        AdminUserDTO exported = objectMapper.readValue(line, AdminUserDTO.class);
+        assertThat(exported.getId()).isEqualTo(user.getId());
+        assertThat(exported.getEmail()).isEqualTo(DEFAULT_EMAIL);
+        assertThat(exported.getAuthorities()).containsExactlyInAnyOrder(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN);
+    }
+
+    @Test
+    @Transactional
+    void exportUsersAsCsv() throws Exception {
+        user.setFirstName("=HYPERLINK(\"x\")");
+        user.setLastName("doe, john");
+        user.setAuthorities(new HashSet<>(Set.of(authority(AuthoritiesConstants.USER), authority(AuthoritiesConstants.ADMIN))));
+        userRepository.saveAndFlush(user);
+
+        String export = restUserMockMvc
+            .perform(get("/api/admin/users/export?format=csv"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        List<String> lines = Arrays.asList(export.split("\r\n"));
+        assertThat(lines.get(0)).startsWith("id,login,firstName,lastName,email,");
+        assertThat(lines).hasSize((int) userRepository.count() + 1);
+        assertThat(lines)
+            .contains(
+                user.getId() +
+                "," +
+                DEFAULT_LOGIN +
+                ",\"'=HYPERLINK(\"\"x\"\")\",\"doe, john\"," +
+                DEFAULT_EMAIL +
+                "," +
+                DEFAULT_IMAGEURL +
+                ",true," +
+                DEFAULT_LANGKEY +
+                "," +
+                user.getCreatedBy() +
+                "," +
+                user.getCreatedDate() +
+                "," +
+                user.getLastModifiedBy() +
+                "," +
+                user.getLastModifiedDate() +
+                "," +
+                AuthoritiesConstants.ADMIN +
+                ";" +
+                AuthoritiesConstants.USER
+            );
+    }
+
+    @Test
+    @Transactional
+    void exportUsersWithUnknownFormat() throws Exception {
+        restUserMockMvc.perform(get("/api/admin/users/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    private Authority authority(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return authority;
     }
 
     @Test
@@ -264,7 +422,48 @@ class UserResourceIT {
             .andExpect(jsonPath("$.lastName").value(DEFAULT_LASTNAME))
             .andExpect(jsonPath("$.email").value(DEFAULT_EMAIL))
             .andExpect(jsonPath("$.imageUrl").value(DEFAULT_IMAGEURL))
-            .andExpect(jsonPath("$.langKey").value(DEFAULT_LANGKEY));
+            .andExpect(jsonPath("$.langKey").value(DEFAULT_LANGKEY))
+            // The user joined with its authorities
+            .andExpect(sqlStatementsAtMost(1));
+    }
+
+    @Test
+    @Transactional
+    void getUserByUppercaseLogin() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+
+        // Get the user, cached under its lowercase login
+        restUserMockMvc
+            .perform(get("/api/admin/users/{login}", user.getLogin().toUpperCase()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.login").value(user.getLogin()));
+
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(user.getLogin())).isNotNull();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get(user.getLogin().toUpperCase())).isNull();
+    }
+
+    @Test
+    @Transactional
+    void getUserWithEntityTag() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+        String entityTag = "\"" + user.getId() + "-" + user.getVersion() + "\"";
+
+        restUserMockMvc.perform(get("/api/admin/users/{login}", user.getLogin())).andExpect(header().string(HttpHeaders.ETAG, entityTag));
+
+        restUserMockMvc
+            .perform(get("/api/admin/users/{login}", user.getLogin()).header(HttpHeaders.IF_NONE_MATCH, "W/" + entityTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, entityTag))
+            .andExpect(content().string(""))
+            // checked against the user cached by the first request
+            .andExpect(sqlStatementsAtMost(0));
+
+        restUserMockMvc
+            .perform(get("/api/admin/users/{login}", user.getLogin()).header(HttpHeaders.IF_NONE_MATCH, "\"" + user.getId() + "-99\""))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.login").value(user.getLogin()));
     }
 
     @Test
@@ -317,6 +516,41 @@ class UserResourceIT {
         });
     }
 
+    @Test
+    @Transactional
+    void updateUserWithEntityTag() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+        String entityTag = "\"" + user.getId() + "-" + user.getVersion() + "\"";
+        String updatedEntityTag = "\"" + user.getId() + "-" + (user.getVersion() + 1) + "\"";
+        AdminUserDTO userDTO = new AdminUserDTO(user);
+        userDTO.setFirstName(UPDATED_FIRSTNAME);
+
+        // Update from the current version
+        restUserMockMvc
+            .perform(
+                put("/api/admin/users")
+                    .header(HttpHeaders.IF_MATCH, entityTag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(userDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, updatedEntityTag));
+
+        // A concurrent update from the same version is rejected
+        userDTO.setFirstName(DEFAULT_FIRSTNAME);
+        restUserMockMvc
+            .perform(
+                put("/api/admin/users")
+                    .header(HttpHeaders.IF_MATCH, entityTag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(userDTO))
+            )
+            .andExpect(status().isConflict());
+
+        assertThat(userRepository.findById(user.getId())).get().extracting(User::getFirstName).isEqualTo(UPDATED_FIRSTNAME);
+    }
+
     @Test
     @Transactional
     void updateUserLogin() throws Exception {
@@ -1,11 +1,13 @@
 package com.mycompany.myapp.web.rest.errors;
 
+import com.mycompany.myapp.security.PasswordHashingRejectedException;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -17,6 +19,21 @@ public class ExceptionTranslatorTestController {
         throw new ConcurrencyFailureException("test concurrency failure");
     }
 
+    @GetMapping("/password-hashing-rejected")
+    public void passwordHashingRejected() {
+        throw new PasswordHashingRejectedException(3, null);
+    }
+
+    @GetMapping("/password-hashing-rejected-for-unknown-user")
+    public void passwordHashingRejectedForUnknownUser() {
+        throw new InternalAuthenticationServiceException("test password hashing rejected", new PasswordHashingRejectedException(3, null));
+    }
+
+    @GetMapping("/internal-authentication-service")
+    public void internalAuthenticationService() {
+        throw new InternalAuthenticationServiceException("test internal authentication service");
+    }
+
     @PostMapping("/method-argument")
     public void methodArgument(@Valid @RequestBody TestDTO testDTO) {}
 
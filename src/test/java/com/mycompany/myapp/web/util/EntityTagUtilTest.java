@@ -0,0 +1,33 @@
+package com.mycompany.myapp.web.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link EntityTagUtil} utility class.
+ */
+class EntityTagUtilTest {
+
+    @Test
+    void testEntityTag() {
+        assertThat(EntityTagUtil.entityTag(12L, 3L)).isEqualTo("\"12-3\"");
+    }
+
+    @Test
+    void testIsNotModified() {
+        assertThat(EntityTagUtil.isNotModified(List.of("\"12-2\"", "\"12-3\""), "\"12-3\"")).isTrue();
+        assertThat(EntityTagUtil.isNotModified(List.of("W/\"12-3\""), "\"12-3\"")).isTrue();
+        assertThat(EntityTagUtil.isNotModified(List.of("*"), "\"12-3\"")).isTrue();
+        assertThat(EntityTagUtil.isNotModified(List.of("\"12-2\""), "\"12-3\"")).isFalse();
+    }
+
+    @Test
+    void testParseVersion() {
+        assertThat(EntityTagUtil.parseVersion(" \"12-3\" ", 12L)).contains(3L);
+        assertThat(EntityTagUtil.parseVersion("\"12-3\"", 13L)).isEmpty();
+        assertThat(EntityTagUtil.parseVersion("W/\"12-3\"", 12L)).isEmpty();
+        assertThat(EntityTagUtil.parseVersion("\"12-3\", \"12-4\"", 12L)).isEmpty();
+    }
+}
@@ -0,0 +1,148 @@
+package com.mycompany.myapp.web.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.service.dto.UserDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Test class for the {@link KeysetPaginationUtil} utility class.
+ */
+class KeysetPaginationUtilTest {
+
+    private static final Set<String> KEYSET_PROPERTIES = Set.of("id", "login");
+
+    private static final Sort.Order DEFAULT_ORDER = Sort.Order.asc("id");
+
+    @Test
+    void testGetKeysetOrder() {
+        assertThat(KeysetPaginationUtil.getKeysetOrder(Sort.unsorted(), KEYSET_PROPERTIES, DEFAULT_ORDER)).contains(DEFAULT_ORDER);
+        Sort loginThenId = Sort.by(Sort.Order.desc("login"), Sort.Order.asc("id"));
+        assertThat(KeysetPaginationUtil.getKeysetOrder(loginThenId, KEYSET_PROPERTIES, DEFAULT_ORDER)).contains(Sort.Order.desc("login"));
+        assertThat(KeysetPaginationUtil.getKeysetOrder(Sort.by("firstName"), KEYSET_PROPERTIES, DEFAULT_ORDER)).isEmpty();
+    }
+
+    @Test
+    void testCursorRoundTrip() {
+        Sort.Order order = Sort.Order.desc("login");
+        Slice<UserDTO> slice = slice(order, true, "alice", "bob");
+
+        Optional<String> cursor = KeysetPaginationUtil.nextCursor(slice, order);
+
+        assertThat(cursor).isPresent();
+        assertThat(cursor.get()).doesNotContain("bob").matches("[A-Za-z0-9_-]+");
+        assertThat(KeysetPaginationUtil.decodeCursor(cursor.get(), order)).contains("bob");
+    }
+
+    @Test
+    void testNoCursorOnLastSlice() {
+        assertThat(KeysetPaginationUtil.nextCursor(slice(DEFAULT_ORDER, false, "alice"), DEFAULT_ORDER)).isEmpty();
+    }
+
+    @Test
+    void testEmptyCursorIsFirstPage() {
+        assertThat(KeysetPaginationUtil.decodeCursor("", DEFAULT_ORDER)).isEmpty();
+    }
+
+    @Test
+    void testCursorOfAnotherOrderIsRejected() {
+        String cursor = KeysetPaginationUtil.nextCursor(slice(DEFAULT_ORDER, true, "alice"), DEFAULT_ORDER).orElseThrow();
+
+        assertThatThrownBy(() -> KeysetPaginationUtil.decodeCursor(cursor, Sort.Order.desc("id")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetPaginationUtil.decodeCursor(cursor, Sort.Order.asc("login")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetPaginationUtil.decodeCursor("not a cursor!", DEFAULT_ORDER))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testGenerateKeysetHttpHeaders() {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString(
+            "http://localhost/api/users?page=3&size=2&after=old&sort=id,asc"
+        );
+
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(uriBuilder, Optional.of("next"));
+
+        assertThat(headers.get(HttpHeaders.LINK))
+            .containsExactly("<http://localhost/api/users?size=2&sort=id,asc&after=next>; rel=\"next\"");
+        assertThat(headers.containsKey("X-Total-Count")).isFalse();
+        assertThat(KeysetPaginationUtil.generateKeysetHttpHeaders(uriBuilder, Optional.empty())).isEmpty();
+    }
+
+    @Test
+    void testGetSliceAfter() {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString("http://localhost/api/users?size=1&sort=login,desc&after=");
+        Map<String, Function<String, Object>> keysetProperties = Map.of("id", Long::valueOf, "login", String::valueOf);
+        PageRequest pageable = PageRequest.of(0, 1, Sort.by(Sort.Order.desc("login")));
+        List<Object> afters = new ArrayList<>();
+        KeysetPaginationUtil.KeysetQuery<UserDTO> query = (order, after, size) -> {
+            afters.add(after);
+            return slice(order, true, "bob");
+        };
+
+        ResponseEntity<List<UserDTO>> first = KeysetPaginationUtil.getSliceAfter(
+            uriBuilder,
+            pageable,
+            "",
+            keysetProperties,
+            DEFAULT_ORDER,
+            query
+        );
+        String cursor = first.getHeaders().getFirst(HttpHeaders.LINK).replaceAll(".*after=([^>&]+).*", "$1");
+        KeysetPaginationUtil.getSliceAfter(uriBuilder, pageable, cursor, keysetProperties, DEFAULT_ORDER, query);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody()).extracting(UserDTO::getLogin).containsExactly("bob");
+        assertThat(KeysetPaginationUtil.decodeCursor(cursor, Sort.Order.desc("login"))).contains("bob");
+        assertThat(afters).containsExactly(null, "bob");
+    }
+
+    @Test
+    void testGetSliceAfterRejectsInvalidRequests() {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString("http://localhost/api/users");
+        Map<String, Function<String, Object>> keysetProperties = Map.of("id", Long::valueOf);
+        KeysetPaginationUtil.KeysetQuery<UserDTO> query = (order, after, size) -> {
+            throw new AssertionError("No slice must be queried");
+        };
+
+        assertThat(
+            KeysetPaginationUtil
+                .getSliceAfter(uriBuilder, PageRequest.of(0, 1, Sort.by("login")), "", keysetProperties, DEFAULT_ORDER, query)
+                .getStatusCode()
+        )
+            .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(KeysetPaginationUtil.getSliceAfter(uriBuilder, PageRequest.of(0, 1), "invalid", keysetProperties, DEFAULT_ORDER, query))
+            .extracting(ResponseEntity::getStatusCode)
+            .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private Slice<UserDTO> slice(Sort.Order order, boolean hasNext, String... logins) {
+        List<UserDTO> users = Arrays.stream(logins).map(this::user).collect(Collectors.toList());
+        return new SliceImpl<>(users, PageRequest.of(0, logins.length, Sort.by(order)), hasNext);
+    }
+
+    private UserDTO user(String login) {
+        UserDTO user = new UserDTO();
+        user.setId((long) login.hashCode());
+        user.setLogin(login);
+        return user;
+    }
+}
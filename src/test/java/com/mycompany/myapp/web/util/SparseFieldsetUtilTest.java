@@ -0,0 +1,23 @@
+package com.mycompany.myapp.web.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link SparseFieldsetUtil} utility class.
+ */
+class SparseFieldsetUtilTest {
+
+    @Test
+    void testParseFields() {
+        assertThat(SparseFieldsetUtil.parseFields("login, email", "login,,authorities"))
+            .hasValueSatisfying(fields -> assertThat(fields).containsExactly("login", "email", "authorities"));
+    }
+
+    @Test
+    void testAllFieldsByDefault() {
+        assertThat(SparseFieldsetUtil.parseFields((String[]) null)).isEmpty();
+        assertThat(SparseFieldsetUtil.parseFields("", " ")).isEmpty();
+    }
+}